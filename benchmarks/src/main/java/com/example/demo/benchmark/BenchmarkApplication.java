@@ -0,0 +1,42 @@
+package com.example.demo.benchmark;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.InMemoryClientRegistrationRepository;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+
+import com.example.demo.DemoApplication;
+
+/**
+ * 为基准测试启动完整的应用上下文（内嵌 H2）。
+ *
+ * 注：
+ *     application.yml 中的 OAuth2 客户端配置了 issuer-uri，启动时会去请求 http://localhost:8000 上的授权服务器，
+ *     这里预先注册一个本地的 ClientRegistrationRepository，使自动配置跳过对授权服务器的访问。
+ */
+public final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    public static ConfigurableApplicationContext start(String... args) {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        return new SpringApplicationBuilder(DemoApplication.class)
+            .initializers(context -> context.getBeanFactory().registerSingleton(
+                "clientRegistrationRepository",
+                new InMemoryClientRegistrationRepository(
+                    ClientRegistration.withRegistrationId("benchmark")
+                        .clientId("benchmark")
+                        .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                        .redirectUri("{baseUrl}/login/oauth2/code/{registrationId}")
+                        .authorizationUri("http://localhost/oauth2/authorize")
+                        .tokenUri("http://localhost/oauth2/token")
+                        .build()
+                )
+            ))
+            .properties("server.port=0", "logging.level.root=WARN")
+            .run(args);
+    }
+
+}
@@ -0,0 +1,129 @@
+package com.example.demo.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.example.demo.domain.Cat;
+import com.example.demo.domain.Ingredient;
+import com.example.demo.service.IngredientCatalog;
+
+/**
+ * JSON、CBOR、Smile 三种格式（见 BinaryContentConfiguration）的应答体积和 Jackson 序列化、反序列化的吞吐量：
+ *   - recent*：GET /api/cats?recent 的应答，一页 12 个 Cat（每个 5 个配料）；
+ *   - ingredients*：GET /api/ingredients 的应答，全部配料。
+ * 使用的 ObjectMapper 即 Spring MVC 的消息转换器所用的：JSON 为应用上下文中的 ObjectMapper，CBOR、Smile 为对应消息转换器 bean 中的。
+ * 各格式的应答字节数在每个 trial 开始时打印（"payload bytes"）。
+ * 运行方式（见 benchmarks/pom.xml）：mvn -f benchmarks/pom.xml package antrun:run@jmh -Djmh.args=BinaryFormatBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryFormatBenchmark {
+
+    private static final TypeReference<List<Cat>> CATS = new TypeReference<List<Cat>>() { };
+    private static final TypeReference<List<Ingredient>> INGREDIENTS = new TypeReference<List<Ingredient>>() { };
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    private ConfigurableApplicationContext context;
+    private ObjectMapper mapper;
+
+    private List<Cat> recent;
+    private List<Ingredient> ingredients;
+    private byte[] recentBytes;
+    private byte[] ingredientsBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkApplication.start();
+        switch (format) {
+            case "cbor":
+                mapper = context.getBean(MappingJackson2CborHttpMessageConverter.class).getObjectMapper();
+                break;
+            case "smile":
+                mapper = context.getBean(MappingJackson2SmileHttpMessageConverter.class).getObjectMapper();
+                break;
+            default:
+                mapper = context.getBean(ObjectMapper.class);
+        }
+
+        ingredients = context.getBean(IngredientCatalog.class).findAll();
+        recent = new ArrayList<>(12);
+        for (int i = 0; i < 12; i++) {
+            Cat cat = new Cat();
+            cat.setId((long) i + 1);
+            cat.setName("Cat " + i);
+            List<Ingredient> chosen = new ArrayList<>(5);
+            for (int j = 0; j < 5; j++) {
+                chosen.add(ingredients.get((i + j) % ingredients.size()));
+            }
+            cat.setIngredients(chosen);
+            recent.add(cat);
+        }
+        recentBytes = mapper.writeValueAsBytes(recent);
+        ingredientsBytes = mapper.writeValueAsBytes(ingredients);
+        System.out.printf("%n%s payload bytes: recent (12 cats) = %d, ingredients (%d) = %d%n",
+            format, recentBytes.length, ingredients.size(), ingredientsBytes.length);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] recentSerialize() throws IOException {
+        return mapper.writeValueAsBytes(recent);
+    }
+
+    @Benchmark
+    public List<Cat> recentDeserialize() throws IOException {
+        return mapper.readValue(recentBytes, CATS);
+    }
+
+    @Benchmark
+    public byte[] ingredientsSerialize() throws IOException {
+        return mapper.writeValueAsBytes(ingredients);
+    }
+
+    @Benchmark
+    public List<Ingredient> ingredientsDeserialize() throws IOException {
+        return mapper.readValue(ingredientsBytes, INGREDIENTS);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(BinaryFormatBenchmark.class.getSimpleName())
+            .build()
+        ).run();
+    }
+
+}
@@ -0,0 +1,126 @@
+package com.example.demo.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.demo.domain.Cat;
+import com.example.demo.domain.Ingredient;
+import com.example.demo.service.IngredientCatalog;
+
+/**
+ * 对比经由 HTTP 导入 rows 个 Cat（每个 Cat 3 个配料）的总耗时：
+ *   - bulkNdjson：一次 POST /api/cats/bulk，请求体为 NDJSON；
+ *   - bulkCsv：一次 POST /api/cats/bulk，请求体为 CSV；
+ *   - singlePosts：rows 次 POST /api/cats，每次一个 Cat（由 EclipseLink 逐个插入）。
+ * 运行方式（见 benchmarks/pom.xml）：mvn -f benchmarks/pom.xml package antrun:run@jmh -Djmh.args=BulkImportBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class BulkImportBenchmark {
+
+    @Param({"100000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private RestTemplate restTemplate;
+    private String baseUrl;
+    private String ndjson;
+    private String csv;
+    private String[] singles;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = BenchmarkApplication.start();
+        restTemplate = new RestTemplate();
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/cats";
+
+        List<Ingredient> ingredients = context.getBean(IngredientCatalog.class).findAll();
+        ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+        StringBuilder ndjsonBuilder = new StringBuilder();
+        StringBuilder csvBuilder = new StringBuilder("name,ingredients\n");
+        singles = new String[rows];
+        for (int i = 0; i < rows; i++) {
+            String name = "Bulk Cat " + i;
+            List<Ingredient> catIngredients = ingredients.subList(i % 7, i % 7 + 3);
+            StringBuilder ids = new StringBuilder();
+            for (Ingredient ingredient : catIngredients) {
+                ids.append(ids.length() == 0 ? "" : "\",\"").append(ingredient.getId());
+            }
+            ndjsonBuilder.append("{\"name\":\"").append(name).append("\",\"ingredients\":[\"").append(ids).append("\"]}\n");
+            csvBuilder.append(name).append(',').append(ids.toString().replace("\",\"", "|")).append('\n');
+
+            Cat cat = new Cat();
+            cat.setName(name);
+            cat.setIngredients(catIngredients);
+            singles[i] = objectMapper.writeValueAsString(cat);
+        }
+        ndjson = ndjsonBuilder.toString();
+        csv = csvBuilder.toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String bulkNdjson() {
+        return post(baseUrl + "/bulk", ndjson, MediaType.parseMediaType("application/x-ndjson"));
+    }
+
+    @Benchmark
+    public String bulkCsv() {
+        return post(baseUrl + "/bulk", csv, MediaType.parseMediaType("text/csv"));
+    }
+
+    @Benchmark
+    public int singlePosts() {
+        int created = 0;
+        for (String single : singles) {
+            if (post(baseUrl, single, MediaType.APPLICATION_JSON) != null) {
+                created++;
+            }
+        }
+        return created;
+    }
+
+    private String post(String url, String body, MediaType contentType) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(contentType);
+        return restTemplate.postForObject(url, new HttpEntity<>(body, headers), String.class);  // 应答体（BulkImportReport 或 Cat）原样以字符串返回
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(BulkImportBenchmark.class.getSimpleName())
+            .build()
+        ).run();
+    }
+
+}
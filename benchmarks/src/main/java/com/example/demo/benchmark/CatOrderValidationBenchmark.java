@@ -0,0 +1,105 @@
+package com.example.demo.benchmark;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.example.demo.domain.CatOrder;
+
+/**
+ * 提交订单（POST /orders）时 @Valid CatOrder 的 Bean Validation 开销（Hibernate Validator）：
+ *   - valid：所有字段都合法的订单；
+ *   - invalid：信用卡号通不过 Luhn 校验、有效期不符合 MM/YY 格式的订单（需要额外生成违规信息）；
+ *   - ccNumber：只校验 ccNumber（@CreditCardNumber，Luhn 算法）；
+ *   - ccExpiration：只校验 ccExpiration（@Pattern 正则）。
+ * 运行方式（见 benchmarks/pom.xml）：mvn -f benchmarks/pom.xml package antrun:run@jmh -Djmh.args=CatOrderValidationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CatOrderValidationBenchmark {
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private CatOrder validOrder;
+    private CatOrder invalidOrder;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        validOrder = newOrder("4111111111111111", "12/29");
+        invalidOrder = newOrder("4111111111111112", "13/2029");
+        if (!validator.validate(validOrder).isEmpty() || validator.validate(invalidOrder).size() != 2) {
+            throw new IllegalStateException("unexpected validation result");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<CatOrder>> valid() {
+        return validator.validate(validOrder);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<CatOrder>> invalid() {
+        return validator.validate(invalidOrder);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<CatOrder>> ccNumber() {
+        return validator.validateProperty(validOrder, "ccNumber");
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<CatOrder>> ccExpiration() {
+        return validator.validateProperty(validOrder, "ccExpiration");
+    }
+
+    private static CatOrder newOrder(String ccNumber, String ccExpiration) {
+        CatOrder catOrder = new CatOrder();
+        catOrder.setDeliveryName("Benchmark");
+        catOrder.setDeliveryStreet("1 Main St");
+        catOrder.setDeliveryCity("Springfield");
+        catOrder.setDeliveryState("CA");
+        catOrder.setDeliveryZip("90000");
+        catOrder.setCcNumber(ccNumber);
+        catOrder.setCcExpiration(ccExpiration);
+        catOrder.setCcCVV("123");
+        return catOrder;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(CatOrderValidationBenchmark.class.getSimpleName())
+            .build()
+        ).run();
+    }
+
+}
@@ -0,0 +1,121 @@
+package com.example.demo.benchmark;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.domain.Cat;
+import com.example.demo.repository.CatRepository;
+import com.example.demo.repository.SequenceBlockAllocator;
+
+/**
+ * 对比 OFFSET 分页与 keyset（seek）分页在第 1 页和第 10,000 页（每页 12 条）的延迟：
+ *   - offset*：catRepo.findAll(PageRequest.of(pageNo, 12, Sort.by("createdAt").descending()))，含 count 查询；
+ *   - seek*：catRepo.findAllByOrderByCreatedAtDescIdDesc / findRecentBefore，使用 (createdAt, id) 索引。
+ * 运行方式（见 benchmarks/pom.xml）：mvn -f benchmarks/pom.xml package antrun:run@jmh -Djmh.args=CatPaginationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class CatPaginationBenchmark {
+
+    private static final int PAGE_SIZE = 12;
+    private static final int DEEP_PAGE = 10000;
+
+    @Param({"1000000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private CatRepository catRepo;
+    private Cat deepCursor;  // 第 DEEP_PAGE - 1 页的最后一条，即取第 DEEP_PAGE 页时的游标
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        catRepo = context.getBean(CatRepository.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        SequenceBlockAllocator allocator = context.getBean(SequenceBlockAllocator.class);
+
+        long start = System.currentTimeMillis() - rows * 1000L;
+        int chunk = 10000;
+        for (int offset = 0; offset < rows; offset += chunk) {
+            int count = Math.min(chunk, rows - offset);
+            long id = allocator.nextIds(count);
+            List<Object[]> batch = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                // 每两条记录共用一个 createdAt，以覆盖 createdAt 相同时按 id 排序的情况
+                batch.add(new Object[] { id + i, new Timestamp(start + (offset + i) / 2 * 1000L), "Cat " + (offset + i) });
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO Cat (id, createdAt, name) VALUES (?, ?, ?)", batch);
+        }
+
+        deepCursor = jdbcTemplate.queryForObject(
+            "SELECT id, createdAt FROM Cat ORDER BY createdAt DESC, id DESC OFFSET ? ROWS FETCH NEXT 1 ROWS ONLY",
+            (rs, rowNum) -> {
+                Cat cat = new Cat();
+                cat.setId(rs.getLong("id"));
+                cat.setCreatedAt(new Date(rs.getTimestamp("createdAt").getTime()));
+                return cat;
+            },
+            DEEP_PAGE * PAGE_SIZE - 1
+        );
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Cat> offsetFirstPage() {
+        return catRepo.findAll(PageRequest.of(0, PAGE_SIZE, Sort.by("createdAt").descending())).getContent();
+    }
+
+    @Benchmark
+    public List<Cat> offsetDeepPage() {
+        return catRepo.findAll(PageRequest.of(DEEP_PAGE, PAGE_SIZE, Sort.by("createdAt").descending())).getContent();
+    }
+
+    @Benchmark
+    public List<Cat> seekFirstPage() {
+        return catRepo.findAllByOrderByCreatedAtDescIdDesc(PageRequest.of(0, PAGE_SIZE)).getContent();
+    }
+
+    @Benchmark
+    public List<Cat> seekDeepPage() {
+        return catRepo.findRecentBefore(deepCursor.getCreatedAt(), deepCursor.getId(), PageRequest.of(0, PAGE_SIZE)).getContent();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(CatPaginationBenchmark.class.getSimpleName())
+            .build()
+        ).run();
+    }
+
+}
@@ -0,0 +1,137 @@
+package com.example.demo.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.demo.domain.Cat;
+import com.example.demo.domain.Ingredient;
+import com.example.demo.repository.CatRepository;
+import com.example.demo.service.CatIngredientIndex;
+import com.example.demo.service.IngredientCatalog;
+import com.example.demo.vo.CatIngredientQuery;
+
+/**
+ * 在 cats 个 Cat（默认一百万，每个 Cat 随机包含约 40% 的配料）上比较按配料组成查询的两种方式，
+ * 每次都取满足条件的总数和按 id 倒序的第一页（12 个 id），即 GET /api/cats/search 除加载 Cat 之外的部分：
+ *   - index：CatIngredientIndex 的位图交、并、差；
+ *   - sql：CatSearchRepository 每个配料一个 EXISTS 子查询（索引不可用时的回退方式）。
+ * 查询为 with=CHED,SLSA&without=LETC 和 any=GRBF,CARN&without=SRCR 两种，索引占用的内存在 setUp() 中打印。
+ * 运行方式（见 benchmarks/pom.xml）：mvn -f benchmarks/pom.xml package antrun:run@jmh -Djmh.args=CatSearchBenchmark
+ * 注：插入一百万个 Cat 需要较长时间，可加上 -p cats=100000 缩小规模。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class CatSearchBenchmark {
+
+    private static final int BATCH = 10_000;
+    private static final int PAGE = 12;
+
+    @Param("1000000")
+    private int cats;
+
+    @Param({"with=CHED,SLSA&without=LETC", "any=GRBF,CARN&without=SRCR"})
+    private String query;
+
+    private ConfigurableApplicationContext context;
+    private CatRepository catRepository;
+    private CatIngredientIndex catIngredientIndex;
+    private CatIngredientQuery catIngredientQuery;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        catRepository = context.getBean(CatRepository.class);
+        catIngredientIndex = context.getBean(CatIngredientIndex.class);
+        List<Ingredient> ingredients = context.getBean(IngredientCatalog.class).findAll();
+
+        Random random = new Random(42);
+        for (int inserted = 0; inserted < cats; inserted += BATCH) {
+            List<Cat> batch = new ArrayList<>(BATCH);
+            for (int i = 0; i < Math.min(BATCH, cats - inserted); i++) {
+                Cat cat = new Cat();
+                cat.setName("Cat " + (inserted + i));
+                List<Ingredient> chosen = new ArrayList<>();
+                for (Ingredient ingredient : ingredients) {
+                    if (random.nextInt(10) < 4) {
+                        chosen.add(ingredient);
+                    }
+                }
+                if (chosen.isEmpty()) {
+                    chosen.add(ingredients.get(random.nextInt(ingredients.size())));
+                }
+                cat.setIngredients(chosen);
+                batch.add(cat);
+            }
+            catRepository.saveAllBatched(batch);
+        }
+        catIngredientIndex.rebuild();  // 重新构建以压缩位图（runOptimize），与应用启动时的状态一致
+
+        catIngredientQuery = parse(query);
+        System.out.println("cats: " + catIngredientIndex.getCatCount()
+            + ", index bytes: " + catIngredientIndex.getSizeInBytes()
+            + ", matches: " + catIngredientIndex.search(catIngredientQuery, null, PAGE).getTotal());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CatIngredientIndex.Result index() {
+        return catIngredientIndex.search(catIngredientQuery, null, PAGE);
+    }
+
+    @Benchmark
+    public CatIngredientIndex.Result sql() {
+        return new CatIngredientIndex.Result(
+            catRepository.countByIngredients(catIngredientQuery),
+            catRepository.findIdsByIngredients(catIngredientQuery, null, PAGE));
+    }
+
+    private static CatIngredientQuery parse(String query) {
+        String with = null;
+        String any = null;
+        String without = null;
+        for (String param : query.split("&")) {
+            String[] parts = param.split("=");
+            switch (parts[0]) {
+                case "with": with = parts[1]; break;
+                case "any": any = parts[1]; break;
+                default: without = parts[1]; break;
+            }
+        }
+        return CatIngredientQuery.of(with, any, without);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(CatSearchBenchmark.class.getSimpleName())
+            .build()
+        ).run();
+    }
+
+}
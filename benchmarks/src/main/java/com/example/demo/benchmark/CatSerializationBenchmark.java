@@ -0,0 +1,138 @@
+package com.example.demo.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.example.demo.domain.Cat;
+import com.example.demo.domain.CatOrder;
+import com.example.demo.domain.Ingredient;
+import com.example.demo.service.IngredientCatalog;
+
+/**
+ * CatController 应答的 Jackson 序列化开销，分别以 JSON 和 XML 两种格式（对应 produces = {"application/json", "application/xml"}）：
+ *   - cat*：GET /api/cats/{id} 的应答，一个带 5 个配料的 Cat；
+ *   - recent*：GET /api/cats?recent 的应答，12 个 Cat；
+ *   - order*：一个 CatOrder（3 个 Cat，每个 Cat 5 个配料）。
+ * 使用的 ObjectMapper 与 Spring MVC 的消息转换器相同：JSON 为应用上下文中的 ObjectMapper，
+ * XML 为由应用上下文中的 Jackson2ObjectMapperBuilder 创建的 XmlMapper（即 MappingJackson2XmlHttpMessageConverter 所用的）。
+ * 运行方式（见 benchmarks/pom.xml）：mvn -f benchmarks/pom.xml package antrun:run@jmh -Djmh.args=CatSerializationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CatSerializationBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private ObjectMapper jsonMapper;
+    private ObjectMapper xmlMapper;
+
+    private Cat cat;
+    private List<Cat> recent;
+    private CatOrder order;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        jsonMapper = context.getBean(ObjectMapper.class);
+        xmlMapper = context.getBean(Jackson2ObjectMapperBuilder.class).createXmlMapper(true).build();
+
+        List<Ingredient> ingredients = context.getBean(IngredientCatalog.class).findAll();
+        recent = new ArrayList<>(12);
+        for (int i = 0; i < 12; i++) {
+            recent.add(newCat(i, ingredients));
+        }
+        cat = recent.get(0);
+        order = new CatOrder();
+        order.setId(1L);
+        order.setDeliveryName("Benchmark");
+        order.setDeliveryStreet("1 Main St");
+        order.setDeliveryCity("Springfield");
+        order.setDeliveryState("CA");
+        order.setDeliveryZip("90000");
+        order.setCcNumber("4111111111111111");
+        order.setCcExpiration("12/29");
+        order.setCcCVV("123");
+        for (int i = 0; i < 3; i++) {
+            order.addDesign(recent.get(i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] catJson() throws JsonProcessingException {
+        return jsonMapper.writeValueAsBytes(cat);
+    }
+
+    @Benchmark
+    public byte[] catXml() throws JsonProcessingException {
+        return xmlMapper.writeValueAsBytes(cat);
+    }
+
+    @Benchmark
+    public byte[] recentJson() throws JsonProcessingException {
+        return jsonMapper.writeValueAsBytes(recent);
+    }
+
+    @Benchmark
+    public byte[] recentXml() throws JsonProcessingException {
+        return xmlMapper.writeValueAsBytes(recent);
+    }
+
+    @Benchmark
+    public byte[] orderJson() throws JsonProcessingException {
+        return jsonMapper.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public byte[] orderXml() throws JsonProcessingException {
+        return xmlMapper.writeValueAsBytes(order);
+    }
+
+    private static Cat newCat(int i, List<Ingredient> ingredients) {
+        Cat cat = new Cat();
+        cat.setId((long) i + 1);
+        cat.setName("Cat " + i);
+        List<Ingredient> chosen = new ArrayList<>(5);
+        for (int j = 0; j < 5; j++) {
+            chosen.add(ingredients.get((i + j) % ingredients.size()));
+        }
+        cat.setIngredients(chosen);
+        return cat;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(CatSerializationBenchmark.class.getSimpleName())
+            .build()
+        ).run();
+    }
+
+}
@@ -0,0 +1,142 @@
+package com.example.demo.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.demo.ReactiveApiServer;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * 大量并发连接下 Spring MVC（Tomcat）与响应式接口（WebFlux + R2DBC，见 ReactiveApiServer）的对比：
+ * 先后对两者的 GET /api/cats?recent 保持同样多的并发连接（默认 5000），每个连接反复发出请求，收到应答后停顿一段时间（think time，模拟慢客户端）再发下一个，
+ * 报告吞吐量、延迟的 p50/p99/p99.9/最大值，以及压测期间处理请求的服务器线程数（Tomcat 的 http-nio-*-exec-*、响应式接口的 catcloud-reactive-*）和 JVM 总线程数的峰值。
+ * 客户端使用非阻塞的 Reactor Netty HttpClient（自己的事件循环线程 loadtest-*），与应用在同一个 JVM 中，JVM 总线程数中两次压测的客户端部分相同。
+ * 这不是 JMH 基准测试，运行方式（见 benchmarks/pom.xml，参数依次为 连接数 预热秒数 测量秒数 停顿毫秒数）：
+ *     mvn -f benchmarks/pom.xml package antrun:run@loadtest -Dloadtest.args="5000 10 30 100"
+ * 注：客户端和服务器两端的连接都在这个进程中，5000 个连接需要 1 万以上的文件描述符（ulimit -n）。
+ */
+public final class ConcurrentConnectionsLoadTest {
+
+    private static final String PATH = "/api/cats?recent";
+
+    private ConcurrentConnectionsLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        Duration warmup = Duration.ofSeconds(args.length > 1 ? Long.parseLong(args[1]) : 10);
+        Duration measurement = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 30);
+        Duration think = Duration.ofMillis(args.length > 3 ? Long.parseLong(args[3]) : 100);
+
+        ConfigurableApplicationContext context = BenchmarkApplication.start(
+            "--catcloud.reactive.enabled=true",
+            "--catcloud.reactive.port=0"
+        );
+        try {
+            int mvcPort = ((WebServerApplicationContext) context).getWebServer().getPort();
+            int reactivePort = context.getBean(ReactiveApiServer.class).getPort();
+            System.out.printf("%d connections, warmup %s, measurement %s, think time %s%n", connections, warmup, measurement, think);
+            Result mvc = run(mvcPort, "http-nio-" + mvcPort + "-exec-", connections, warmup, measurement, think);
+            Result reactive = run(reactivePort, "catcloud-reactive-", connections, warmup, measurement, think);
+            System.out.printf("%n%-12s %10s %9s %9s %9s %9s %8s %15s %12s%n",
+                "stack", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors", "server threads", "jvm threads");
+            mvc.print("spring-mvc", measurement);
+            reactive.print("webflux", measurement);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static Result run(int port, String serverThreadPrefix, int connections, Duration warmup, Duration measurement, Duration think) {
+        Result result = new Result();
+        LoopResources loop = LoopResources.create("loadtest", Runtime.getRuntime().availableProcessors(), true);
+        ConnectionProvider provider = ConnectionProvider.builder("loadtest")
+            .maxConnections(connections)
+            .pendingAcquireMaxCount(-1)
+            .pendingAcquireTimeout(Duration.ofMinutes(1))
+            .build();
+        HttpClient client = HttpClient.create(provider)
+            .runOn(loop)
+            .baseUrl("http://localhost:" + port)
+            .responseTimeout(Duration.ofSeconds(30));
+
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long deadline = measureFrom + measurement.toNanos();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> {
+            if (System.nanoTime() >= measureFrom) {
+                int serverThreads = (int) Thread.getAllStackTraces().keySet().stream()
+                    .filter(thread -> thread.getName().startsWith(serverThreadPrefix))
+                    .count();
+                result.serverThreads.accumulateAndGet(serverThreads, Math::max);
+                result.jvmThreads.accumulateAndGet(threads.getThreadCount(), Math::max);
+            }
+        }, 0, 200, TimeUnit.MILLISECONDS);
+
+        try {
+            Flux.range(0, connections)
+                .flatMap(i -> Mono.defer(() -> {
+                    long start = System.nanoTime();
+                    return client.get().uri(PATH)
+                        .responseSingle((response, body) -> body.asByteArray().thenReturn(response.status().code()))
+                        .doOnNext(status -> {
+                            if (status != 200) {
+                                result.errors.incrementAndGet();
+                            } else if (start >= measureFrom && start < deadline) {
+                                result.latencies.recordValue(System.nanoTime() - start);
+                            }
+                        })
+                        .onErrorResume(e -> {
+                            result.errors.incrementAndGet();
+                            return Mono.empty();
+                        });
+                }).then(Mono.delay(think)).repeat(() -> System.nanoTime() < deadline), connections)
+                .blockLast();
+        } finally {
+            sampler.shutdownNow();
+            provider.disposeLater().block();
+            loop.disposeLater().block();
+        }
+        return result;
+    }
+
+    private static class Result {
+
+        final Histogram latencies = new ConcurrentHistogram(TimeUnit.SECONDS.toNanos(60), 3);
+        final AtomicLong errors = new AtomicLong();
+        final AtomicInteger serverThreads = new AtomicInteger();
+        final AtomicInteger jvmThreads = new AtomicInteger();
+
+        void print(String stack, Duration measurement) {
+            System.out.printf("%-12s %10.0f %9.1f %9.1f %9.1f %9.1f %8d %15d %12d%n",
+                stack,
+                latencies.getTotalCount() / (double) measurement.getSeconds(),
+                latencies.getValueAtPercentile(50) / 1e6,
+                latencies.getValueAtPercentile(99) / 1e6,
+                latencies.getValueAtPercentile(99.9) / 1e6,
+                latencies.getMaxValue() / 1e6,
+                errors.get(),
+                serverThreads.get(),
+                jvmThreads.get());
+        }
+
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.example.demo.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.ui.ExtendedModelMap;
+import org.springframework.ui.Model;
+
+import com.example.demo.controller.DesignCatController;
+import com.example.demo.converter.IngredientByIdConverter;
+import com.example.demo.domain.Ingredient;
+import com.example.demo.service.IngredientCatalog;
+
+/**
+ * /design 页面每次请求都会经过的两段代码（使用应用上下文中的 bean，内嵌 H2）：
+ *   - convertHit：IngredientByIdConverter.convert(已存在的配料 id)，由配料目录快照直接返回；
+ *   - convertMiss：IngredientByIdConverter.convert(不存在的配料 id)，快照中没有，回源数据库查询一次；
+ *   - convertForm：按一次提交勾选的配料数（5 个）逐个转换；
+ *   - addIngredientsToModel：DesignCatController.addIngredientsToModel，每个请求都会执行。
+ * 运行方式（见 benchmarks/pom.xml）：mvn -f benchmarks/pom.xml package antrun:run@jmh -Djmh.args=DesignHotPathBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DesignHotPathBenchmark {
+
+    private static final int INGREDIENTS_PER_DESIGN = 5;
+
+    private ConfigurableApplicationContext context;
+    private IngredientByIdConverter converter;
+    private DesignCatController designCatController;
+    private String[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        converter = context.getBean(IngredientByIdConverter.class);
+        designCatController = context.getBean(DesignCatController.class);
+        List<Ingredient> ingredients = context.getBean(IngredientCatalog.class).findAll();
+        ids = new String[INGREDIENTS_PER_DESIGN];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = ingredients.get(i % ingredients.size()).getId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Ingredient convertHit() {
+        return converter.convert(ids[0]);
+    }
+
+    @Benchmark
+    public Ingredient convertMiss() {
+        return converter.convert("NONE");
+    }
+
+    @Benchmark
+    public void convertForm(Blackhole blackhole) {
+        for (String id : ids) {
+            blackhole.consume(converter.convert(id));
+        }
+    }
+
+    @Benchmark
+    public Model addIngredientsToModel() {
+        Model model = new ExtendedModelMap();
+        designCatController.addIngredientsToModel(model);
+        return model;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(DesignHotPathBenchmark.class.getSimpleName())
+            .build()
+        ).run();
+    }
+
+}
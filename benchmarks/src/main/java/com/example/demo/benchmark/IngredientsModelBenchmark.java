@@ -0,0 +1,90 @@
+package com.example.demo.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.ui.ExtendedModelMap;
+import org.springframework.ui.Model;
+
+import com.example.demo.domain.Ingredient;
+import com.example.demo.service.IngredientCatalog;
+
+/**
+ * 对比 DesignCatController.addIngredientsToModel 的两种实现：
+ *   - perRequest：原来的实现，每个请求都复制配料列表、按每个类型过滤一遍、再组装一个新的 HashMap；
+ *   - shared：现在的实现（表单校验失败重新显示时），直接使用配料目录快照中预先分组好的只读 EnumMap，每个快照版本只计算一次，不逐次复制。
+ * 注：GET /design 已不再向模型中放入按类型分组的配料（配料分组使用缓存的标记，见 IngredientGroupsFragmentCache）。
+ * 运行方式（见 benchmarks/pom.xml）：mvn -f benchmarks/pom.xml package antrun:run@jmh -Djmh.args=IngredientsModelBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IngredientsModelBenchmark {
+
+    @Param({"10", "1000", "50000"})
+    private int size;
+
+    private List<Ingredient> ingredients;
+    private IngredientCatalog.Snapshot snapshot;
+
+    @Setup
+    public void setUp() {
+        Ingredient.Type[] types = Ingredient.Type.values();
+        ingredients = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ingredients.add(new Ingredient("I" + i, "Ingredient " + i, types[i % types.length]));
+        }
+        snapshot = new IngredientCatalog.Snapshot(1, ingredients);
+    }
+
+    @Benchmark
+    public Model perRequest() {
+        Model model = new ExtendedModelMap();
+        List<Ingredient> copy = new ArrayList<>();
+        ingredients.forEach(copy::add);  // 对应原来的 ingredientRepository.findAll().forEach(ingredients::add)
+        Map<String, Iterable<Ingredient>> ingredientsMap = new HashMap<>();
+        model.addAttribute("ingredientsMap", ingredientsMap);
+        for (Ingredient.Type type : Ingredient.Type.values()) {
+            ingredientsMap.put(
+                type.toString().toLowerCase(),
+                copy.stream().filter(x -> x.getType().equals(type)).collect(Collectors.toList())
+            );
+        }
+        return model;
+    }
+
+    @Benchmark
+    public Model shared() {
+        Model model = new ExtendedModelMap();
+        model.addAttribute("ingredientsMap", snapshot.getByType());
+        return model;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(IngredientsModelBenchmark.class.getSimpleName())
+            .build()
+        ).run();
+    }
+
+}
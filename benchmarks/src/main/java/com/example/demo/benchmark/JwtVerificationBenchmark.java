@@ -0,0 +1,132 @@
+package com.example.demo.benchmark;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.server.resource.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
+
+import com.example.demo.BackgroundRefreshingJwkSource;
+import com.example.demo.JwtDecoderProperties;
+import com.example.demo.SecurityConfiguration;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * 单个线程（即每个 CPU 核）每秒能认证的带 JWT 的请求数，即 /api/** 的请求在 oauth2ResourceServer() 中做的事情：
+ * 经由 SecurityConfiguration 中配置的 JwtDecoder 解析、校验 JWT，再转换为 Authentication。
+ *   - cache=false：每次都校验 RS256 签名（公钥集已由 BackgroundRefreshingJwkSource 保存在本地）；
+ *   - cache=true：经由 CachingJwtDecoder，同一个 JWT 在 exp 之前只校验一次。
+ * 请求轮流使用 clients 个客户端的 JWT，模拟多个客户端各自在令牌有效期内反复调用接口。
+ * 公钥集由本地的模拟公钥集服务器（JDK 自带的 HttpServer）提供。
+ * 运行方式（见 benchmarks/pom.xml）：mvn -f benchmarks/pom.xml package antrun:run@jmh -Djmh.args=JwtVerificationBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Threads(1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    @Param({"false", "true"})
+    private boolean cache;
+
+    @Param({"1000"})
+    private int clients;
+
+    private HttpServer server;
+    private BackgroundRefreshingJwkSource jwkSource;
+    private JwtAuthenticationProvider provider;
+    private String[] tokens;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        RSAKey key = new RSAKeyGenerator(2048).keyID("benchmark").generate();
+        byte[] jwks = new JWKSet(key.toPublicJWK()).toString().getBytes(StandardCharsets.UTF_8);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/oauth2/jwks", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, jwks.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(jwks);
+            }
+        });
+        server.start();
+
+        JwtDecoderProperties properties = new JwtDecoderProperties();
+        properties.setCache(cache);
+        properties.setCacheMaxSize(Math.max(clients, 1));
+        properties.setUnknownKeyWait(Duration.ofSeconds(5));
+        jwkSource = new BackgroundRefreshingJwkSource(
+            new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/oauth2/jwks"), properties);
+        provider = new JwtAuthenticationProvider(new SecurityConfiguration().jwtDecoder(jwkSource, properties));
+
+        tokens = new String[clients];
+        for (int i = 0; i < clients; i++) {
+            SignedJWT jwt = new SignedJWT(
+                new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(),
+                new JWTClaimsSet.Builder()
+                    .subject("client-" + i)
+                    .claim("scope", "writeIngredients deleteIngredients")
+                    .issueTime(new Date())
+                    .expirationTime(Date.from(Instant.now().plusSeconds(3600)))
+                    .build());
+            jwt.sign(new RSASSASigner(key));
+            tokens[i] = jwt.serialize();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jwkSource.close();
+        server.stop(0);
+    }
+
+    @Benchmark
+    public Authentication authenticate() {
+        String token = tokens[next];
+        next = next + 1 == tokens.length ? 0 : next + 1;
+        return provider.authenticate(new BearerTokenAuthenticationToken(token));
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(JwtVerificationBenchmark.class.getSimpleName())
+            .build()
+        ).run();
+    }
+
+}
@@ -0,0 +1,167 @@
+package com.example.demo.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.RestTemplate;
+
+import com.example.demo.domain.User;
+import com.example.demo.repository.UserRepository;
+
+/**
+ * 登录高峰（storm 个线程不停地表单登录）时，已登录用户访问 GET /design 的延迟分布（看 p0.99）：
+ *   - isolated=true：BCrypt 在 PasswordHashingExecutor 的专用线程中计算，请求线程随即释放；
+ *   - isolated=false：BCrypt 在 Tomcat 的请求线程中计算。
+ * 为了让请求线程成为瓶颈，Tomcat 最多只开 20 个请求线程。
+ * 运行方式（见 benchmarks/pom.xml）：mvn -f benchmarks/pom.xml package antrun:run@jmh -Djmh.args=LoginStormBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(2)
+@Fork(1)
+public class LoginStormBenchmark {
+
+    private static final Pattern CSRF_TOKEN = Pattern.compile("name=\"_csrf\" value=\"([^\"]+)\"");
+    private static final String USERNAME = "storm-user";
+    private static final String PASSWORD = "storm-password";
+
+    @Param({"true", "false"})
+    private boolean isolated;
+
+    @Param({"40"})
+    private int storm;
+
+    private ConfigurableApplicationContext context;
+    private RestTemplate restTemplate;
+    private String baseUrl;
+    private String designerCookie;
+
+    private final List<Thread> stormThreads = new ArrayList<>();
+    private volatile boolean storming;
+    private final AtomicLong logins = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(
+            "--catcloud.security.password-hashing.isolated=" + isolated,
+            "--server.tomcat.threads.max=20"
+        );
+        PasswordEncoder passwordEncoder = context.getBean(PasswordEncoder.class);
+        context.getBean(UserRepository.class).save(
+            new User(USERNAME, passwordEncoder.encode(PASSWORD), "Storm User", "", "", "", "", ""));
+
+        restTemplate = new RestTemplate();
+        restTemplate.setErrorHandler(new DefaultResponseErrorHandler() {
+            @Override
+            public boolean hasError(ClientHttpResponse response) {
+                return false;  // 503 等应答按原样返回，由调用方统计
+            }
+        });
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        designerCookie = login();
+        if (designerCookie == null || !design().getStatusCode().is2xxSuccessful()) {
+            throw new IllegalStateException("Failed to log in and open /design");
+        }
+
+        storming = true;
+        for (int i = 0; i < storm; i++) {
+            Thread thread = new Thread(() -> {
+                while (storming) {
+                    if (login() != null) {
+                        logins.incrementAndGet();
+                    } else {
+                        rejected.incrementAndGet();
+                    }
+                }
+            }, "login-storm-" + i);
+            thread.start();
+            stormThreads.add(thread);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        storming = false;
+        for (Thread thread : stormThreads) {
+            thread.join();
+        }
+        System.out.println("logins: " + logins.get() + ", rejected/failed: " + rejected.get());
+        context.close();
+    }
+
+    @Benchmark
+    public ResponseEntity<String> design() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.COOKIE, designerCookie);
+        return restTemplate.exchange(baseUrl + "/design", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+
+    /**
+     * 打开登录页面取得会话和 CSRF Token 后提交登录表单，登录成功时返回登录后的会话 Cookie，否则返回 null
+     */
+    private String login() {
+        ResponseEntity<String> page = restTemplate.getForEntity(baseUrl + "/login", String.class);
+        Matcher matcher = CSRF_TOKEN.matcher(String.valueOf(page.getBody()));
+        if (!matcher.find()) {
+            return null;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+        headers.add(HttpHeaders.COOKIE, sessionCookie(page.getHeaders()));
+        String form = "username=" + USERNAME + "&password=" + PASSWORD + "&_csrf=" + matcher.group(1);
+        ResponseEntity<String> response = restTemplate.exchange(
+            baseUrl + "/login", HttpMethod.POST, new HttpEntity<>(form, headers), String.class);
+        if (response.getStatusCode() != HttpStatus.FOUND
+            || !String.valueOf(response.getHeaders().getLocation()).endsWith("/design")) {
+            return null;
+        }
+        return sessionCookie(response.getHeaders());  // 登录成功后会话 id 已更换
+    }
+
+    private static String sessionCookie(HttpHeaders headers) {
+        List<String> cookies = headers.get(HttpHeaders.SET_COOKIE);
+        return cookies == null || cookies.isEmpty() ? null : cookies.get(0).split(";", 2)[0];
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(LoginStormBenchmark.class.getSimpleName())
+            .build()
+        ).run();
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.example.demo.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.demo.domain.Cat;
+import com.example.demo.domain.CatOrder;
+import com.example.demo.domain.Ingredient;
+import com.example.demo.repository.CatOrderRepository;
+import com.example.demo.service.IngredientCatalog;
+import com.example.demo.service.OrderIngestionService;
+
+/**
+ * 并发下单的负载测试（内嵌 H2，32 个线程同时下单）：
+ *   - perRequest：每个线程各自开启事务保存订单（catOrderRepository.saveBatched）；
+ *   - groupCommit：提交到 OrderIngestionService，等待所在批次提交后返回。
+ * 运行方式（见 benchmarks/pom.xml）：mvn -f benchmarks/pom.xml package antrun:run@jmh -Djmh.args=OrderIngestionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+public class OrderIngestionBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private CatOrderRepository catOrderRepository;
+    private OrderIngestionService orderIngestionService;
+    private List<Ingredient> ingredients;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(
+            "--catcloud.orders.ingestion.enabled=true",
+            "--catcloud.orders.ingestion.max-wait=2ms"
+        );
+        catOrderRepository = context.getBean(CatOrderRepository.class);
+        orderIngestionService = context.getBean(OrderIngestionService.class);
+        ingredients = context.getBean(IngredientCatalog.class).findAll();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CatOrder perRequest() {
+        return catOrderRepository.saveBatched(newOrder());
+    }
+
+    @Benchmark
+    public CatOrder groupCommit() {
+        return orderIngestionService.submit(newOrder()).join();
+    }
+
+    private CatOrder newOrder() {
+        CatOrder catOrder = new CatOrder();
+        catOrder.setDeliveryName("Load Test");
+        catOrder.setDeliveryStreet("1 Main St");
+        catOrder.setDeliveryCity("Springfield");
+        catOrder.setDeliveryState("CA");
+        catOrder.setDeliveryZip("90000");
+        catOrder.setCcNumber("4111111111111111");
+        catOrder.setCcExpiration("12/29");
+        catOrder.setCcCVV("123");
+        Cat cat = new Cat();
+        cat.setName("Load Test Cat");
+        cat.setIngredients(new ArrayList<>(ingredients.subList(0, 5)));
+        catOrder.addDesign(cat);
+        return catOrder;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(OrderIngestionBenchmark.class.getSimpleName())
+            .build()
+        ).run();
+    }
+
+}
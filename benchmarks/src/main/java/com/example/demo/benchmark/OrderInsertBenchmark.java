@@ -0,0 +1,109 @@
+package com.example.demo.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.demo.domain.Cat;
+import com.example.demo.domain.CatOrder;
+import com.example.demo.domain.Ingredient;
+import com.example.demo.repository.CatOrderRepository;
+import com.example.demo.service.IngredientCatalog;
+
+/**
+ * 对比每秒可插入的订单数（每个订单 3 个 Cat，每个 Cat 5 个配料）：
+ *   - eclipseLink：catOrderRepository.save(catOrder)，由 EclipseLink 级联逐行插入；
+ *   - batched：catOrderRepository.saveBatched(catOrder)，每张表一次批量插入；
+ *   - batchedAll：catOrderRepository.saveAllBatched(100 个订单)，按订单计数。
+ * 运行方式（见 benchmarks/pom.xml）：mvn -f benchmarks/pom.xml package antrun:run@jmh -Djmh.args=OrderInsertBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderInsertBenchmark {
+
+    private static final int ORDERS_PER_CALL = 100;
+
+    private ConfigurableApplicationContext context;
+    private CatOrderRepository catOrderRepository;
+    private List<Ingredient> ingredients;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        catOrderRepository = context.getBean(CatOrderRepository.class);
+        ingredients = context.getBean(IngredientCatalog.class).findAll();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CatOrder eclipseLink() {
+        return catOrderRepository.save(newOrder());
+    }
+
+    @Benchmark
+    public CatOrder batched() {
+        return catOrderRepository.saveBatched(newOrder());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS_PER_CALL)
+    public List<CatOrder> batchedAll() {
+        List<CatOrder> orders = new ArrayList<>(ORDERS_PER_CALL);
+        for (int i = 0; i < ORDERS_PER_CALL; i++) {
+            orders.add(newOrder());
+        }
+        return catOrderRepository.saveAllBatched(orders);
+    }
+
+    private CatOrder newOrder() {
+        CatOrder catOrder = new CatOrder();
+        catOrder.setDeliveryName("Benchmark");
+        catOrder.setDeliveryStreet("1 Main St");
+        catOrder.setDeliveryCity("Springfield");
+        catOrder.setDeliveryState("CA");
+        catOrder.setDeliveryZip("90000");
+        catOrder.setCcNumber("4111111111111111");
+        catOrder.setCcExpiration("12/29");
+        catOrder.setCcCVV("123");
+        for (int i = 0; i < 3; i++) {
+            Cat cat = new Cat();
+            cat.setName("Cat " + i);
+            cat.setIngredients(new ArrayList<>(ingredients.subList(i, i + 5)));
+            catOrder.addDesign(cat);
+        }
+        return catOrder;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(OrderInsertBenchmark.class.getSimpleName())
+            .build()
+        ).run();
+    }
+
+}
@@ -0,0 +1,146 @@
+package com.example.demo.benchmark;
+
+import java.util.Collections;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.domain.CatOrder;
+import com.example.demo.repository.CatOrderRepository;
+
+/**
+ * 32 个线程并发修改 4 个热点订单，每个线程只修改其中一个配送字段（不同线程修改的字段互不相同或部分相同），
+ * 版本号冲突时重新读取版本号后重试，按成功修改的次数计算吞吐量：
+ *   - loadAndSave：原来 PATCH /orders/{id} 的方式，findById() 加载订单、修改字段、save() 合并并 UPDATE 全部列；
+ *   - mergePatch：现在 application/merge-patch+json 的方式，catOrderRepository.patch() 只 UPDATE 补丁中的列。
+ * 重试次数在 tearDown() 中打印。
+ * 运行方式（见 benchmarks/pom.xml）：mvn -f benchmarks/pom.xml package antrun:run@jmh -Djmh.args=OrderPatchBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+public class OrderPatchBenchmark {
+
+    private static final int HOT_ORDERS = 4;
+    private static final String[] FIELDS = {"deliveryName", "deliveryStreet", "deliveryCity", "deliveryState", "deliveryZip"};
+
+    private ConfigurableApplicationContext context;
+    private CatOrderRepository catOrderRepository;
+    private JdbcTemplate jdbcTemplate;
+    private long[] orderIds;
+    private final AtomicLong retries = new AtomicLong();
+
+    @State(Scope.Thread)
+    public static class Client {
+
+        String field;
+
+        @Setup
+        public void setUp(ThreadParams threadParams) {
+            field = FIELDS[threadParams.getThreadIndex() % FIELDS.length];
+        }
+
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        catOrderRepository = context.getBean(CatOrderRepository.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        orderIds = new long[HOT_ORDERS];
+        for (int i = 0; i < HOT_ORDERS; i++) {
+            CatOrder catOrder = new CatOrder();
+            catOrder.setDeliveryName("Benchmark");
+            catOrder.setDeliveryStreet("1 Main St");
+            catOrder.setDeliveryCity("Springfield");
+            catOrder.setDeliveryState("CA");
+            catOrder.setDeliveryZip("90000");
+            catOrder.setCcNumber("4111111111111111");
+            catOrder.setCcExpiration("12/29");
+            catOrder.setCcCVV("123");
+            orderIds[i] = catOrderRepository.save(catOrder).getId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.println("retries: " + retries.get());
+        context.close();
+    }
+
+    @Benchmark
+    public CatOrder loadAndSave(Client client) {
+        long id = nextOrderId();
+        String value = nextValue();
+        while (true) {
+            CatOrder catOrder = catOrderRepository.findById(id).get();
+            switch (client.field) {
+                case "deliveryName": catOrder.setDeliveryName(value); break;
+                case "deliveryStreet": catOrder.setDeliveryStreet(value); break;
+                case "deliveryCity": catOrder.setDeliveryCity(value); break;
+                case "deliveryState": catOrder.setDeliveryState(value); break;
+                default: catOrder.setDeliveryZip(value); break;
+            }
+            try {
+                return catOrderRepository.save(catOrder);
+            } catch (OptimisticLockingFailureException e) {
+                retries.incrementAndGet();
+            }
+        }
+    }
+
+    @Benchmark
+    public Long mergePatch(Client client) {
+        long id = nextOrderId();
+        String value = nextValue();
+        while (true) {
+            // 对应客户端重新读取订单的版本号（例如 ETag）
+            long version = jdbcTemplate.queryForObject("SELECT version FROM Cat_Order WHERE id = ?", Long.class, id);
+            try {
+                return catOrderRepository.patch(id, version, Collections.singletonMap(client.field, value)).get();
+            } catch (OptimisticLockingFailureException e) {
+                retries.incrementAndGet();
+            }
+        }
+    }
+
+    private long nextOrderId() {
+        return orderIds[ThreadLocalRandom.current().nextInt(HOT_ORDERS)];
+    }
+
+    private static String nextValue() {
+        return "V" + ThreadLocalRandom.current().nextInt(100_000);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(OrderPatchBenchmark.class.getSimpleName())
+            .build()
+        ).run();
+    }
+
+}
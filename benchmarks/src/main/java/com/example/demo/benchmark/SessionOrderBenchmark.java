@@ -0,0 +1,135 @@
+package com.example.demo.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.example.demo.domain.Cat;
+import com.example.demo.domain.CatOrder;
+import com.example.demo.domain.Ingredient;
+import com.example.demo.vo.CatOrderDraft;
+
+/**
+ * 对比会话中保存一个 5 个 Cat（每个 4 种配料）的进行中订单时，Java 序列化（会话持久化/复制时）的开销：
+ *   - catOrder*：原来保存的完整 CatOrder 对象图；
+ *   - draft*：现在保存的 CatOrderDraft（只有 Cat 名称和配料 id）；
+ *   - rehydrate：提交订单时按配料目录将草稿还原为 CatOrder。
+ * 序列化后的字节数在 setUp() 中打印。
+ * 运行方式（见 benchmarks/pom.xml）：mvn -f benchmarks/pom.xml package antrun:run@jmh -Djmh.args=SessionOrderBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionOrderBenchmark {
+
+    private static final List<Ingredient> INGREDIENTS = Arrays.asList(
+        new Ingredient("FLTO", "Flour Tortilla", Ingredient.Type.WRAP),
+        new Ingredient("COTO", "Corn Tortilla", Ingredient.Type.WRAP),
+        new Ingredient("GRBF", "Ground Beef", Ingredient.Type.PROTEIN),
+        new Ingredient("CARN", "Carnitas", Ingredient.Type.PROTEIN),
+        new Ingredient("TMTO", "Diced Tomatoes", Ingredient.Type.VEGGIES),
+        new Ingredient("LETC", "Lettuce", Ingredient.Type.VEGGIES),
+        new Ingredient("CHED", "Cheddar", Ingredient.Type.CHEESE),
+        new Ingredient("JACK", "Monterrey Jack", Ingredient.Type.CHEESE),
+        new Ingredient("SLSA", "Salsa", Ingredient.Type.SAUCE),
+        new Ingredient("SRCR", "Sour Cream", Ingredient.Type.SAUCE)
+    );
+
+    private CatOrder catOrder;
+    private CatOrderDraft draft;
+    private byte[] catOrderBytes;
+    private byte[] draftBytes;
+    private Map<String, Ingredient> catalog;
+
+    @Setup
+    public void setUp() throws IOException {
+        catOrder = new CatOrder();
+        draft = new CatOrderDraft();
+        for (int i = 0; i < 5; i++) {
+            Cat cat = new Cat();
+            cat.setName("Session Cat " + i);
+            cat.setIngredients(new ArrayList<>(INGREDIENTS.subList(i, i + 4)));  // 与表单提交时一样，由 IngredientByIdConverter 转换得到的配料列表
+            catOrder.addDesign(cat);
+            draft.addDesign(cat);
+        }
+        catalog = new HashMap<>();
+        for (Ingredient ingredient : INGREDIENTS) {
+            catalog.put(ingredient.getId(), ingredient);
+        }
+        catOrderBytes = serialize(catOrder);
+        draftBytes = serialize(draft);
+        System.out.println("Serialized bytes per session: catOrder=" + catOrderBytes.length + ", draft=" + draftBytes.length);
+    }
+
+    @Benchmark
+    public byte[] catOrderSerialize() throws IOException {
+        return serialize(catOrder);
+    }
+
+    @Benchmark
+    public byte[] draftSerialize() throws IOException {
+        return serialize(draft);
+    }
+
+    @Benchmark
+    public Object catOrderDeserialize() throws Exception {
+        return deserialize(catOrderBytes);
+    }
+
+    @Benchmark
+    public Object draftDeserialize() throws Exception {
+        return deserialize(draftBytes);
+    }
+
+    @Benchmark
+    public CatOrder rehydrate() {
+        return draft.addDesignsTo(new CatOrder(), id -> Optional.ofNullable(catalog.get(id)));
+    }
+
+    private static byte[] serialize(Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize(byte[] bytes) throws Exception {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(SessionOrderBenchmark.class.getSimpleName())
+            .build()
+        ).run();
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.example.demo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 新 JVM 中启动应用上下文（到 ApplicationReadyEvent）的时间，profile 为 default 时 EclipseLink 在启动时建表、dataLoader 保存初始数据，
+ * 为 fast-startup 时由预先生成的脚本建表、写入初始数据，非主要流量的控制器延迟创建（见 FastStartupConfiguration）。
+ * 每个 fork 只启动一次（冷启动），以 fork 数作为样本数。
+ * 注：fast-startup 的静态织入需要以 mvn -Pfast-startup install 安装的 demo 构件，否则实体类未织入（仍可运行，但不是实际部署的情形）；
+ *     AppCDS 归档对启动时间的影响见 pom.xml 中的 antrun:run@startup-time。
+ * 运行方式（见 benchmarks/pom.xml）：mvn -f benchmarks/pom.xml package antrun:run@jmh -Djmh.args=StartupBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class StartupBenchmark {
+
+    @Param({"default", "fast-startup"})
+    private String profile;
+
+    private ConfigurableApplicationContext context;
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ConfigurableApplicationContext start() {
+        context = BenchmarkApplication.start("--spring.profiles.active=" + profile);
+        return context;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(StartupBenchmark.class.getSimpleName())
+            .build()
+        ).run();
+    }
+
+}
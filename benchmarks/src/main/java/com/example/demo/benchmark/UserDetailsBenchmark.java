@@ -0,0 +1,86 @@
+package com.example.demo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import com.example.demo.CachedUserDetailsService;
+import com.example.demo.domain.User;
+import com.example.demo.repository.UserRepository;
+
+/**
+ * 对比 8 个线程并发按用户名加载用户信息的吞吐量：
+ *   - uncached：直接经由 UserRepository.findByUsername 查询（EclipseLink 的共享缓存索引仍然生效）；
+ *   - cached：经由 SecurityConfiguration 中配置的 CachedUserDetailsService。
+ * 注：表单登录时每次还要做一次 BCrypt 校验（每次几十毫秒），这里只衡量其中加载用户信息的部分。
+ * 运行方式（见 benchmarks/pom.xml）：mvn -f benchmarks/pom.xml package antrun:run@jmh -Djmh.args=UserDetailsBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Threads(8)
+@Fork(1)
+public class UserDetailsBenchmark {
+
+    private static final String USERNAME = "benchmark-user";
+
+    private ConfigurableApplicationContext context;
+    private UserDetailsService uncached;
+    private CachedUserDetailsService cached;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        userRepository.save(new User(USERNAME, "{noop}secret", "Benchmark User", "", "", "", "", ""));
+        uncached = username -> {
+            User user = userRepository.findByUsername(username);
+            if (user != null) return user;
+            else throw new UsernameNotFoundException("User '" + username + "' not found");
+        };
+        cached = context.getBean(CachedUserDetailsService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserDetails uncached() {
+        return uncached.loadUserByUsername(USERNAME);
+    }
+
+    @Benchmark
+    public UserDetails cached() {
+        return cached.loadUserByUsername(USERNAME);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(UserDetailsBenchmark.class.getSimpleName())
+            .build()
+        ).run();
+    }
+
+}
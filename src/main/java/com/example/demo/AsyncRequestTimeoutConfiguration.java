@@ -0,0 +1,48 @@
+package com.example.demo;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * 让单个处理器方法为它开始的异步处理（例如返回 StreamingResponseBody 时）指定自己的超时时间，见 setTimeout()
+ *
+ * 注：
+ *     StreamingResponseBody、Callable 的异步处理默认使用全局的 spring.mvc.async.request-timeout，
+ *     只有 WebAsyncTask 可以带上自己的超时时间。这里注册一个 CallableProcessingInterceptor，
+ *     在异步处理开始之前（beforeConcurrentHandling 时还未调用 startAsync）把请求属性中的超时时间设置到 AsyncWebRequest 上，
+ *     没有设置该属性的请求仍使用全局的超时时间；超时后仍由默认的 TimeoutCallableProcessingInterceptor 应答 503。
+ */
+@Configuration
+public class AsyncRequestTimeoutConfiguration implements WebMvcConfigurer {
+
+    private static final String TIMEOUT_ATTRIBUTE = AsyncRequestTimeoutConfiguration.class.getName() + ".TIMEOUT";
+
+    /**
+     * 由处理器方法调用，为这个请求接下来开始的异步处理指定超时时间
+     */
+    public static void setTimeout(NativeWebRequest request, Duration timeout) {
+        request.setAttribute(TIMEOUT_ATTRIBUTE, timeout.toMillis(), RequestAttributes.SCOPE_REQUEST);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                Object timeout = request.getAttribute(TIMEOUT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+                if (timeout != null && request instanceof AsyncWebRequest) {
+                    ((AsyncWebRequest) request).setTimeout((Long) timeout);
+                }
+            }
+        });
+    }
+
+}
@@ -0,0 +1,179 @@
+package com.example.demo;
+
+import java.net.URL;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 保存在本地、由后台线程定期刷新的公钥集（JWKS），供校验 JWT 签名时按 kid 查找公钥
+ *
+ * 注：
+ *     原来由 NimbusJwtDecoder.withJwkSetUri 自动配置的公钥集在请求线程中获取：缓存过期或授权服务器轮换了密钥（出现未知的 kid）时，
+ *     当时的请求都要等待一次到授权服务器的 HTTP 请求，授权服务器变慢或不可用时资源服务器的 /api/** 也随之变慢或不可用。
+ *     这里改为 stale-while-revalidate：
+ *     - 启动时即在后台获取一次，之后每隔 refreshInterval 在后台重新获取，请求线程只读取本地保存的公钥集，不等待；
+ *     - 获取失败时继续使用之前的公钥集（只记录日志），直到下一次获取成功；
+ *     - 只有 kid 未知（密钥轮换后新签发的 JWT）的请求才触发一次重新获取，并最多等待 unknownKeyWait，
+ *       同一时刻只有一个获取在进行，两次由未知的 kid 触发的获取至少间隔 minRefreshInterval。
+ *     获取到的公钥集中不再有之前的某些密钥（授权服务器撤下了它们）时，通知 addKeysRemovedListener() 注册的监听器，
+ *     例如由 CachingJwtDecoder 淘汰以这些密钥签名、已缓存的 JWT。
+ *     关闭应用上下文时由 Spring 调用 close() 停止后台线程。
+ */
+@Slf4j
+public class BackgroundRefreshingJwkSource implements JWKSource<SecurityContext>, AutoCloseable {
+
+    private static final int SIZE_LIMIT = 50 * 1024;  // 公钥集的大小上限（字节），与 Nimbus 的 RemoteJWKSet 默认的相同
+
+    private final URL jwkSetUrl;
+    private final JwtDecoderProperties properties;
+    private final ScheduledExecutorService executor;
+
+    private volatile JWKSet jwkSet;            // 最近一次成功获取的公钥集，尚未获取成功时为 null
+    private CompletableFuture<Void> refreshing; // 正在进行的获取，由 this 的锁保护
+    private long lastTriggeredAt;               // 最近一次由未知的 kid 触发获取的时间，由 this 的锁保护
+    private final AtomicLong fetches = new AtomicLong();
+    private final List<Consumer<Set<String>>> keysRemovedListeners = new CopyOnWriteArrayList<>();
+
+    public BackgroundRefreshingJwkSource(URL jwkSetUrl, JwtDecoderProperties properties) {
+        this.jwkSetUrl = jwkSetUrl;
+        this.properties = properties;
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "jwks-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        this.executor = executor;
+        long interval = properties.getRefreshInterval().toMillis();
+        executor.scheduleWithFixedDelay(() -> refresh(true), 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) {
+        JWKSet current = jwkSet;
+        if (current != null) {
+            List<JWK> matches = jwkSelector.select(current);
+            if (!matches.isEmpty()) {
+                return matches;
+            }
+        }
+        // kid 未知（或还没有获取到公钥集）：触发一次获取并等待片刻，仍然没有匹配的公钥时校验失败（401）
+        CompletableFuture<Void> refresh = refresh(false);
+        try {
+            refresh.get(properties.getUnknownKeyWait().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (TimeoutException e) {
+            log.warn("喵喵喵，JWK set refresh did not finish within {}", properties.getUnknownKeyWait());
+        } catch (Exception e) {
+            // 获取失败已在 fetch() 中记录日志，这里用之前的公钥集继续匹配
+        }
+        current = jwkSet;
+        return current == null ? Collections.emptyList() : jwkSelector.select(current);
+    }
+
+    /**
+     * 在后台线程中获取公钥集，已有获取在进行时返回它；非强制的获取距离上一次不足 minRefreshInterval 时不获取
+     */
+    private synchronized CompletableFuture<Void> refresh(boolean force) {
+        if (refreshing != null && !refreshing.isDone()) {
+            return refreshing;
+        }
+        if (!force) {
+            long now = System.nanoTime();
+            if (lastTriggeredAt != 0 && now - lastTriggeredAt < properties.getMinRefreshInterval().toNanos()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            lastTriggeredAt = now;
+        }
+        refreshing = new CompletableFuture<>();
+        CompletableFuture<Void> running = refreshing;
+        executor.execute(() -> complete(running));
+        return running;
+    }
+
+    private void complete(CompletableFuture<Void> running) {
+        try {
+            fetch();
+            running.complete(null);
+        } catch (Exception e) {
+            running.completeExceptionally(e);
+        }
+    }
+
+    private void fetch() throws Exception {
+        fetches.incrementAndGet();
+        try {
+            JWKSet fetched = JWKSet.load(jwkSetUrl,
+                (int) properties.getConnectTimeout().toMillis(), (int) properties.getReadTimeout().toMillis(), SIZE_LIMIT);
+            JWKSet previous = jwkSet;
+            jwkSet = fetched;
+            log.debug("喵喵喵，JWK set refreshed from {}: {} keys", jwkSetUrl, fetched.getKeys().size());
+            if (previous != null) {
+                Set<String> removed = keyIds(previous);
+                removed.removeAll(keyIds(fetched));
+                if (!removed.isEmpty()) {
+                    log.info("喵喵喵，JWK set no longer contains keys {}", removed);
+                    for (Consumer<Set<String>> listener : keysRemovedListeners) {
+                        listener.accept(removed);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.warn("喵喵喵，Failed to refresh JWK set from {}, keeping the previous one: {}", jwkSetUrl, e.toString());
+            throw e;
+        }
+    }
+
+    private static Set<String> keyIds(JWKSet jwkSet) {
+        Set<String> keyIds = new HashSet<>();
+        for (JWK jwk : jwkSet.getKeys()) {
+            if (jwk.getKeyID() != null) {
+                keyIds.add(jwk.getKeyID());
+            }
+        }
+        return keyIds;
+    }
+
+    /**
+     * 注册一个监听器，在重新获取的公钥集中不再有之前的某些密钥时，以这些密钥的 kid 调用它（在后台线程中）
+     */
+    public void addKeysRemovedListener(Consumer<Set<String>> listener) {
+        keysRemovedListeners.add(listener);
+    }
+
+    /**
+     * 已尝试获取公钥集的次数（含失败的）
+     */
+    public long getFetches() {
+        return fetches.get();
+    }
+
+    public boolean isLoaded() {
+        return jwkSet != null;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+}
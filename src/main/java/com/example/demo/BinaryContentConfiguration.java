@@ -0,0 +1,95 @@
+package com.example.demo;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.rest.webmvc.BasePathAwareController;
+import org.springframework.data.rest.webmvc.config.RepositoryRestConfigurer;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.handler.MappedInterceptor;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import com.example.demo.converter.JacksonBinaryHttpMessageConverter;
+
+/**
+ * 除 JSON 外，CatController、IngredientController 和 Spring Data REST 导出的接口还可按 Accept 头以 CBOR（application/cbor）
+ * 或 Smile（application/x-jackson-smile）两种二进制格式应答，结构与 JSON 应答相同，但体积更小、解析更快，供移动端和服务间调用使用
+ *
+ * 注：
+ *     - CatController、IngredientController：这里声明的两个消息转换器 bean 会被 Spring Boot 加入 Spring MVC 的消息转换器，
+ *       它们的 ObjectMapper 由 Spring Boot 的 Jackson2ObjectMapperBuilder 创建，与 JSON 应答所用的 ObjectMapper 配置（模块、spring.jackson.*）相同，
+ *       两个控制器的 produces 中列出了这两种格式，Accept 未指定或为通配时仍为 JSON（排在第一位）；
+ *     - Spring Data REST 使用自己的一组消息转换器，这里在其中加入以其 HAL 应答的 ObjectMapper 写出这两种格式的转换器，见 JacksonBinaryHttpMessageConverter，
+ *       请求体仍只接受 JSON；
+ *     - Spring Data REST 把其处理器方法可产生的类型固定为 HAL、JSON 和 HAL-FORMS（写入请求属性 PRODUCIBLE_MEDIA_TYPES_ATTRIBUTE），
+ *       只加入转换器仍会得到 406，因此再由 dataRestBinaryMediaTypes 拦截器在其处理器方法执行前把这两种格式加入该属性。
+ */
+@Configuration
+public class BinaryContentConfiguration implements RepositoryRestConfigurer {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public MappedInterceptor dataRestBinaryMediaTypes() {
+        return new MappedInterceptor(null, new HandlerInterceptor() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                if (handler instanceof HandlerMethod
+                        && AnnotatedElementUtils.hasAnnotation(((HandlerMethod) handler).getBeanType(), BasePathAwareController.class)) {
+                    Set<MediaType> producible = (Set<MediaType>) request.getAttribute(HandlerMapping.PRODUCIBLE_MEDIA_TYPES_ATTRIBUTE);
+                    if (producible != null) {
+                        Set<MediaType> widened = new LinkedHashSet<>(producible);
+                        widened.add(MediaType.APPLICATION_CBOR);
+                        widened.add(APPLICATION_SMILE);
+                        request.setAttribute(HandlerMapping.PRODUCIBLE_MEDIA_TYPES_ATTRIBUTE, widened);
+                    }
+                }
+                return true;
+            }
+        });
+    }
+
+    @Override
+    public void configureHttpMessageConverters(List<HttpMessageConverter<?>> messageConverters) {
+        for (HttpMessageConverter<?> converter : new ArrayList<>(messageConverters)) {
+            if (converter instanceof AbstractJackson2HttpMessageConverter
+                    && converter.getSupportedMediaTypes().stream().anyMatch(MediaTypes.HAL_JSON::equalsTypeAndSubtype)) {
+                AbstractJackson2HttpMessageConverter hal = (AbstractJackson2HttpMessageConverter) converter;
+                messageConverters.add(new JacksonBinaryHttpMessageConverter(hal.getObjectMapper(), new CBORFactory(), MediaType.APPLICATION_CBOR));
+                messageConverters.add(new JacksonBinaryHttpMessageConverter(hal.getObjectMapper(), new SmileFactory(), APPLICATION_SMILE));
+                return;
+            }
+        }
+    }
+
+}
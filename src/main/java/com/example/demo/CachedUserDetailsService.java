@@ -0,0 +1,101 @@
+package com.example.demo;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+/**
+ * 为 UserDetailsService 加上一层有大小上限、有存活时间（TTL）的缓存
+ *
+ * 注：
+ *     缓存按最近访问的顺序淘汰（LRU），超过 maxSize 个用户时淘汰最久未访问的；
+ *     缓存的用户超过 ttl 后再次查询时重新从被装饰的 UserDetailsService 加载，以便用户信息的修改最迟在 ttl 之后生效。
+ *     找不到的用户不缓存，以免新注册的用户在 ttl 内无法登录。
+ *     用户被创建或修改时，应调用 evict(username) 立即淘汰缓存（见 RegistrationController）。
+ */
+public class CachedUserDetailsService implements UserDetailsService {
+
+    private final UserDetailsService delegate;
+    private final long ttlMillis;
+    private final Map<String, Entry> cache;
+    private long evictions;  // 淘汰的次数，由 cache 的锁保护
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public CachedUserDetailsService(UserDetailsService delegate, int maxSize, long ttlMillis) {
+        this.delegate = delegate;
+        this.ttlMillis = ttlMillis;
+        this.cache = new LinkedHashMap<String, Entry>(16, 0.75f, true/*按访问顺序排列*/) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        long now = System.currentTimeMillis();
+        long evictionsBeforeLoad;
+        synchronized (cache) {
+            Entry entry = cache.get(username);
+            if (entry != null && entry.expiresAt > now) {
+                hits.incrementAndGet();
+                return entry.userDetails;
+            }
+            evictionsBeforeLoad = evictions;
+        }
+        misses.incrementAndGet();
+        // 注：在锁外加载，避免一次数据库查询阻塞其它用户的登录
+        UserDetails userDetails = delegate.loadUserByUsername(username);
+        synchronized (cache) {
+            // 加载期间若有用户被淘汰（例如刚修改了信息），加载到的可能是修改前的信息，因此不放入缓存
+            if (evictions == evictionsBeforeLoad) {
+                cache.put(username, new Entry(userDetails, now + ttlMillis));
+            }
+        }
+        return userDetails;
+    }
+
+    public void evict(String username) {
+        synchronized (cache) {
+            cache.remove(username);
+            evictions++;
+        }
+    }
+
+    public void evictAll() {
+        synchronized (cache) {
+            cache.clear();
+            evictions++;
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private static final class Entry {
+
+        private final UserDetails userDetails;
+        private final long expiresAt;
+
+        Entry(UserDetails userDetails, long expiresAt) {
+            this.userDetails = userDetails;
+            this.expiresAt = expiresAt;
+        }
+
+    }
+
+}
@@ -0,0 +1,144 @@
+package com.example.demo;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+/**
+ * 为 JwtDecoder 加上一层校验结果的缓存：校验通过的 JWT 在过期（exp）之前再次出现时，直接返回之前解析出的 Jwt
+ *
+ * 注：
+ *     同一个客户端在访问令牌的有效期内会带着同一个 JWT 反复调用 /api/**，原来每次都要重新解析并校验一遍 RSA 签名。
+ *     缓存以 JWT 的 SHA-256 摘要为键（而不是 JWT 本身，以免缓存中保存可直接使用的令牌），按最近访问的顺序淘汰（LRU），
+ *     超过 maxSize 个时淘汰最久未访问的；条目在 JWT 的 exp 时刻失效，没有 exp 的 JWT 不缓存。
+ *     校验失败（签名错误、已过期等）的 JWT 不缓存，每次都交给被装饰的 JwtDecoder 校验并抛出异常。
+ *     被装饰的 JwtDecoder 对 exp 允许 60 秒的时钟偏差，而缓存的条目严格在 exp 失效，因此缓存不会延长 JWT 的有效期。
+ *
+ *     缓存按摘要分成最多 SEGMENTS 段，每段是一个各自加锁的 LRU（容量为 maxSize / 段数），
+ *     原来整个缓存共用一把锁，每个 /api/** 请求都要在这把锁上排队；分段后不同 JWT 的请求大多落在不同的段上，互不阻塞。
+ *     LRU 的淘汰顺序因此只在段内精确，整体上仍近似于 LRU。
+ *     授权服务器撤下某个密钥后（见 BackgroundRefreshingJwkSource），由 evictKeyIds() 淘汰以该密钥（kid）签名的 JWT，
+ *     以免它们在 exp 之前仍然从缓存中校验通过。
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private static final int SEGMENTS = 16;  // 最多的段数，须为 2 的幂
+
+    private final JwtDecoder delegate;
+    private final Segment[] segments;
+    private final AtomicLong keyEvictions = new AtomicLong();  // 按 kid 淘汰的次数
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public CachingJwtDecoder(JwtDecoder delegate, int maxSize) {
+        this.delegate = delegate;
+        // maxSize 较小时减少段数，使每段至少能容纳一个条目，且各段容量之和不超过 maxSize
+        this.segments = new Segment[Integer.highestOneBit(Math.max(1, Math.min(SEGMENTS, maxSize)))];
+        int segmentSize = Math.max(1, maxSize / segments.length);
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment(segmentSize);
+        }
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        String key = digest(token);
+        Segment segment = segments[key.hashCode() & (segments.length - 1)];
+        Instant now = Instant.now();
+        synchronized (segment) {
+            Jwt jwt = segment.get(key);
+            if (jwt != null) {
+                if (now.isBefore(jwt.getExpiresAt())) {
+                    hits.incrementAndGet();
+                    return jwt;
+                }
+                segment.remove(key);
+            }
+        }
+        misses.incrementAndGet();
+        long keyEvictionsBeforeDecode = keyEvictions.get();
+        // 注：在锁外校验，避免一次签名校验（以及可能的公钥集获取）阻塞其它请求
+        Jwt jwt = delegate.decode(token);
+        if (jwt.getExpiresAt() != null && now.isBefore(jwt.getExpiresAt())) {
+            synchronized (segment) {
+                // 校验期间若有密钥被撤下，这个 JWT 可能正是用它签名的，因此不放入缓存
+                if (keyEvictions.get() == keyEvictionsBeforeDecode) {
+                    segment.put(key, jwt);
+                }
+            }
+        }
+        return jwt;
+    }
+
+    /**
+     * 淘汰以这些密钥（kid）签名的 JWT
+     */
+    public void evictKeyIds(Collection<String> keyIds) {
+        keyEvictions.incrementAndGet();
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.values().removeIf(jwt -> keyIds.contains(String.valueOf(jwt.getHeaders().get("kid"))));
+            }
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);  // 每个 Java 平台都必须支持 SHA-256
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * 缓存的一段：按访问顺序排列、超过 maxSize 个时淘汰最久未访问的，由其自身的锁保护
+     */
+    private static final class Segment extends LinkedHashMap<String, Jwt> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int maxSize;
+
+        Segment(int maxSize) {
+            super(16, 0.75f, true/*按访问顺序排列*/);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Jwt> eldest) {
+            return size() > maxSize;
+        }
+
+    }
+
+}
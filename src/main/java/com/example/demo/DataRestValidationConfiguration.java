@@ -0,0 +1,32 @@
+package com.example.demo;
+
+import javax.validation.Validator;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.rest.core.event.ValidatingRepositoryEventListener;
+import org.springframework.data.rest.webmvc.config.RepositoryRestConfigurer;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+/**
+ * 通过 Spring Data REST 导出的接口（例如 POST /ingredients）新增或修改实体前，按实体上声明的 Bean Validation 约束校验，
+ * 不通过时返回 400，与 IngredientController 等控制器中 @Valid 的校验相同
+ *
+ * 注：Spring Data REST 默认不做校验，不合法的实体（例如没有类型的配料）会被直接保存。
+ */
+@Configuration
+public class DataRestValidationConfiguration implements RepositoryRestConfigurer {
+
+    private final Validator validator;
+
+    public DataRestValidationConfiguration(Validator validator) {
+        this.validator = validator;
+    }
+
+    @Override
+    public void configureValidatingRepositoryEventListener(ValidatingRepositoryEventListener validatingListener) {
+        SpringValidatorAdapter adapter = new SpringValidatorAdapter(validator);
+        validatingListener.addValidator("beforeCreate", adapter);
+        validatingListener.addValidator("beforeSave", adapter);
+    }
+
+}
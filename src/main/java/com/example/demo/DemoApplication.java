@@ -5,6 +5,8 @@ import java.util.Arrays;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.data.jdbc.JdbcRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import com.example.demo.domain.Ingredient;
@@ -18,10 +20,16 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Profile;
 
 import com.example.demo.domain.Cat;
 
-@SpringBootApplication
+// 注：R2DBC（响应式接口使用，见 ReactiveApiServer）在类路径上时，R2dbcAutoConfiguration 会创建一个 ConnectionFactory，
+//     Spring Boot 随之改用 R2DBC 执行 data.sql（不再等待 EclipseLink 建表），并创建与 JPA 并存的第二个事务管理器，
+//     因此排除它，R2DBC 的连接池只在响应式接口的子上下文中创建；
+//     同样排除 JdbcRepositoriesAutoConfiguration：本应用没有 Spring Data JDBC 仓库（JPA 仓库见 @EnableJpaRepositories），
+//     而它默认扫描整个应用包，会认领 reactive 包中实体带有 @Table（spring-data-relational 的注解）的 R2DBC 仓库并报错
+@SpringBootApplication(exclude = {R2dbcAutoConfiguration.class, JdbcRepositoriesAutoConfiguration.class})
 @EnableJpaRepositories(basePackages = "com.example.demo.repository")
 @EntityScan(basePackages = "com.example.demo.domain")
 public class DemoApplication implements WebMvcConfigurer {
@@ -43,12 +51,16 @@ public class DemoApplication implements WebMvcConfigurer {
 		// 在这种情况下，不需要自己创建一个控制器类，只需如下将路由与视图绑定即可。
 		registry.addViewController("/anotherhome").setViewName("home");
         // 将 /login 请求映射到 login 视图，同理。
-        registry.addViewController("/login")/*.setViewName("login")  // 如果视图名与请求路径相同，那么可以省略 setViewName() 方法*/;
+        // 注：LoginController 中已有 /login 的映射（处理登录表单的提交），Spring MVC 会优先匹配控制器中的映射，
+        //     GET /login 会因请求方法不匹配得到 405，因此登录页面改由 LoginController.loginForm() 返回。
+        // registry.addViewController("/login")/*.setViewName("login")  // 如果视图名与请求路径相同，那么可以省略 setViewName() 方法*/;
         // 将 /admin 请求映射到 admin 视图，同理。
         registry.addViewController("/admin")/*可省略.setViewName("admin")*/;
 	}
 
+    // 注：fast-startup 配置下初始数据由 db/fast-startup/seed.sql 写入，见 application-fast-startup.yml
     @Bean
+    @Profile("!fast-startup")
     public CommandLineRunner dataLoader(
         IngredientRepository ingredentRepo,
         UserRepository userRepo,
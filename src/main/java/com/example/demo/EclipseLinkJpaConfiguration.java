@@ -1,20 +1,27 @@
 package com.example.demo;
 
 import org.eclipse.persistence.config.PersistenceUnitProperties;
+import org.eclipse.persistence.exceptions.DatabaseException;
 
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 
 import org.springframework.boot.autoconfigure.orm.jpa.JpaBaseConfiguration;
 import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.support.SQLErrorCodeSQLExceptionTranslator;
+import org.springframework.jdbc.support.SQLExceptionTranslator;
 import org.springframework.transaction.jta.JtaTransactionManager;
 import org.springframework.instrument.classloading.InstrumentationLoadTimeWeaver;
 
 import org.springframework.orm.jpa.vendor.AbstractJpaVendorAdapter;
+import org.springframework.orm.jpa.vendor.EclipseLinkJpaDialect;
 import org.springframework.orm.jpa.vendor.EclipseLinkJpaVendorAdapter;
 
 import javax.sql.DataSource;
+import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -24,21 +31,87 @@ import java.util.Map;
 @Configuration
 public class EclipseLinkJpaConfiguration extends JpaBaseConfiguration {
 
-    protected EclipseLinkJpaConfiguration(DataSource dataSource, JpaProperties properties, ObjectProvider<JtaTransactionManager> jtaTransactionManager) {
+    private final EntityCacheProperties entityCacheProperties;
+    private final EntityCacheStatistics entityCacheStatistics;
+    private final String weaving;
+    private final String ddlGeneration;
+
+    protected EclipseLinkJpaConfiguration(
+        DataSource dataSource, JpaProperties properties, ObjectProvider<JtaTransactionManager> jtaTransactionManager,
+        EntityCacheProperties entityCacheProperties, EntityCacheStatistics entityCacheStatistics,
+        @Value("${catcloud.jpa.weaving:auto}") String weaving,  // auto：有 Java agent 时在加载时织入，否则使用静态织入（static）的结果
+        @Value("${catcloud.jpa.ddl-generation:" + PersistenceUnitProperties.DROP_AND_CREATE + "}") String ddlGeneration
+    ) {
         super(dataSource, properties, jtaTransactionManager);
+        this.entityCacheProperties = entityCacheProperties;
+        this.entityCacheStatistics = entityCacheStatistics;
+        this.weaving = weaving;
+        this.ddlGeneration = ddlGeneration;
     }
 
     @Override
     protected AbstractJpaVendorAdapter createJpaVendorAdapter() {
-        return new EclipseLinkJpaVendorAdapter();
+        EclipseLinkJpaDialect jpaDialect = new SqlTranslatingEclipseLinkJpaDialect(getDataSource());
+        return new EclipseLinkJpaVendorAdapter() {
+            @Override
+            public EclipseLinkJpaDialect getJpaDialect() {
+                return jpaDialect;
+            }
+        };
     }
 
     @Override
     protected Map<String, Object> getVendorProperties() {
         HashMap<String, Object> map = new HashMap<>();
-        map.put(PersistenceUnitProperties.WEAVING,
-                InstrumentationLoadTimeWeaver.isInstrumentationAvailable() ? "true" : "static");
-        map.put(PersistenceUnitProperties.DDL_GENERATION, "drop-and-create-tables");
+        // 注：fast-startup 配置（application-fast-startup.yml）下实体类在构建时已由 eclipselink-maven-plugin 静态织入（见 pom.xml），
+        //     表结构和初始数据也由预先生成的 SQL 脚本创建，因此这里分别为 static 和 none
+        map.put(PersistenceUnitProperties.WEAVING, "auto".equals(weaving)
+                ? (InstrumentationLoadTimeWeaver.isInstrumentationAvailable() ? "true" : "static")
+                : weaving);
+        map.put(PersistenceUnitProperties.DDL_GENERATION, ddlGeneration);
+        // 在创建 EntityManagerFactory 时就部署持久化单元（连接数据库并建表），而不是推迟到第一次创建 EntityManager 时，
+        // 以确保 data.sql（spring.jpa.defer-datasource-initialization）总是在建表之后执行，
+        // 即使 JdbcTemplate 等依赖数据库初始化的 bean 比 Repository 更早被创建（例如 Repository 的 JDBC 片段）。
+        map.put(PersistenceUnitProperties.DEPLOY_ON_STARTUP, "true");
+        // 按实体配置共享缓存（二级缓存）的策略，见 application.yml 中的 catcloud.jpa.cache
+        // 注：这里传入的是会话定制器的实例而不是类名，以便它能使用 Spring 管理的配置
+        map.put(PersistenceUnitProperties.SESSION_CUSTOMIZER, new EntityCacheCustomizer(entityCacheProperties, entityCacheStatistics));
         return map;
     }
+
+    /**
+     * 按 SQL 错误码转换 EclipseLink 数据库异常的 JpaDialect
+     * 注：EclipseLinkJpaDialect 不认识 EclipseLink 自己的 DatabaseException，例如违反唯一约束时，
+     *     提交事务得到的是 TransactionSystemException，仓库方法中 flush 得到的是 JpaSystemException，
+     *     调用方无法区分。这里与 JdbcTemplate 一样，用 SQLErrorCodeSQLExceptionTranslator 转换其中的 SQLException，
+     *     违反唯一约束时得到 DataIntegrityViolationException（DuplicateKeyException），其它无法转换的仍按原来的方式处理。
+     */
+    private static final class SqlTranslatingEclipseLinkJpaDialect extends EclipseLinkJpaDialect {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient SQLExceptionTranslator sqlExceptionTranslator;
+
+        private SqlTranslatingEclipseLinkJpaDialect(DataSource dataSource) {
+            this.sqlExceptionTranslator = new SQLErrorCodeSQLExceptionTranslator(dataSource);
+        }
+
+        @Override
+        public DataAccessException translateExceptionIfPossible(RuntimeException ex) {
+            Throwable cause = ex;
+            while (cause != null && !(cause instanceof DatabaseException)) {  // flush 时 DatabaseException 被包装在 PersistenceException 中
+                cause = cause.getCause();
+            }
+            if (cause != null && ((DatabaseException) cause).getInternalException() instanceof SQLException) {
+                DataAccessException translated = sqlExceptionTranslator.translate(
+                    "EclipseLink", null, (SQLException) ((DatabaseException) cause).getInternalException());
+                if (translated != null) {
+                    return translated;
+                }
+            }
+            return super.translateExceptionIfPossible(ex);
+        }
+
+    }
+
 }
@@ -0,0 +1,98 @@
+package com.example.demo;
+
+import java.util.Map;
+
+import org.eclipse.persistence.annotations.CacheType;
+import org.eclipse.persistence.config.SessionCustomizer;
+import org.eclipse.persistence.descriptors.ClassDescriptor;
+import org.eclipse.persistence.descriptors.invalidation.TimeToLiveCacheInvalidationPolicy;
+import org.eclipse.persistence.internal.identitymaps.CacheIdentityMap;
+import org.eclipse.persistence.internal.identitymaps.FullIdentityMap;
+import org.eclipse.persistence.internal.identitymaps.HardCacheWeakIdentityMap;
+import org.eclipse.persistence.internal.identitymaps.NoIdentityMap;
+import org.eclipse.persistence.internal.identitymaps.SoftCacheWeakIdentityMap;
+import org.eclipse.persistence.internal.identitymaps.SoftIdentityMap;
+import org.eclipse.persistence.internal.identitymaps.WeakIdentityMap;
+import org.eclipse.persistence.mappings.DatabaseMapping;
+import org.eclipse.persistence.sessions.Session;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 在部署持久化单元时，按 EntityCacheProperties 调整各实体的共享缓存策略
+ *
+ * 注：
+ *     这与在实体类上注解 EclipseLink 的 @Cache、@CacheIndex 等效，
+ *     只是改为由 application.yml 配置，这样调整缓存大小、存活时间时无需修改实体类。
+ */
+@Slf4j
+public class EntityCacheCustomizer implements SessionCustomizer {
+
+    private final EntityCacheProperties properties;
+    private final EntityCacheStatistics statistics;
+
+    public EntityCacheCustomizer(EntityCacheProperties properties, EntityCacheStatistics statistics) {
+        this.properties = properties;
+        this.statistics = statistics;
+    }
+
+    @Override
+    public void customize(Session session) {
+        for (Map.Entry<String, EntityCacheProperties.Entity> entry : properties.getEntities().entrySet()) {
+            ClassDescriptor descriptor = findDescriptor(session, entry.getKey());
+            EntityCacheProperties.Entity entity = entry.getValue();
+            if (entity.getType() != null) {
+                descriptor.getCachePolicy().setIdentityMapClass(identityMapClass(entity.getType()));
+            }
+            if (entity.getSize() != null) {
+                descriptor.getCachePolicy().setIdentityMapSize(entity.getSize());
+            }
+            if (entity.getTtl() != null) {
+                descriptor.setCacheInvalidationPolicy(new TimeToLiveCacheInvalidationPolicy(entity.getTtl().toMillis()));
+            }
+            for (String attribute : entity.getIndex()) {
+                DatabaseMapping mapping = descriptor.getMappingForAttributeName(attribute);
+                if (mapping == null || mapping.getField() == null) {
+                    throw new IllegalArgumentException("Cannot index " + entry.getKey() + "." + attribute + " in the cache");
+                }
+                descriptor.getCachePolicy().addCacheIndex(mapping.getField().getName());
+            }
+            log.info("喵喵喵，Entity cache for {}: type={}, size={}, ttl={}, index={}",
+                entry.getKey(), entity.getType(), entity.getSize(), entity.getTtl(), entity.getIndex());
+        }
+        if (properties.isStatistics()) {
+            session.setProfiler(statistics);
+        }
+    }
+
+    private static ClassDescriptor findDescriptor(Session session, String entityName) {
+        for (ClassDescriptor descriptor : session.getDescriptors().values()) {
+            if (descriptor.getJavaClass().getSimpleName().equals(entityName)) {
+                return descriptor;
+            }
+        }
+        throw new IllegalArgumentException("Unknown entity in catcloud.jpa.cache.entities: " + entityName);
+    }
+
+    // 与 EclipseLink 处理 @Cache(type = ...) 注解时的对应关系相同
+    private static Class<?> identityMapClass(CacheType type) {
+        switch (type) {
+            case FULL:
+                return FullIdentityMap.class;
+            case WEAK:
+                return WeakIdentityMap.class;
+            case SOFT:
+                return SoftIdentityMap.class;
+            case HARD_WEAK:
+                return HardCacheWeakIdentityMap.class;
+            case CACHE:
+                return CacheIdentityMap.class;
+            case NONE:
+                return NoIdentityMap.class;
+            case SOFT_WEAK:
+            default:
+                return SoftCacheWeakIdentityMap.class;
+        }
+    }
+
+}
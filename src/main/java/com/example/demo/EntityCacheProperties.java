@@ -0,0 +1,64 @@
+package com.example.demo;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.persistence.annotations.CacheType;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * EclipseLink 共享缓存（二级缓存）的按实体配置，对应 application.yml 中的 catcloud.jpa.cache，
+ * 由 EntityCacheCustomizer 在部署持久化单元时应用到各实体的描述符（descriptor）上。
+ */
+@Data
+@Component
+@ConfigurationProperties("catcloud.jpa.cache")
+public class EntityCacheProperties {
+
+    /**
+     * 是否统计各实体的缓存命中次数（见 EntityCacheStatistics），默认关闭。
+     * 注：开启后 EclipseLink 每次访问缓存都会加一把全局的读锁，只建议在调优缓存大小时开启。
+     */
+    private boolean statistics = false;
+
+    /**
+     * 各实体的缓存策略，键为实体类名（例如 Ingredient），未配置的实体使用 EclipseLink 的默认策略（SOFT_WEAK，大小 100）
+     */
+    private Map<String, Entity> entities = new LinkedHashMap<>();
+
+    @Data
+    public static class Entity {
+
+        /**
+         * 缓存类型：
+         *   - FULL：缓存全部对象，从不淘汰，适合数据量小且读多写少的实体；
+         *   - SOFT_WEAK / HARD_WEAK：最近使用的 size 个对象以软/强引用保留，其余以弱引用保留（随 GC 回收）；
+         *   - CACHE：最多只保留 size 个对象，超出后淘汰最早放入的对象；
+         *   - WEAK、SOFT、NONE。
+         */
+        private CacheType type;
+
+        /**
+         * 缓存大小（对 FULL 而言只是初始容量）
+         */
+        private Integer size;
+
+        /**
+         * 缓存对象的存活时间，过期后下次读取时会重新从数据库加载
+         */
+        private Duration ttl;
+
+        /**
+         * 缓存索引的属性名，例如 username：按这些属性查询单个对象时也可以直接从缓存中获取，而不只是按主键
+         */
+        private List<String> index = new ArrayList<>();
+
+    }
+
+}
@@ -0,0 +1,125 @@
+package com.example.demo;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.persistence.descriptors.ClassDescriptor;
+import org.eclipse.persistence.internal.sessions.AbstractRecord;
+import org.eclipse.persistence.internal.sessions.AbstractSession;
+import org.eclipse.persistence.queries.DatabaseQuery;
+import org.eclipse.persistence.sessions.Record;
+import org.eclipse.persistence.sessions.Session;
+import org.eclipse.persistence.sessions.SessionProfiler;
+import org.springframework.stereotype.Component;
+
+/**
+ * 统计 EclipseLink 共享缓存按实体的命中（hits）和未命中（misses）次数，以及当前缓存的对象数。
+ *
+ * 注：
+ *     EclipseLink 在按主键（或缓存索引）读取单个对象时，会通过会话的性能分析器（SessionProfiler）
+ *     上报 Counter:CacheHits / Counter:CacheMisses 事件，这里只记录这两种事件，其它的性能分析回调都是空操作。
+ *     只有开启 catcloud.jpa.cache.statistics 时，EntityCacheCustomizer 才会将它注册为会话的性能分析器。
+ */
+@Component
+public class EntityCacheStatistics implements SessionProfiler {
+
+    private final Map<String, LongAdder> hits = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> misses = new ConcurrentHashMap<>();
+
+    private volatile Session session;
+
+    public boolean isEnabled() {
+        return session != null;
+    }
+
+    public long getHits(String entity) {
+        LongAdder counter = hits.get(entity);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    public long getMisses(String entity) {
+        LongAdder counter = misses.get(entity);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    /**
+     * 各实体（以类名为键）当前在共享缓存中的对象数
+     */
+    public Map<String, Integer> getCachedObjectCounts(Session session) {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (ClassDescriptor descriptor : session.getDescriptors().values()) {
+            counts.put(
+                descriptor.getJavaClass().getSimpleName(),
+                ((AbstractSession) session).getIdentityMapAccessorInstance().getIdentityMap(descriptor).getSize()
+            );
+        }
+        return Collections.unmodifiableMap(counts);
+    }
+
+    @Override
+    public void occurred(String operationName, DatabaseQuery query, AbstractSession session) {
+        if (query == null || query.getReferenceClass() == null) {
+            return;
+        }
+        if (CacheHits.equals(operationName)) {
+            count(hits, query);
+        } else if (CacheMisses.equals(operationName)) {
+            count(misses, query);
+        }
+    }
+
+    private static void count(Map<String, LongAdder> counters, DatabaseQuery query) {
+        counters.computeIfAbsent(query.getReferenceClass().getSimpleName(), key -> new LongAdder()).increment();
+    }
+
+    @Override
+    public void occurred(String operationName, AbstractSession session) {
+    }
+
+    @Override
+    public void setSession(Session session) {
+        this.session = session;
+    }
+
+    @Override
+    public int getProfileWeight() {
+        return NORMAL;  // 注：返回 NONE 时 EclipseLink 会认为没有注册性能分析器，从而不再上报任何事件
+    }
+
+    @Override
+    public void setProfileWeight(int weight) {
+    }
+
+    @Override
+    public void initialize() {
+    }
+
+    @Override
+    public Object profileExecutionOfQuery(DatabaseQuery query, Record row, AbstractSession session) {
+        return session.internalExecuteQuery(query, (AbstractRecord) row);
+    }
+
+    @Override
+    public void startOperationProfile(String operationName) {
+    }
+
+    @Override
+    public void startOperationProfile(String operationName, DatabaseQuery query, int weight) {
+    }
+
+    @Override
+    public void endOperationProfile(String operationName) {
+    }
+
+    @Override
+    public void endOperationProfile(String operationName, DatabaseQuery query, int weight) {
+    }
+
+    @Override
+    public void update(String operationName, Object value) {
+    }
+
+}
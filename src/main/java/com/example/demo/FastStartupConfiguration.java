@@ -0,0 +1,68 @@
+package com.example.demo;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Controller;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 快速启动配置（fast-startup），供自动扩容时新实例尽快就绪，配合 application-fast-startup.yml 和 pom.xml 中的 fast-startup 构建配置使用
+ *
+ * 注：
+ *     - 实体类在构建时静态织入，表结构和初始数据由预先生成的 SQL 脚本创建（见 application-fast-startup.yml），
+ *       省去了 EclipseLink 启动时织入和建表、以及 dataLoader 逐个保存初始数据的时间；
+ *     - 不在 catcloud.startup.eager-controllers 中的控制器延迟到第一次处理请求时才创建（Spring MVC 注册处理器方法时只需要控制器的类型），
+ *       只有承载主要流量的控制器在启动时创建；
+ *     - 就绪时记录 JVM 启动以来的时间，catcloud.startup.exit-after-ready=true 时随即退出，
+ *       构建时用这种方式完成一次训练运行，由 JVM 在退出时生成 AppCDS 归档（见 pom.xml）。
+ */
+@Slf4j
+@Configuration
+@Profile("fast-startup")
+public class FastStartupConfiguration {
+
+    @Bean
+    public static BeanFactoryPostProcessor lazyControllers(Environment environment) {
+        List<String> eager = Binder.get(environment)
+            .bind("catcloud.startup.eager-controllers", Bindable.listOf(String.class))
+            .orElse(Arrays.asList("catController", "ingredientController", "designCatController", "orderController", "homeController"));
+        Set<String> eagerControllers = new HashSet<>(eager);
+        return beanFactory -> {
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                Class<?> type = beanFactory.getType(name, false);
+                if (type != null && !eagerControllers.contains(name) && AnnotatedElementUtils.hasAnnotation(type, Controller.class)) {
+                    beanFactory.getBeanDefinition(name).setLazyInit(true);
+                }
+            }
+        };
+    }
+
+    @Value("${catcloud.startup.exit-after-ready:false}")
+    private boolean exitAfterReady;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady(ApplicationReadyEvent event) {
+        log.info("喵喵喵，Ready in {} ms since JVM start", ManagementFactory.getRuntimeMXBean().getUptime());
+        if (exitAfterReady) {
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        }
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.example.demo;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * 资源服务器校验 JWT 的配置，对应 application.yml 中的 catcloud.security.jwt.*，详见 CachingJwtDecoder、BackgroundRefreshingJwkSource
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "catcloud.security.jwt")
+public class JwtDecoderProperties {
+
+    private boolean cache = true;        // 是否缓存校验通过的 JWT（关闭时每个请求都重新解析并校验签名）
+    private int cacheMaxSize = 10000;    // 最多缓存的 JWT 个数，超出时淘汰最久未访问的
+    private Duration refreshInterval = Duration.ofMinutes(5);      // 后台重新获取公钥集（JWKS）的间隔
+    private Duration minRefreshInterval = Duration.ofSeconds(10);  // 因遇到未知的 kid 而重新获取公钥集的最小间隔，避免伪造的 kid 引发大量请求
+    private Duration unknownKeyWait = Duration.ofMillis(500);      // 遇到未知的 kid 时，请求线程最多等待重新获取公钥集的时间
+    private Duration connectTimeout = Duration.ofSeconds(1);       // 获取公钥集的连接超时时间
+    private Duration readTimeout = Duration.ofSeconds(2);          // 获取公钥集的读取超时时间
+
+}
@@ -0,0 +1,14 @@
+package com.example.demo;
+
+/**
+ * 等待计算密码哈希的请求已达上限时抛出，由 LoginController、RegistrationController 转换为 503 应答
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PasswordHashingBusyException(int limit) {
+        super("Too many concurrent logins (limit " + limit + "), please retry later");
+    }
+
+}
@@ -0,0 +1,109 @@
+package com.example.demo;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 计算密码哈希（BCrypt）的专用线程池
+ *
+ * 注：
+ *     BCrypt 每次校验都要消耗几十毫秒的 CPU，若在 Tomcat 的请求线程中计算，登录高峰时请求线程都被登录占满，
+ *     /design、/orders 等其它请求只能排队。因此登录和注册的处理器方法返回 WebAsyncTask，
+ *     由这里固定大小（threads）的线程池计算哈希，请求线程随即被释放（Servlet 异步处理），
+ *     同时计算哈希的线程数也就不会超过 threads，其余 CPU 留给其它请求。
+ *     排队的请求数超过 queueCapacity 时，submit() 直接抛出 PasswordHashingBusyException（503），以便尽早拒绝，而不是排队直到超时。
+ *     注意不要把这个线程池注册为 Executor 类型的 bean，否则 Spring Boot 不再创建默认的 applicationTaskExecutor。
+ */
+@Slf4j
+@Component
+public class PasswordHashingExecutor {
+
+    private final PasswordHashingProperties properties;
+    private final ThreadPoolTaskExecutor executor;  // 未隔离时为 null
+    private final Semaphore permits;  // 正在计算和排队的请求数之和的上限
+
+    public PasswordHashingExecutor(PasswordHashingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        if (properties.isIsolated()) {
+            ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+            pool.setCorePoolSize(properties.getThreads());
+            pool.setMaxPoolSize(properties.getThreads());
+            pool.setThreadNamePrefix("password-hashing-");
+            pool.setTaskDecorator(ReadWriteRoutingDataSource::propagatePrimaryPin);  // 会话刚下单时，登录、注册中的查询也只读主库，见 ReplicaLagGuard
+            pool.initialize();
+            // 注：线程池本身的队列不设上限，排队的个数由 permits 在提交之前限制，
+            //     这样拒绝发生在处理器方法中（同步抛出异常），而不是在 Spring MVC 开始异步处理之后
+            this.executor = pool;
+            this.permits = new Semaphore(properties.getThreads() + properties.getQueueCapacity());
+            Gauge.builder("catcloud.security.password-hashing.queue.depth", pool,
+                    p -> p.getThreadPoolExecutor().getQueue().size())
+                .description("Logins and registrations waiting for a password hashing thread")
+                .register(meterRegistry);
+        } else {
+            this.executor = null;
+            this.permits = null;
+        }
+        log.info("喵喵喵，Password hashing executor created: {}", properties);
+    }
+
+    /**
+     * 包装一个需要计算密码哈希的任务，供处理器方法作为返回值返回
+     */
+    public <T> WebAsyncTask<T> submit(Callable<T> task) {
+        if (executor == null) {
+            // 未隔离时在请求线程中直接执行，WebAsyncTask 只是把已经得到的结果交给 Spring MVC
+            // 注：不能用一个在调用线程中执行任务的 AsyncTaskExecutor 代替，否则 open-in-view 的异步拦截器
+            //     会在同一个线程中再绑定一次 EntityManager 而抛出 IllegalStateException
+            Callable<T> completed;
+            try {
+                T result = task.call();
+                completed = () -> result;
+            } catch (Exception e) {
+                completed = () -> {
+                    throw e;
+                };
+            }
+            return new WebAsyncTask<>(properties.getTimeout().toMillis(), completed);
+        }
+        if (!permits.tryAcquire()) {
+            throw new PasswordHashingBusyException(properties.getThreads() + properties.getQueueCapacity());
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        };
+        WebAsyncTask<T> asyncTask = new WebAsyncTask<>(properties.getTimeout().toMillis(), executor, () -> {
+            try {
+                return task.call();
+            } finally {
+                release.run();
+            }
+        });
+        // 注：还在排队时超时（或出错），Spring MVC 会取消任务，任务不会再执行，名额只能在这里归还；
+        //     异步处理结束（正常完成、超时、出错）后都会调用 onCompletion，由 released 保证只归还一次。
+        //     超时时若任务正在计算，名额会比任务结束略早归还。
+        asyncTask.onCompletion(release);
+        return asyncTask;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.example.demo;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * 密码哈希（BCrypt）的配置，对应 application.yml 中的 catcloud.security.password-hashing.*，详见 PasswordHashingExecutor
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "catcloud.security.password-hashing")
+public class PasswordHashingProperties {
+
+    private boolean isolated = true;  // 是否在专用线程池中计算哈希（关闭时在请求线程中直接计算）
+    private int strength = 10;        // BCrypt 的 cost 因子（log2 轮数），每加一计算时间翻倍
+    private int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);  // 专用线程数，即同时计算哈希的上限
+    private int queueCapacity = 50;   // 最多排队等待计算的请求数，超出时直接返回 503
+    private Duration timeout = Duration.ofSeconds(10);      // 单个登录/注册请求（含排队）的超时时间
+    private Duration retryAfter = Duration.ofSeconds(1);    // 503 应答中 Retry-After 头的值
+
+}
@@ -0,0 +1,24 @@
+package com.example.demo;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * 响应式接口（WebFlux + R2DBC，单独的端口）的配置，对应 application.yml 中的 catcloud.reactive.*，详见 ReactiveApiServer
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "catcloud.reactive")
+public class ReactiveApiProperties {
+
+    private boolean enabled = false;
+    private int port = 8090;            // 0 表示随机端口
+    private int eventLoopThreads = Math.max(1, Runtime.getRuntime().availableProcessors());  // 处理所有连接的事件循环线程数
+    private String r2dbcUrl = "r2dbc:h2:mem:///catcloud?options=DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";  // 默认与 spring.datasource 为同一个 H2 内存数据库
+    private String username = "sa";
+    private String password = "";
+    private int maximumPoolSize = 10;   // R2DBC 连接池的最大连接数
+
+}
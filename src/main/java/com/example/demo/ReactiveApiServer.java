@@ -0,0 +1,69 @@
+package com.example.demo;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+import com.example.demo.reactive.ReactiveApiConfiguration;
+
+import reactor.netty.DisposableServer;
+
+/**
+ * 在单独的端口（catcloud.reactive.port）上提供 /api/cats、/api/ingredients 的只读接口的响应式版本（WebFlux 函数式路由 + R2DBC），
+ * 应答的 JSON 与 CatController、IngredientController 相同，见 ReactiveApiConfiguration
+ *
+ * 注：
+ *     - Spring MVC 的每个请求在等待数据库期间都占用一个 Tomcat 线程，响应式版本中所有连接由少量事件循环线程处理，
+ *       等待数据库或慢客户端时不占用线程，适合大量并发的慢客户端（见 benchmarks 模块中的 ConcurrentConnectionsLoadTest）；
+ *     - 与 Spring Boot 在 management.server.port 上运行 actuator 的做法相同，响应式接口运行在以主应用上下文为父上下文的子上下文中，
+ *       R2DBC 的 ConnectionFactory 等只存在于子上下文，不会影响主上下文的自动配置
+ *       （主上下文中存在 ConnectionFactory 时 Spring Boot 会改用 R2DBC 执行 data.sql，并创建第二个事务管理器，见 DemoApplication）；
+ *     - 只提供读接口，新增、删除等写操作仍由 Spring MVC 的接口处理（OAuth2 权限校验、配料目录和索引的更新都在那里），
+ *       条件请求（ETag）和 CBOR、Smile 格式也只在 Spring MVC 的接口上提供。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "catcloud.reactive", name = "enabled", havingValue = "true")
+public class ReactiveApiServer implements SmartLifecycle {
+
+    private final ApplicationContext parent;
+    private volatile AnnotationConfigApplicationContext context;
+
+    public ReactiveApiServer(ApplicationContext parent) {
+        this.parent = parent;
+    }
+
+    @Override
+    public void start() {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.setId(parent.getId() + ":reactive");
+        context.setParent(parent);
+        context.register(ReactiveApiConfiguration.class);
+        context.refresh();
+        this.context = context;
+        log.info("喵喵喵，Reactive API started on port {}", getPort());
+    }
+
+    @Override
+    public void stop() {
+        AnnotationConfigApplicationContext context = this.context;
+        this.context = null;
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return context != null;
+    }
+
+    public int getPort() {
+        return context.getBean(DisposableServer.class).port();
+    }
+
+}
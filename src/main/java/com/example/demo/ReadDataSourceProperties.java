@@ -0,0 +1,30 @@
+package com.example.demo;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * 只读副本（replica）连接池的配置，对应 application.yml 中的 catcloud.datasource.read.*，详见 ReadWriteRoutingConfiguration
+ *
+ * 注：没有配置 url 时不启用读写分离，所有访问都经由 spring.datasource 自动配置的数据源（与原来相同）。
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "catcloud.datasource.read")
+public class ReadDataSourceProperties {
+
+    private String url;                 // 只读副本的 JDBC URL，为空时不启用读写分离
+    private String username = "sa";
+    private String password = "";
+    private int maximumPoolSize = 10;   // 读连接池的最大连接数
+    private Duration replicaLag = Duration.ofSeconds(5);  // 会话写入订单后，在这段时间内的读取都发往主库（见 ReplicaLagGuard），应大于副本的复制延迟
+
+    public boolean isEnabled() {
+        return url != null && !url.isEmpty();
+    }
+
+}
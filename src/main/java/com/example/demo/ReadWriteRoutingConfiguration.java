@@ -0,0 +1,86 @@
+package com.example.demo;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * 读写分离：配置了只读副本（catcloud.datasource.read.url）时，用两个连接池代替自动配置的单个数据源
+ *
+ * 注：
+ *     - primaryDataSource：主库，仍由 spring.datasource.* 配置（连接池参数见 spring.datasource.hikari.*），建表、data.sql 和所有写入都在这里；
+ *     - readDataSource：只读副本，由 catcloud.datasource.read.* 配置；
+ *     - dataSource：标为 @Primary 的路由数据源，EclipseLink、JdbcTemplate 等注入的都是它，按事务是否只读选择上面两者之一，见 ReadWriteRoutingDataSource；
+ *     - replicaLagFilter：会话下单后的一段时间内只读主库的过滤器，见 ReplicaLagGuard；
+ *     - primaryPinTaskDecorator：把上面的只读主库带到异步处理的线程中。
+ *     两个连接池都是 Spring 管理的 HikariDataSource，Spring Boot 会为它们各自绑定 Hikari 的指标，
+ *     以 pool 标签区分（catcloud-primary、catcloud-read），例如 /actuator/prometheus 中的 hikaricp_connections_active{pool="catcloud-read"}。
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "catcloud.datasource.read", name = "url")
+public class ReadWriteRoutingConfiguration {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("catcloud-primary");
+        return dataSource;
+    }
+
+    @Bean
+    public HikariDataSource readDataSource(ReadDataSourceProperties readDataSourceProperties) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("catcloud-read");
+        dataSource.setJdbcUrl(readDataSourceProperties.getUrl());
+        dataSource.setUsername(readDataSourceProperties.getUsername());
+        dataSource.setPassword(readDataSourceProperties.getPassword());
+        dataSource.setMaximumPoolSize(readDataSourceProperties.getMaximumPoolSize());
+        dataSource.setReadOnly(true);  // 连接本身也设为只读（对 MySQL、PostgreSQL 等，误发到这里的写入会被数据库拒绝；H2 只把它当作提示）
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public ReadWriteRoutingDataSource dataSource(
+        @Qualifier("primaryDataSource") DataSource primaryDataSource,
+        @Qualifier("readDataSource") DataSource readDataSource
+    ) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ReadWriteRoutingDataSource.Route.PRIMARY, primaryDataSource);
+        targets.put(ReadWriteRoutingDataSource.Route.READ, readDataSource);
+        ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource();
+        dataSource.setTargetDataSources(targets);
+        dataSource.setDefaultTargetDataSource(primaryDataSource);
+        return dataSource;
+    }
+
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> replicaLagFilter(ReplicaLagGuard replicaLagGuard) {
+        return new FilterRegistrationBean<>(replicaLagGuard.filter());
+    }
+
+    /**
+     * Spring Boot 会把它用于默认的 applicationTaskExecutor，即 Spring MVC 执行 StreamingResponseBody、Callable 等异步处理的线程池，
+     * 使会话下单后的导出（/api/orders/export）等异步处理也只读主库，见 ReplicaLagGuard
+     */
+    @Bean
+    public TaskDecorator primaryPinTaskDecorator() {
+        return ReadWriteRoutingDataSource::propagatePrimaryPin;
+    }
+
+}
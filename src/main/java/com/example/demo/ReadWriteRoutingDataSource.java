@@ -0,0 +1,74 @@
+package com.example.demo;
+
+import java.util.concurrent.Callable;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 按当前事务是否只读选择连接池的数据源：@Transactional(readOnly = true) 中的访问发往读连接池（只读副本），其它的都发往主库
+ *
+ * 注：
+ *     - Spring Data JPA 仓库继承自 CrudRepository 的查询方法（findById、findAll、count 等）默认就在只读事务中执行；
+ *       接口上自己声明的查询方法（派生查询、@Query）默认不在事务中，需要在仓库接口上加 @Transactional(readOnly = true)（见 CatRepository）才会发往副本；
+ *       save、delete 和带 @Transactional 的 JDBC 片段在读写事务中执行，不在事务中的 JdbcTemplate 访问也发往主库。
+ *     - 路由在取得连接时决定。EclipseLink 在只读事务中不会提前开始数据库事务，而是执行查询时才取得连接，
+ *       此时只读标志已经设置好了；读写事务开始时就取得连接，此时标志尚未设置（为 false），正好发往主库。
+ *     - 在 runOnPrimary() 中（例如会话刚写入订单，见 ReplicaLagGuard）即使是只读事务也发往主库，以免读到副本中尚未复制过来的旧数据。
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY, READ
+    }
+
+    private static final ThreadLocal<Boolean> PRIMARY_PINNED = new ThreadLocal<>();
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (PRIMARY_PINNED.get() == null && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Route.READ;
+        }
+        return Route.PRIMARY;
+    }
+
+    /**
+     * 在当前线程中执行 task，其间的所有访问（包括只读事务）都发往主库
+     */
+    public static <T> T runOnPrimary(Callable<T> task) throws Exception {
+        if (PRIMARY_PINNED.get() != null) {
+            return task.call();
+        }
+        PRIMARY_PINNED.set(Boolean.TRUE);
+        try {
+            return task.call();
+        } finally {
+            PRIMARY_PINNED.remove();
+        }
+    }
+
+    /**
+     * 用作线程池的 TaskDecorator：提交任务的线程正在 runOnPrimary() 中时，任务在执行它的线程中也在 runOnPrimary() 中执行，
+     * 否则原样返回
+     * 注：PRIMARY_PINNED 是 ThreadLocal，只对当前线程有效，异步处理（StreamingResponseBody、WebAsyncTask 等）在其它线程中执行，
+     *     需要在提交时（仍在请求线程中）决定，再由执行任务的线程带上。
+     */
+    public static Runnable propagatePrimaryPin(Runnable task) {
+        if (PRIMARY_PINNED.get() == null) {
+            return task;
+        }
+        return () -> {
+            try {
+                runOnPrimary(() -> {
+                    task.run();
+                    return null;
+                });
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+}
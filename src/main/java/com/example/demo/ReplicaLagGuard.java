@@ -0,0 +1,99 @@
+package com.example.demo;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * 防止用户刚下单后从只读副本读到尚未复制过来的旧数据：会话写入订单后的 replicaLag 时间内，该会话的请求都只访问主库
+ *
+ * 注：
+ *     OrderController 保存订单后调用 pin(session)，在会话中记下截止时间；之后该会话的每个请求经过 filter() 返回的过滤器时，
+ *     若还未到截止时间，则在 ReadWriteRoutingDataSource.runOnPrimary() 中处理整个请求，否则照常按事务是否只读路由。
+ *     其它会话（以及不带会话的 /api/** 请求）不受影响，仍然读副本。
+ *     runOnPrimary() 以 ThreadLocal 记录，只对请求线程有效。异步处理在其它线程中执行，因此：
+ *       - Spring MVC 的异步线程池（applicationTaskExecutor，执行 StreamingResponseBody、Callable，例如订单导出）
+ *         和 PasswordHashingExecutor（登录、注册的 WebAsyncTask）以 ReadWriteRoutingDataSource.propagatePrimaryPin 作为 TaskDecorator，
+ *         提交任务时请求线程在 runOnPrimary() 中，任务也就在 runOnPrimary() 中执行；
+ *       - 异步处理完成后的再次分派（async dispatch，例如渲染视图）也经过这个过滤器。
+ *     其它自行创建线程或线程池的代码（例如 OrderIngestionService 的写入线程只写主库，不受影响）不会带上，需要时同样设置 TaskDecorator。
+ *     没有启用读写分离（未配置 catcloud.datasource.read.url）或 replicaLag 为 0 时不记录。
+ *     这个类本身不是过滤器（否则 @WebMvcTest 等切片测试会扫描到它，却没有它依赖的 ReadDataSourceProperties），
+ *     过滤器只在启用读写分离时由 ReadWriteRoutingConfiguration 注册。
+ */
+@Component
+public class ReplicaLagGuard {
+
+    static final String PINNED_UNTIL = ReplicaLagGuard.class.getName() + ".PINNED_UNTIL";
+
+    private final boolean enabled;
+    private final long replicaLagMillis;
+
+    public ReplicaLagGuard(ReadDataSourceProperties readDataSourceProperties) {
+        this.replicaLagMillis = readDataSourceProperties.getReplicaLag().toMillis();
+        this.enabled = readDataSourceProperties.isEnabled() && replicaLagMillis > 0;
+    }
+
+    /**
+     * 会话刚写入了数据，在 replicaLag 时间内只访问主库
+     */
+    public void pin(HttpSession session) {
+        if (enabled) {
+            session.setAttribute(PINNED_UNTIL, System.currentTimeMillis() + replicaLagMillis);
+        }
+    }
+
+    /**
+     * 会话仍在 replicaLag 时间内时，在 ReadWriteRoutingDataSource.runOnPrimary() 中处理整个请求的过滤器
+     */
+    public OncePerRequestFilter filter() {
+        return new OncePerRequestFilter() {
+            @Override
+            protected boolean shouldNotFilterAsyncDispatch() {
+                return false;  // 异步处理完成后的再次分派在另一个请求线程中执行，也需要只读主库
+            }
+
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+                throws ServletException, IOException {
+                if (!enabled || !isPinned(request.getSession(false))) {
+                    filterChain.doFilter(request, response);
+                    return;
+                }
+                try {
+                    ReadWriteRoutingDataSource.runOnPrimary(() -> {
+                        filterChain.doFilter(request, response);
+                        return null;
+                    });
+                } catch (ServletException | IOException | RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new ServletException(e);
+                }
+            }
+        };
+    }
+
+    private boolean isPinned(HttpSession session) {
+        if (session == null) {
+            return false;
+        }
+        Long pinnedUntil = (Long) session.getAttribute(PINNED_UNTIL);
+        if (pinnedUntil == null) {
+            return false;
+        }
+        if (pinnedUntil > System.currentTimeMillis()) {
+            return true;
+        }
+        session.removeAttribute(PINNED_UNTIL);
+        return false;
+    }
+
+}
@@ -1,14 +1,18 @@
     package com.example.demo;
 
 import java.io.IOException;
+import java.net.URL;
+import java.time.Duration;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
@@ -17,10 +21,21 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.ObjectPostProcessor;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
+import org.springframework.security.oauth2.client.web.OAuth2LoginAuthenticationFilter;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
 
 import com.example.demo.domain.User;
+import com.example.demo.metrics.AuthenticationMetrics;
 import com.example.demo.repository.UserRepository;
 
 @Configuration
@@ -28,21 +43,59 @@ import com.example.demo.repository.UserRepository;
 public class SecurityConfiguration {
     
     @Bean
-    public PasswordEncoder passwordEncoder() {  // 实现这个方法，返回一个密码编码器实现，用于加密密码
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashingProperties passwordHashingProperties) {  // 实现这个方法，返回一个密码编码器实现，用于加密密码
+        // 注：BCrypt 的 cost 因子可配置（catcloud.security.password-hashing.strength），
+        //     哈希的计算在 PasswordHashingExecutor 的专用线程中进行，见 LoginController、RegistrationController
+        return new BCryptPasswordEncoder(passwordHashingProperties.getStrength());
     }
 
     @Bean
-    public UserDetailsService userDetailsService(UserRepository userRepository) {  // 实现这个方法，返回一个用户信息查询函数，用于根据用户名查询用户信息
-        return username -> {
+    public CachedUserDetailsService userDetailsService(  // 实现这个方法，返回一个用户信息查询函数，用于根据用户名查询用户信息
+        UserRepository userRepository,
+        @Value("${catcloud.security.user-cache.max-size:10000}") int maxSize,  // 最多缓存的用户数
+        @Value("${catcloud.security.user-cache.ttl:5m}") Duration ttl          // 缓存的用户的存活时间
+    ) {
+        UserDetailsService userDetailsService = username -> {
             User user = userRepository.findByUsername(username);
             if (user != null) return user;
             else throw new UsernameNotFoundException("User '" + username + "' not found");
         };
+        // 用有大小上限和存活时间的缓存装饰它，避免每次表单登录都查询数据库
+        return new CachedUserDetailsService(userDetailsService, maxSize, ttl.toMillis());
+    }
+
+    @Bean
+    public BackgroundRefreshingJwkSource jwkSource(
+        @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri}") URL jwkSetUri,  // 授权服务器的公钥集地址
+        JwtDecoderProperties jwtDecoderProperties
+    ) {
+        // 公钥集保存在本地，由后台线程定期刷新，请求线程不再等待授权服务器，见 BackgroundRefreshingJwkSource
+        return new BackgroundRefreshingJwkSource(jwkSetUri, jwtDecoderProperties);
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {  // 实现这个方法，返回一个安全过滤器链，用于进行安全过滤
+    public JwtDecoder jwtDecoder(BackgroundRefreshingJwkSource jwkSource, JwtDecoderProperties jwtDecoderProperties) {
+        // 注：定义了 JwtDecoder 之后，Spring Boot 不再根据 spring.security.oauth2.resourceserver.jwt.jwk-set-uri 自动配置，
+        //     这里的配置与自动配置的相同（只接受 RS256 签名，声明由 NimbusJwtDecoder 默认的 JwtValidators 校验），只是换了公钥集的来源
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwkSource));
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> { });  // exp、nbf 等声明交给 JwtValidators 校验
+        JwtDecoder jwtDecoder = new NimbusJwtDecoder(jwtProcessor);
+        // 用校验结果的缓存装饰它，避免同一个 JWT 每次请求都重新校验签名，见 CachingJwtDecoder
+        if (!jwtDecoderProperties.isCache()) {
+            return jwtDecoder;
+        }
+        CachingJwtDecoder cachingJwtDecoder = new CachingJwtDecoder(jwtDecoder, jwtDecoderProperties.getCacheMaxSize());
+        jwkSource.addKeysRemovedListener(cachingJwtDecoder::evictKeyIds);  // 授权服务器撤下密钥后，以它签名的 JWT 不再从缓存中校验通过
+        return cachingJwtDecoder;
+    }
+
+    @Bean
+    public SecurityFilterChain filterChain(
+        HttpSecurity http,
+        JwtDecoder jwtDecoder,                       // 见上面的 jwtDecoder()
+        AuthenticationMetrics authenticationMetrics  // 按认证方式统计认证耗时，见 AuthenticationMetrics
+    ) throws Exception {  // 实现这个方法，返回一个安全过滤器链，用于进行安全过滤
         // 注：HttpSecurity 支持配置的安全功能包括：
         //   1. 要求在为某个请求提供服务前满足特定的安全条件
         //   2. 配置自定义的登录页面
@@ -61,21 +114,45 @@ public class SecurityConfiguration {
             .authorizeRequests()                // 对于认证 HTTP 请求时
                 .antMatchers("/design", "/orders")  // 若匹配这些请求
                     .hasRole("USER")                //   则要求用户具有 USER 角色（USER 权限）
-                .antMatchers(HttpMethod.POST, "/api/ingredients")  // 若匹配这些请求（新增ingredient）
+                .antMatchers(HttpMethod.POST, "/api/ingredients", "/api/ingredients/bulk")  // 若匹配这些请求（新增ingredient，包括批量导入）
                     .hasAuthority("SCOPE_writeIngredients")        // 则要求用户具有 SCOPE_writeIngredients 权限
-                .antMatchers(HttpMethod.DELETE, "api/ingredients") // 若匹配这些请求（删除ingredient）
+                .antMatchers(HttpMethod.POST, "/api/cats/bulk")    // 若匹配这些请求（批量导入 Cat，/api/** 不做 CSRF 保护，不能对所有用户开放）
+                    .hasAuthority("SCOPE_writeIngredients")        // 则要求用户具有 SCOPE_writeIngredients 权限（与批量导入配料相同）
+                .antMatchers(HttpMethod.DELETE, "/api/ingredients/**") // 若匹配这些请求（删除ingredient）
                     .hasAuthority("SCOPE_deleteIngredients")       // 则要求用户具有 SCOPE_deleteIngredients 权限
+                .antMatchers(HttpMethod.GET, "/api/orders/export") // 若匹配这些请求（导出全部订单）
+                    .hasAuthority("SCOPE_readOrders")              // 则要求用户具有 SCOPE_readOrders 权限
+                .antMatchers(HttpMethod.POST, "/api/stats/**")     // 若匹配这些请求（重建统计）
+                    .hasAuthority("SCOPE_writeIngredients")        // 则要求用户具有 SCOPE_writeIngredients 权限
+                .antMatchers(HttpMethod.GET, "/actuator/health")   // 若匹配这些请求（健康检查，供负载均衡器、探针使用）
+                    .permitAll()                                   // 则允许所有用户访问
+                .antMatchers("/actuator/**")                       // 若匹配这些请求（其它 actuator 端点：Prometheus 指标、配料目录和实体缓存的统计）
+                    .hasAuthority("SCOPE_readMetrics")             // 则要求用户具有 SCOPE_readMetrics 权限（指标中含有按用户、认证方式的统计和缓存内部状态）
                 .antMatchers("/", "/**")            // 若匹配这些请求
                     .permitAll()                    //   则允许所有用户访问
             .and()  // 然后
-                .oauth2ResourceServer(oauth2 -> oauth2.jwt())
-                .formLogin()                             // 对于表单登录（基于表单的认证方式）
-                    .loginPage("/login")                 // 指定登录页面
-                    .defaultSuccessUrl("/design", true)  // 指定登录成功后的默认跳转页面
-                                                         //   第二个参数表示是否总是使用这个默认跳转页面，即使用户在登录前访问了其他页面
-            .and()
+                .oauth2ResourceServer(oauth2 -> oauth2.jwt(jwt -> jwt.authenticationManager(
+                    // 与 jwt() 默认使用的认证逻辑相同，只是加上了计时
+                    authenticationMetrics.timed("jwt", new JwtAuthenticationProvider(jwtDecoder)::authenticate)
+                )))
+                // 注：登录表单的提交（POST /login）改由 LoginController 处理，以便在专用线程池中异步校验 BCrypt 密码，
+                //     而不是由表单登录的过滤器占用请求线程同步校验。未登录时访问 /design 等页面，仍会由下面 oauth2Login() 的配置跳转到 /login。
+                // .formLogin()                             // 对于表单登录（基于表单的认证方式）
+                //     .loginPage("/login")                 // 指定登录页面
+                //     .defaultSuccessUrl("/design", true)  // 指定登录成功后的默认跳转页面
+                //                                          //   第二个参数表示是否总是使用这个默认跳转页面，即使用户在登录前访问了其他页面
+                // .and()
                 .oauth2Login()            // 配置OAuth2登录
                     .loginPage("/login")  // 指定登录页面为 /login
+                    .withObjectPostProcessor(new ObjectPostProcessor<OAuth2LoginAuthenticationFilter>() {
+                        // 处理授权服务器回调（/login/oauth2/code/*）的过滤器创建好之后，用加上了计时的 AuthenticationManager 代替它原来的
+                        @Override
+                        public <O extends OAuth2LoginAuthenticationFilter> O postProcess(O filter) {
+                            filter.setAuthenticationManager(
+                                authenticationMetrics.timed("oauth2", http.getSharedObject(AuthenticationManager.class)));
+                            return filter;
+                        }
+                    })
             .and()  // 然后
                 .logout()                                // 对于退出登录
                     .logoutSuccessUrl("/login")          // 指定退出登录成功后的默认跳转页面
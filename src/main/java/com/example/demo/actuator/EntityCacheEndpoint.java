@@ -0,0 +1,68 @@
+package com.example.demo.actuator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.eclipse.persistence.sessions.Session;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.EntityCacheProperties;
+import com.example.demo.EntityCacheStatistics;
+
+/**
+ * 通过 /actuator/entityCache 查看 EclipseLink 共享缓存中各实体的配置、当前缓存的对象数和命中情况，
+ * 用于在压测时调整 catcloud.jpa.cache 中的缓存大小和存活时间。
+ * 注：hits、misses 只在开启 catcloud.jpa.cache.statistics 时统计。
+ */
+@Component
+@Endpoint(id = "entityCache")
+public class EntityCacheEndpoint {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final EntityCacheProperties entityCacheProperties;
+    private final EntityCacheStatistics entityCacheStatistics;
+
+    public EntityCacheEndpoint(
+        EntityManagerFactory entityManagerFactory,
+        EntityCacheProperties entityCacheProperties,
+        EntityCacheStatistics entityCacheStatistics
+    ) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.entityCacheProperties = entityCacheProperties;
+        this.entityCacheStatistics = entityCacheStatistics;
+    }
+
+    @ReadOperation
+    public Map<String, Object> stats() {
+        Session session = entityManagerFactory.unwrap(Session.class);
+        Map<String, Object> entities = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : entityCacheStatistics.getCachedObjectCounts(session).entrySet()) {
+            String entity = entry.getKey();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            EntityCacheProperties.Entity config = entityCacheProperties.getEntities().get(entity);
+            if (config != null) {
+                stats.put("type", config.getType());
+                stats.put("size", config.getSize());
+                stats.put("ttl", config.getTtl());
+            }
+            stats.put("cached", entry.getValue());
+            if (entityCacheStatistics.isEnabled()) {
+                long hits = entityCacheStatistics.getHits(entity);
+                long misses = entityCacheStatistics.getMisses(entity);
+                stats.put("hits", hits);
+                stats.put("misses", misses);
+                stats.put("hitRatio", hits + misses == 0 ? null : (double) hits / (hits + misses));
+            }
+            entities.put(entity, stats);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("statistics", entityCacheStatistics.isEnabled());
+        result.put("entities", entities);
+        return result;
+    }
+
+}
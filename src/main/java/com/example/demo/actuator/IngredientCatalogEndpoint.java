@@ -0,0 +1,38 @@
+package com.example.demo.actuator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.service.IngredientCatalog;
+
+/**
+ * 通过 /actuator/ingredientCatalog 查看配料目录的版本和命中情况，
+ * 若 misses 持续增长，说明 /design 的请求仍在回源数据库。
+ */
+@Component
+@Endpoint(id = "ingredientCatalog")
+public class IngredientCatalogEndpoint {
+
+    private final IngredientCatalog ingredientCatalog;
+
+    public IngredientCatalogEndpoint(IngredientCatalog ingredientCatalog) {
+        this.ingredientCatalog = ingredientCatalog;
+    }
+
+    @ReadOperation
+    public Map<String, Object> stats() {
+        IngredientCatalog.Snapshot snapshot = ingredientCatalog.snapshot();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("version", snapshot.getVersion());
+        stats.put("size", snapshot.size());
+        stats.put("hits", ingredientCatalog.getHits());
+        stats.put("misses", ingredientCatalog.getMisses());
+        stats.put("reloads", ingredientCatalog.getReloads());
+        return stats;
+    }
+
+}
@@ -1,10 +1,21 @@
 package com.example.demo.controller;
 
+import java.util.Date;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
 
 import com.example.demo.service.OrderAdminService;
+import com.example.demo.service.PurgeAlreadyRunningException;
+import com.example.demo.vo.OrderPurgeStatus;
 
 @Controller
 @RequestMapping("/admin")
@@ -18,8 +29,34 @@ public class AdminController {
 
     @PostMapping("/deleteAllOrder")
     public String deleteAllOrder() {
-        orderAdminService.deleteAllOrder();
+        orderAdminService.deleteAllOrder();  // 在后台删除，进度见 GET /admin/purge
+        return "redirect:/admin";
+    }
+
+    @PostMapping("/purge")  // 按保留期限清理订单，例如 POST /admin/purge?before=2023-01-01 删除 2023 年之前下的订单
+    public String purgeOrders(@RequestParam("before") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date before) {
+        orderAdminService.deleteOrdersPlacedBefore(before);
         return "redirect:/admin";
     }
 
+    @PostMapping("/purge/cancel")
+    public String cancelPurge() {
+        orderAdminService.cancelPurge();
+        return "redirect:/admin";
+    }
+
+    @GetMapping(path = "/purge", produces = "application/json")
+    @ResponseBody
+    public ResponseEntity<OrderPurgeStatus> purgeStatus() {
+        OrderPurgeStatus status = orderAdminService.getPurgeStatus();
+        // 从未运行过清理任务时返回 404
+        return status == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(status);
+    }
+
+    @ExceptionHandler(PurgeAlreadyRunningException.class)
+    public ResponseEntity<String> purgeAlreadyRunning(PurgeAlreadyRunningException e) {
+        // 返回 409 状态码，表示已有清理任务在运行
+        return ResponseEntity.status(HttpStatus.CONFLICT/*409*/).body(e.getMessage());
+    }
+
 }
@@ -1,9 +1,14 @@
 package com.example.demo.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -12,42 +17,130 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.micrometer.core.annotation.Timed;
 
 import com.example.demo.domain.Cat;
 import com.example.demo.repository.CatRepository;
+import com.example.demo.service.BulkImportService;
+import com.example.demo.service.CatIngredientIndex;
+import com.example.demo.service.RepresentationVersions;
+import com.example.demo.vo.BulkImportReport;
+import com.example.demo.vo.CatCursorPage;
+import com.example.demo.vo.CatIngredientQuery;
+import com.example.demo.vo.CatSearchPage;
 
 @RestController
+@Timed(value = "catcloud.controller", histogram = true)  // 每个处理器方法的耗时（带百分位直方图，标签 uri、method、status 区分各处理器），见 /actuator/prometheus
 @RequestMapping(  // 将指定路由的请求映射到相应的处理器并配置其返回内容类型
     path = "api/cats",             // 处理 /api/cats 的请求
-    produces = {"application/json", "application/xml"}  // 产生 application/json 的内容（Content-Type）
+    produces = {"application/json", "application/xml", "application/cbor", "application/x-jackson-smile"}  // 产生 application/json 的内容（Content-Type）
                                    // 也可配置多个产生内容，例如：produces = {"application/json", "application/xml"}
+                                   // 注：CBOR、Smile 两种二进制格式见 BinaryContentConfiguration，按请求的 Accept 头选择
+)
+@CrossOrigin(
+    origins = "http://localhost:8089",  // 允许来自 http://localhost:8089 的跨域请求
+                                        // 也可配置多个允许跨域的源，例如：origins = {"http://localhost:8089", "http://catcloud:8089"}
+    exposedHeaders = {HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED}  // 允许跨域的脚本读取这两个头，以便发出条件请求
 )
-@CrossOrigin(origins = "http://localhost:8089")  // 允许来自 http://localhost:8089 的跨域请求
-                                                 // 也可配置多个允许跨域的源，例如：origins = {"http://localhost:8089", "http://catcloud:8089"}
 public class CatController {
     
+    private static final int MAX_PAGE_SIZE = 100;
+
     private CatRepository catRepo;
+    private BulkImportService bulkImportService;
+    private CatIngredientIndex catIngredientIndex;
+    private RepresentationVersions representationVersions;
 
-    public CatController(CatRepository catRepo) {
+    public CatController(
+        CatRepository catRepo,
+        BulkImportService bulkImportService,
+        CatIngredientIndex catIngredientIndex,
+        RepresentationVersions representationVersions
+    ) {
         this.catRepo = catRepo;
+        this.bulkImportService = bulkImportService;
+        this.catIngredientIndex = catIngredientIndex;
+        this.representationVersions = representationVersions;
     }
 
-    @GetMapping(params = "recent")       // 对于 GET 请求，并且携有 recent 参数，也就是 /api/cats?recent
+    @GetMapping(params = {"recent", "!after", "!limit"})  // 对于 GET 请求，并且只携有 recent 参数，也就是 /api/cats?recent
     public Iterable<Cat> recentCats() {  // 获取最近n个 Cats，也就是按倒序排列的前n个（每页n个的分页第一页<页码为0>）
-        PageRequest page = PageRequest.of(
-            0/*pageNo*/, 12/*pageSize*/, Sort.by("createdAt").descending()
-        );
-        return catRepo.findAll(page).getContent();
+        // 注：原来使用 catRepo.findAll(PageRequest.of(0, 12, Sort.by("createdAt").descending())).getContent()，
+        //     返回的 Page 会额外执行一次 count 查询来计算总页数，而这里只需要第一页的内容，因此改用返回 Slice 的查询。
+        return catRepo.findAllByOrderByCreatedAtDescIdDesc(PageRequest.of(0/*pageNo*/, 12/*pageSize*/)).getContent();
+    }
+
+    @GetMapping(params = "recent")         // 对于 GET 请求，并且携有 recent 以及 after 或 limit 参数，也就是 /api/cats?recent&after=<createdAt,id>&limit=N
+    public CatCursorPage recentCatsAfter(  // 以 keyset（seek）分页的方式获取最近的 Cats，after 为上一页应答中的 nextCursor，第一页时省略
+        @RequestParam(name = "after", required = false) String after,
+        @RequestParam(name = "limit", defaultValue = "12") int limit  // 省略时每页的个数与 recentCats() 相同，而不是忽略 after 退回到第一页
+    ) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST/*400*/, "limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        PageRequest page = PageRequest.of(0, limit);
+        if (after == null || after.isEmpty()) {
+            return CatCursorPage.of(catRepo.findAllByOrderByCreatedAtDescIdDesc(page));
+        }
+        CatCursorPage.Cursor cursor;
+        try {
+            cursor = CatCursorPage.parseCursor(after);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST/*400*/, e.getMessage(), e);
+        }
+        return CatCursorPage.of(catRepo.findRecentBefore(cursor.getCreatedAt(), cursor.getId(), page));
+    }
+
+    @GetMapping("/search")  // 按配料组成查询 Cat，例如 /api/cats/search?with=CHED,SLSA&without=LETC，见 CatIngredientQuery
+    public CatSearchPage searchCats(
+        @RequestParam(name = "with", required = false) String with,
+        @RequestParam(name = "any", required = false) String any,
+        @RequestParam(name = "without", required = false) String without,
+        @RequestParam(name = "before", required = false) Long before,  // 上一页应答中的 nextBefore，第一页时省略
+        @RequestParam(name = "limit", defaultValue = "12") int limit
+    ) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST/*400*/, "limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        CatIngredientQuery query;
+        try {
+            query = CatIngredientQuery.of(with, any, without);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST/*400*/, e.getMessage(), e);
+        }
+        // 由内存中的位图索引算出这一页的 Cat id，再按 id 一次性加载这些 Cat
+        CatIngredientIndex.Result result = catIngredientIndex.search(query, before, limit);
+        List<Cat> cats = new ArrayList<>(result.getIds().size());
+        catRepo.findAllById(result.getIds()).forEach(cats::add);
+        cats.sort(Comparator.comparing(Cat::getId).reversed());
+        Long nextBefore = result.getIds().size() == limit ? result.getIds().get(limit - 1) : null;
+        return new CatSearchPage(result.getTotal(), cats, nextBefore);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Cat> catById(@PathVariable("id") Long id) {
+    public ResponseEntity<Cat> catById(@PathVariable("id") Long id, WebRequest request) {
+        // 条件请求：If-None-Match 与当前的 ETag 相同时直接返回 304，不查询数据库也不序列化
+        // 注：返回 null 且 request.checkNotModified() 为 true 时，Spring MVC 会以 304 结束这个请求
+        String etag = representationVersions.catETag(id, request.getHeader(HttpHeaders.ACCEPT));
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null && request.checkNotModified(etag)) {
+            return null;
+        }
         Optional<Cat> optCat = catRepo.findById(id);
         // 若找到了 Cat 对象，则返回它，否则返回 404
         if (optCat.isPresent()) {
-            return new ResponseEntity<>(optCat.get(), HttpStatus.OK/*200*/);
+            // 只带 If-Modified-Since 时需要先取得 createdAt，ResponseEntity 上的 ETag、Last-Modified 满足条件时同样返回 304（不序列化）
+            return ResponseEntity.ok()
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT)  // JSON、CBOR、Smile 各自的 ETag 不同，见 RepresentationVersions
+                .lastModified(optCat.get().getCreatedAt().getTime())
+                .body(optCat.get());
         }
         return new ResponseEntity<>(null, HttpStatus.NOT_FOUND/*404*/);
         // 注：这里 return new ResponseEntity<>... 省略了泛型参数，因为它们可以从方法的返回值类型中推断出来，也就是 Cat。
@@ -74,11 +167,19 @@ public class CatController {
         return catRepo.findById(id);
     }
 
-    @PostMapping(consumes = "application/json")  // 对于 POST 请求，并且请求内容类型是 application/json
+    @PostMapping(consumes = {"application/json", "application/cbor", "application/x-jackson-smile"})  // 对于 POST 请求，并且请求内容类型是 application/json（或 CBOR、Smile）
     @ResponseStatus(HttpStatus.CREATED)          // 返回 201 状态码，表示请求成功而且还创建了新资源
     public Cat postCat(@RequestBody Cat cat) {   // 基于提交的数据创建并保存 Cat 对象
         // 注：@RequestBody 注解表示请求体 body 中的内容会被反序列化为 Cat 对象，从而可以通过 cat 对象获取请求体中的内容。
         return catRepo.save(cat);
     }
 
+    @PostMapping(path = "/bulk", consumes = {"application/x-ndjson", "text/csv"})  // 对于 POST /api/cats/bulk 请求，请求内容为 NDJSON 或 CSV
+    public BulkImportReport bulkImportCats(                                        // 批量导入 Cat，返回逐块的导入结果报告
+        @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+        InputStream body  // 注：直接以输入流读取请求体，边读边导入，而不是先将整个请求体反序列化到内存中
+    ) throws IOException {
+        return bulkImportService.importCats(body, BulkImportService.Format.of(contentType));
+    }
+
 }
@@ -1,47 +1,100 @@
 package com.example.demo.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import javax.validation.Valid;
+
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import io.micrometer.core.annotation.Timed;
 
 import com.example.demo.domain.Ingredient;
-import com.example.demo.repository.IngredientRepository;
+import com.example.demo.service.BulkImportService;
+import com.example.demo.service.IngredientCatalog;
+import com.example.demo.service.RepresentationVersions;
+import com.example.demo.vo.BulkImportReport;
 
 @RestController
+@Timed(value = "catcloud.controller", histogram = true)  // 同 CatController，统计各处理器方法的耗时
 @RequestMapping(  // 将指定路由的请求映射到相应的处理器并配置其返回内容类型
     path = "api/ingredients",             // 处理 /api/ingredients 的请求
-    produces = "application/json"  // 产生 application/json 的内容（Content-Type）
+    produces = {"application/json", "application/cbor", "application/x-jackson-smile"}  // 产生 application/json 的内容（Content-Type）
                                    // 也可配置多个产生内容，例如：produces = {"application/json", "application/xml"}
+                                   // 注：CBOR、Smile 两种二进制格式见 BinaryContentConfiguration，按请求的 Accept 头选择
+)
+@CrossOrigin(
+    origins = "http://localhost:8089",  // 允许来自 http://localhost:8089 的跨域请求
+                                        // 也可配置多个允许跨域的源，例如：origins = {"http://localhost:8089", "http://catcloud:8089"}
+    exposedHeaders = HttpHeaders.ETAG   // 允许跨域的脚本读取 ETag 头，以便发出条件请求
 )
-@CrossOrigin(origins = "http://localhost:8089")  // 允许来自 http://localhost:8089 的跨域请求
-                                                 // 也可配置多个允许跨域的源，例如：origins = {"http://localhost:8089", "http://catcloud:8089"}
 public class IngredientController {
 
-  private IngredientRepository ingredientRepo;
+  private IngredientCatalog ingredientCatalog;
+  private BulkImportService bulkImportService;
+  private RepresentationVersions representationVersions;
 
-  public IngredientController(IngredientRepository ingredientRepo) {
-    this.ingredientRepo = ingredientRepo;
+  public IngredientController(
+    IngredientCatalog ingredientCatalog,
+    BulkImportService bulkImportService,
+    RepresentationVersions representationVersions
+  ) {
+    this.ingredientCatalog = ingredientCatalog;
+    this.bulkImportService = bulkImportService;
+    this.representationVersions = representationVersions;
   }
 
   @GetMapping
-  public Iterable<Ingredient> allIngredients() {
-    return ingredientRepo.findAll();
+  public ResponseEntity<List<Ingredient>> allIngredients(WebRequest request) {
+    // 注：原来每次都用 ingredientRepo.findAll() 查询并序列化全部配料，
+    //     现在返回配料目录的快照，ETag 为快照的版本号，If-None-Match 与之相同时直接返回 304，不序列化
+    IngredientCatalog.Snapshot snapshot = ingredientCatalog.snapshot();
+    String etag = representationVersions.ingredientsETag(snapshot, request.getHeader(HttpHeaders.ACCEPT));
+    if (request.checkNotModified(etag)) {
+      return null;
+    }
+    return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(snapshot.getIngredients());
   }
 
-  @PostMapping(consumes = "application/json")  // 对于 POST 请求，并且请求内容类型是 application/json
+  @PostMapping(consumes = {"application/json", "application/cbor", "application/x-jackson-smile"})  // 对于 POST 请求，并且请求内容类型是 application/json（或 CBOR、Smile）
   @ResponseStatus(HttpStatus.CREATED)          // 返回 201 状态码，表示请求成功而且还创建了新资源
-  public Ingredient postIngredient(@RequestBody Ingredient ingredient) {   // 基于提交的数据创建并保存 Ingredient 对象
+  public Ingredient postIngredient(@Valid @RequestBody Ingredient ingredient) {   // 基于提交的数据创建并保存 Ingredient 对象
       // 注：@RequestBody 注解表示请求体 body 中的内容会被反序列化为 Ingredient 对象，从而可以通过 ingredient 对象获取请求体中的内容。
-      return ingredientRepo.save(ingredient);
+      // 注：@Valid 按 Ingredient 上声明的约束校验（例如类型不能为空），不通过时返回 400
+      // 注：经由配料目录保存，以便保存后刷新配料目录的内存快照
+      return ingredientCatalog.save(ingredient);
+  }
+
+  @PostMapping(path = "/bulk", consumes = {"application/x-ndjson", "text/csv"})  // 对于 POST /api/ingredients/bulk 请求，请求内容为 NDJSON 或 CSV
+  public BulkImportReport bulkImportIngredients(                                 // 批量导入配料，返回逐块的导入结果报告
+      @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+      InputStream body  // 注：直接以输入流读取请求体，边读边导入，而不是先将整个请求体反序列化到内存中
+  ) throws IOException {
+      return bulkImportService.importIngredients(body, BulkImportService.Format.of(contentType));
+  }
+
+  @DeleteMapping("/{id}")                     // 对于 DELETE 请求
+  public ResponseEntity<Void> deleteIngredient(@PathVariable("id") String id) {
+      if (!ingredientCatalog.deleteById(id)) {
+          return new ResponseEntity<>(null, HttpStatus.NOT_FOUND/*404*/);  // 配料不存在
+      }
+      return new ResponseEntity<>(null, HttpStatus.NO_CONTENT/*204*/);     // 请求成功但没有响应内容
   }
 
 }
@@ -0,0 +1,76 @@
+package com.example.demo.controller;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import com.example.demo.service.IngredientCatalog;
+
+/**
+ * 设计页面中配料分组（fragments/ingredient-groups.html）的渲染结果缓存
+ *
+ * 注：
+ *     这段标记只依赖配料目录，却是设计页面中最大的一块，原来每次 GET /design 都要为每个配料重新求值一遍。
+ *     这里按配料目录快照的版本号只渲染一次，之后的请求由 design.html 以 th:utext 原样输出，
+ *     页面中只剩下表单对象（cat 的名称等）和 CSRF 隐藏字段需要逐个请求渲染；配料目录重新加载（版本号加一）后再渲染新的一份。
+ *     Thymeleaf 以字符流输出页面，因此缓存的是渲染好的字符串，而不是字节。
+ *     可以通过 catcloud.design.fragment-cache=false 关闭，此时每次都在页面中渲染（与表单校验失败时相同）。
+ */
+@Component
+public class IngredientGroupsFragmentCache {
+
+    static final String TEMPLATE = "fragments/ingredient-groups";
+    static final String FRAGMENT = "groups";
+
+    private final ITemplateEngine templateEngine;
+    private final boolean enabled;
+
+    private final AtomicReference<Rendered> rendered = new AtomicReference<>();
+
+    public IngredientGroupsFragmentCache(
+        ITemplateEngine templateEngine,
+        @Value("${catcloud.design.fragment-cache:true}") boolean enabled
+    ) {
+        this.templateEngine = templateEngine;
+        this.enabled = enabled;
+    }
+
+    /**
+     * 取得该版本配料目录的配料分组标记，未缓存时渲染一次，关闭缓存时返回 null
+     */
+    public String render(IngredientCatalog.Snapshot snapshot) {
+        if (!enabled) {
+            return null;
+        }
+        Rendered current = rendered.get();
+        if (current != null && current.version == snapshot.getVersion()) {
+            return current.html;
+        }
+        Context context = new Context(Locale.ROOT);
+        context.setVariable("ingredientsMap", snapshot.getByType());
+        Rendered next = new Rendered(
+            snapshot.getVersion(), templateEngine.process(TEMPLATE, Collections.singleton(FRAGMENT), context));
+        // 并发渲染时保留版本较新的一份
+        rendered.accumulateAndGet(next, (previous, candidate) ->
+            previous == null || previous.version < candidate.version ? candidate : previous);
+        return next.html;
+    }
+
+    private static final class Rendered {
+
+        private final long version;
+        private final String html;
+
+        private Rendered(long version, String html) {
+            this.version = version;
+            this.html = html;
+        }
+
+    }
+
+}
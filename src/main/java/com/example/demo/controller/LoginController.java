@@ -0,0 +1,136 @@
+package com.example.demo.controller;
+
+import java.util.Arrays;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationEventPublisher;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.authentication.event.InteractiveAuthenticationSuccessEvent;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.authentication.session.ChangeSessionIdAuthenticationStrategy;
+import org.springframework.security.web.authentication.session.CompositeSessionAuthenticationStrategy;
+import org.springframework.security.web.authentication.session.SessionAuthenticationStrategy;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.security.web.csrf.CsrfAuthenticationStrategy;
+import org.springframework.security.web.csrf.HttpSessionCsrfTokenRepository;
+import org.springframework.security.web.savedrequest.HttpSessionRequestCache;
+import org.springframework.security.web.savedrequest.RequestCache;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import lombok.extern.slf4j.Slf4j;
+import com.example.demo.CachedUserDetailsService;
+import com.example.demo.PasswordHashingBusyException;
+import com.example.demo.PasswordHashingExecutor;
+import com.example.demo.PasswordHashingProperties;
+import com.example.demo.metrics.AuthenticationMetrics;
+
+/**
+ * 处理登录表单的提交（POST /login），代替 Spring Security 表单登录的 UsernamePasswordAuthenticationFilter。
+ *
+ * 注：
+ *     表单登录的过滤器在请求线程中同步校验 BCrypt 密码，登录高峰时会占满请求线程，
+ *     这里改为在 PasswordHashingExecutor 的专用线程中校验（见 SecurityConfiguration 中的说明），
+ *     校验通过后所做的事情与表单登录相同：更换会话 id（防止会话固定攻击）、更换 CSRF Token、将认证信息保存到会话中；
+ *     认证成功和失败的事件（AuthenticationSuccessEvent、AbstractAuthenticationFailureEvent）由 ProviderManager 发布，
+ *     成功后再发布 InteractiveAuthenticationSuccessEvent，与表单登录的过滤器一样；
+ *     登录前被拦截时保存在 RequestCache 中的请求，与原来 defaultSuccessUrl("/design", true) 的成功处理器一样，被丢弃并总是跳转到 /design。
+ *     登录页面本身（GET /login）原来由 DemoApplication 中的视图控制器处理，现在也移到这里（见 loginForm()）。
+ */
+@Slf4j
+@Controller
+@RequestMapping("/login")
+public class LoginController {
+
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final PasswordHashingProperties passwordHashingProperties;
+    private final AuthenticationManager authenticationManager;
+    private final SessionAuthenticationStrategy sessionAuthenticationStrategy = new CompositeSessionAuthenticationStrategy(Arrays.asList(
+        new ChangeSessionIdAuthenticationStrategy(),
+        new CsrfAuthenticationStrategy(new HttpSessionCsrfTokenRepository())
+    ));
+    private final SecurityContextRepository securityContextRepository = new HttpSessionSecurityContextRepository();
+    private final RequestCache requestCache = new HttpSessionRequestCache();
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    public LoginController(
+        CachedUserDetailsService userDetailsService,
+        PasswordEncoder passwordEncoder,
+        PasswordHashingExecutor passwordHashingExecutor,
+        PasswordHashingProperties passwordHashingProperties,
+        AuthenticationMetrics authenticationMetrics,
+        AuthenticationEventPublisher authenticationEventPublisher,
+        ApplicationEventPublisher applicationEventPublisher
+    ) {
+        DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider();  // 与表单登录使用相同的认证逻辑（含账号状态检查）
+        authenticationProvider.setUserDetailsService(userDetailsService);
+        authenticationProvider.setPasswordEncoder(passwordEncoder);
+        ProviderManager providerManager = new ProviderManager(authenticationProvider);
+        providerManager.setAuthenticationEventPublisher(authenticationEventPublisher);  // 与表单登录一样发布认证成功、失败的事件
+        this.authenticationManager = authenticationMetrics.timed("form", providerManager);  // 统计表单登录的耗时
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.passwordHashingProperties = passwordHashingProperties;
+    }
+
+    @GetMapping
+    public String loginForm() {
+        return "login";
+    }
+
+    @PostMapping
+    public WebAsyncTask<String> processLogin(
+        @RequestParam("username") String username,
+        @RequestParam("password") String password,
+        HttpServletRequest request,
+        HttpServletResponse response,
+        Model model
+    ) {
+        return passwordHashingExecutor.submit(() -> {
+            Authentication authentication;
+            try {
+                authentication = authenticationManager.authenticate(
+                    UsernamePasswordAuthenticationToken.unauthenticated(username, password));
+            } catch (AuthenticationException e) {
+                log.info("喵喵喵，Login failed for username: " + username);
+                model.addAttribute("error", true);
+                return "login";
+            }
+            sessionAuthenticationStrategy.onAuthentication(authentication, request, response);
+            SecurityContext context = SecurityContextHolder.createEmptyContext();
+            context.setAuthentication(authentication);
+            securityContextRepository.saveContext(context, request, response);
+            requestCache.removeRequest(request, response);
+            applicationEventPublisher.publishEvent(new InteractiveAuthenticationSuccessEvent(authentication, getClass()));
+            return "redirect:/design";  // 与原来表单登录的 defaultSuccessUrl("/design", true) 一致
+        });
+    }
+
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<String> passwordHashingBusy(PasswordHashingBusyException e) {
+        // 返回 503 状态码，并通过 Retry-After 头告知客户端多久之后再重试
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE/*503*/)
+            .header("Retry-After", String.valueOf(passwordHashingProperties.getRetryAfter().getSeconds()))
+            .body(e.getMessage());
+    }
+
+}
@@ -1,13 +1,24 @@
 package com.example.demo.controller;
 
+import javax.servlet.http.HttpSession;
 import javax.validation.Valid;
+import javax.validation.Validator;
 import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import org.springframework.validation.Errors;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Controller;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -15,28 +26,72 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.SessionAttributes;
 import org.springframework.web.bind.support.SessionStatus;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
+import com.example.demo.ReplicaLagGuard;
 import com.example.demo.domain.CatOrder;
 import com.example.demo.domain.User;
+import com.example.demo.metrics.ValidationMetrics;
 import com.example.demo.repository.CatOrderRepository;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.service.IngredientCatalog;
+import com.example.demo.service.OrderIngestionProperties;
+import com.example.demo.service.OrderIngestionService;
+import com.example.demo.service.OrderQueueFullException;
+import com.example.demo.vo.CatOrderDraft;
+import com.example.demo.vo.CatOrderMergePatch;
 
 @Slf4j
 @Controller
+@Timed(value = "catcloud.controller", histogram = true)  // 同 CatController，统计各处理器方法的耗时
 @RequestMapping("/orders")
-@SessionAttributes("catOrder")
+@SessionAttributes("draftOrder")  // 与 DesignCatController 共用 session 中的订单草稿
 public class OrderController {
 
     private CatOrderRepository catOrderRepository;
     private UserRepository userRepository;
+    private OrderIngestionService orderIngestionService;
+    private OrderIngestionProperties orderIngestionProperties;
+    private IngredientCatalog ingredientCatalog;
+    private ValidationMetrics validationMetrics;
+    private ReplicaLagGuard replicaLagGuard;
+    private Validator validator;
 
-    public OrderController(CatOrderRepository catOrderRepository) {
+    public OrderController(
+        CatOrderRepository catOrderRepository,
+        OrderIngestionService orderIngestionService,
+        OrderIngestionProperties orderIngestionProperties,
+        IngredientCatalog ingredientCatalog,
+        ValidationMetrics validationMetrics,
+        ReplicaLagGuard replicaLagGuard,
+        Validator validator
+    ) {
         this.catOrderRepository = catOrderRepository;
+        this.orderIngestionService = orderIngestionService;
+        this.orderIngestionProperties = orderIngestionProperties;
+        this.ingredientCatalog = ingredientCatalog;
+        this.validationMetrics = validationMetrics;
+        this.replicaLagGuard = replicaLagGuard;
+        this.validator = validator;
+    }
+
+    @ModelAttribute(name = "draftOrder")  // session 中还没有订单草稿时（例如直接访问 /orders/current），使用一个空的草稿
+    public CatOrderDraft draftOrder() {
+        return new CatOrderDraft();
+    }
+
+    @ModelAttribute(name = "catOrder")  // 订单表单对象，只用于绑定配送和支付信息，不再保存到 session 中
+    public CatOrder catOrder() {
+        return new CatOrder();
     }
     
     @GetMapping("/current")
@@ -46,9 +101,12 @@ public class OrderController {
     }
 
     @PostMapping
-    public String processOrder(
+    public CompletionStage<String> processOrder(  // 返回 CompletionStage 时，Spring MVC 会以异步方式处理请求（释放请求线程），
+                                                  // 待其完成后再以其结果（视图名）继续渲染应答。
         @Valid CatOrder catOrder, Errors errors, 
+        @ModelAttribute("draftOrder") CatOrderDraft draftOrder,
         SessionStatus sessionStatus,
+        HttpSession session,
         Principal principal,  // 这是一个 Java Security 提供的接口，用于获取当前登录的用户信息
                               // 直接使用这个接口的缺点是在安全无关的功能中引入了安全相关的接口，
                               // 这样会导致代码的耦合性增加。因此考虑替换成 Authentication 对象。
@@ -60,10 +118,19 @@ public class OrderController {
 
         if (errors.hasErrors()) {
             log.info("喵喵喵，Error Processing order: " + catOrder + ", errors: " + errors);
-            return "orderForm";
+            validationMetrics.record(errors);
+            return CompletableFuture.completedFuture("orderForm");
         }
 
-        catOrderRepository.save(catOrder);
+        // 设计之后被删除了配料的 Cat 不能下单（可能一个配料也没有了），从草稿中移除并提示用户重新设计
+        List<String> staleCats = draftOrder.removeStaleDesigns(ingredientCatalog::findById);
+        if (!staleCats.isEmpty()) {
+            errors.reject("cats.stale", "Some ingredients of " + staleCats + " are no longer available, please design them again");
+            return CompletableFuture.completedFuture("orderForm");
+        }
+
+        // 按配料目录将 session 中的订单草稿还原为 Cat 对象，添加到订单中
+        draftOrder.addDesignsTo(catOrder, ingredientCatalog::findById);
 
         // 获取当前登录的用户对象（基于 Java Security）
         // User user = userRepository.findByUsername(principal.getName()/*当前登录的用户名*/);
@@ -79,10 +146,35 @@ public class OrderController {
         //      但是这种方式可以在任何地方使用，而不仅仅是在 Controller 中，因此适合在较低级别的代码中使用。
         
         // 将当前用户对象关联到订单对象中
+        // 注：需在保存之前关联，这样 user_id 才会随订单一起写入
         catOrder.setUser(user);
 
+        if (orderIngestionService.isEnabled()) {
+            // 异步写入模式：放入队列，由写入线程与其它订单合并成一批提交，提交成功后再完成本请求
+            // 注：队列已满时 submit() 会抛出 OrderQueueFullException，见下面的 orderQueueFull()
+            return orderIngestionService.submit(catOrder).thenApply(saved -> {
+                replicaLagGuard.pin(session);
+                sessionStatus.setComplete();
+                return "redirect:/";
+            });
+        }
+
+        // 使用 JDBC 批量插入保存订单及其级联的 Cat（见 CatOrderBatchRepositoryImpl），
+        // 代替 catOrderRepository.save(catOrder) 经由 EclipseLink 逐行插入 Cat、Cat_Order_Cat、Cat_Ingredient 的方式
+        catOrderRepository.saveBatched(catOrder);
+        // 启用读写分离时，接下来的一小段时间内这个会话只读主库，以便马上能看到刚下的订单（见 ReplicaLagGuard）
+        replicaLagGuard.pin(session);
+
         sessionStatus.setComplete();
-        return "redirect:/";
+        return CompletableFuture.completedFuture("redirect:/");
+    }
+
+    @ExceptionHandler(OrderQueueFullException.class)
+    public ResponseEntity<String> orderQueueFull(OrderQueueFullException e) {
+        // 返回 503 状态码，并通过 Retry-After 头告知客户端多久之后再重试
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE/*503*/)
+            .header("Retry-After", String.valueOf(orderIngestionProperties.getRetryAfter().getSeconds()))
+            .body(e.getMessage());
     }
 
     @PutMapping(path = "/{id}", consumes = "application/json")  // 对于 PUT 请求，并且请求内容类型是 application/json
@@ -134,6 +226,48 @@ public class OrderController {
         return catOrderRepository.save(oldCatOrder);
     }
 
+    @PatchMapping(path = "/{id}", consumes = "application/merge-patch+json")  // 对于 PATCH 请求，并且请求内容类型是 application/merge-patch+json（RFC 7396）
+                                                                              // 注：与上面的 patchOrder 不同，这里不加载订单，只用一条 UPDATE 修改补丁中出现的列，见 CatOrderPatchRepository。
+    public ResponseEntity<Void> mergePatchOrder(
+        @PathVariable("id") Long id,
+        @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,  // 客户端读到的订单版本号（即 CatOrder.version），例如 If-Match: "3"
+        @RequestBody JsonNode body
+    ) {
+        if (ifMatch == null) {
+            // 返回 428 状态码，表示必须带上 If-Match 头，避免在不知情的情况下覆盖他人的修改
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_REQUIRED/*428*/, "If-Match header with the order version is required");
+        }
+        long version;
+        try {
+            version = Long.parseLong(ifMatch.replaceFirst("^W/", "").replace("\"", "").trim());
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST/*400*/, "If-Match must be an order version", e);
+        }
+        CatOrderMergePatch patch;
+        try {
+            patch = CatOrderMergePatch.of(body);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST/*400*/, e.getMessage(), e);
+        }
+        Map<String, String> errors = patch.validate(validator);
+        if (!errors.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY/*422*/, errors.toString());
+        }
+
+        Optional<Long> newVersion;
+        try {
+            newVersion = catOrderRepository.patch(id, version, patch.getChanges());
+        } catch (OptimisticLockingFailureException e) {
+            // 返回 412 状态码，表示订单已被其他人修改，客户端需重新读取后再修改
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED/*412*/, e.getMessage(), e);
+        }
+        if (!newVersion.isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        // 返回 204 状态码，并通过 ETag 头告知新的版本号，以便客户端继续修改
+        return ResponseEntity.noContent().eTag(String.valueOf(newVersion.get())).build();
+    }
+
     @DeleteMapping("/{id}")  // 对于 DELETE 请求
     public ResponseEntity<CatOrder> deleteOrder(@PathVariable("id") Long id) {
         // 注：@PathVariable 注解表示将请求路径中的 id 参数绑定到方法的 id 参数上。
@@ -0,0 +1,53 @@
+package com.example.demo.controller;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import lombok.extern.slf4j.Slf4j;
+import com.example.demo.AsyncRequestTimeoutConfiguration;
+import com.example.demo.service.OrderExportService;
+
+@Slf4j
+@RestController
+@RequestMapping(
+    path = "api/orders",                // 处理 /api/orders 的请求
+    produces = "application/x-ndjson"   // 产生 NDJSON（newline-delimited JSON，每行一个 JSON 对象）的内容
+)
+public class OrderExportController {
+
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final OrderExportService orderExportService;
+    private final Duration timeout;
+
+    public OrderExportController(
+        OrderExportService orderExportService,
+        @Value("${catcloud.orders.export.timeout:30m}") Duration timeout
+    ) {
+        this.orderExportService = orderExportService;
+        this.timeout = timeout;
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(NativeWebRequest request) {
+        // 注：返回 StreamingResponseBody，Spring MVC 会在异步线程中调用它，将内容直接写到应答的输出流中，
+        //     而不是先在内存中构造完整的应答内容，因此可以导出任意多的订单。
+        //     导出大量订单需要较长的时间，因此只为这个接口设置较长的超时时间（catcloud.orders.export.timeout），
+        //     其它异步请求仍使用默认的超时时间，见 AsyncRequestTimeoutConfiguration。
+        AsyncRequestTimeoutConfiguration.setTimeout(request, timeout);
+        StreamingResponseBody body = out -> {
+            long orders = orderExportService.exportTo(out);
+            log.info("喵喵喵，Exported {} orders", orders);
+        };
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+    }
+
+}
@@ -1,25 +1,49 @@
 package com.example.demo.controller;
 
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import lombok.extern.slf4j.Slf4j;
+import com.example.demo.CachedUserDetailsService;
+import com.example.demo.PasswordHashingBusyException;
+import com.example.demo.PasswordHashingExecutor;
+import com.example.demo.PasswordHashingProperties;
 import com.example.demo.repository.UserRepository;
 import com.example.demo.vo.RegistrationForm;
 
+@Slf4j
 @Controller
 @RequestMapping("/register")
 public class RegistrationController {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final CachedUserDetailsService userDetailsService;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final PasswordHashingProperties passwordHashingProperties;
 
-    public RegistrationController(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public RegistrationController(
+        UserRepository userRepository,
+        PasswordEncoder passwordEncoder,
+        CachedUserDetailsService userDetailsService,
+        PasswordHashingExecutor passwordHashingExecutor,
+        PasswordHashingProperties passwordHashingProperties
+    ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userDetailsService = userDetailsService;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.passwordHashingProperties = passwordHashingProperties;
     }
 
     @GetMapping
@@ -28,9 +52,37 @@ public class RegistrationController {
     }
 
     @PostMapping
-    public String processRegistration(RegistrationForm form) {
-        userRepository.save(form.toUser(passwordEncoder));
-        return "redirect:/login";
+    public WebAsyncTask<String> processRegistration(RegistrationForm form, Model model) {
+        // 注：toUser() 中要计算 BCrypt 哈希，因此与登录一样放到 PasswordHashingExecutor 的专用线程中执行
+        return passwordHashingExecutor.submit(() -> {
+            if (userRepository.findByUsername(form.getUsername()) != null) {
+                return usernameTaken(form, model);
+            }
+            try {
+                userRepository.save(form.toUser(passwordEncoder));
+            } catch (DataIntegrityViolationException e) {
+                // 注：username 上有唯一约束（见 User），两个请求同时注册同一个用户名时都会通过上面的检查，
+                //     但只有一个能插入成功，另一个违反唯一约束，与用户名已存在时一样处理
+                return usernameTaken(form, model);
+            }
+            // 淘汰登录时的用户缓存，以免之后登录时取到缓存中旧的用户信息
+            userDetailsService.evict(form.getUsername());
+            return "redirect:/login";
+        });
+    }
+
+    private static String usernameTaken(RegistrationForm form, Model model) {
+        log.info("喵喵喵，Username already taken: " + form.getUsername());
+        model.addAttribute("error", true);
+        return "registration";
+    }
+
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<String> passwordHashingBusy(PasswordHashingBusyException e) {
+        // 返回 503 状态码，并通过 Retry-After 头告知客户端多久之后再重试
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE/*503*/)
+            .header("Retry-After", String.valueOf(passwordHashingProperties.getRetryAfter().getSeconds()))
+            .body(e.getMessage());
     }
 
 }
@@ -0,0 +1,39 @@
+package com.example.demo.controller;
+
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.micrometer.core.annotation.Timed;
+
+import com.example.demo.service.IngredientStatistics;
+import com.example.demo.vo.IngredientStatsSnapshot;
+
+@RestController
+@Timed(value = "catcloud.controller", histogram = true)  // 同 CatController，统计各处理器方法的耗时
+@RequestMapping(  // 将指定路由的请求映射到相应的处理器并配置其返回内容类型
+    path = "api/stats",            // 处理 /api/stats 的请求
+    produces = "application/json"  // 产生 application/json 的内容（Content-Type）
+)
+@CrossOrigin(origins = "http://localhost:8089")  // 允许来自 http://localhost:8089 的跨域请求
+public class StatsController {
+
+    private IngredientStatistics ingredientStatistics;
+
+    public StatsController(IngredientStatistics ingredientStatistics) {
+        this.ingredientStatistics = ingredientStatistics;
+    }
+
+    @GetMapping("/ingredients")  // 配料、配料类型、配料组合的受欢迎程度，直接返回内存中的快照，最多落后一个刷新间隔（catcloud.stats.flush-interval）
+    public IngredientStatsSnapshot ingredientStats() {
+        return ingredientStatistics.snapshot();
+    }
+
+    @PostMapping("/ingredients/rebuild")  // 从订单表重新统计（例如汇总表损坏或与订单不一致时），返回重建后的快照
+    public IngredientStatsSnapshot rebuildIngredientStats() {
+        return ingredientStatistics.rebuild();
+    }
+
+}
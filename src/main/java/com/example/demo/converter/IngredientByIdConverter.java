@@ -6,7 +6,7 @@ import org.springframework.core.convert.converter.Converter;
 import org.springframework.stereotype.Component;
 
 import com.example.demo.domain.Ingredient;
-import com.example.demo.repository.IngredientRepository;
+import com.example.demo.service.IngredientCatalog;
 
 @Component  // 这个注解的作用是将 IngredientByIdConverter 类声明为 Spring 组件，
             // 这样 Spring 就会自动将其创建为 Spring 应用上下文中的一个 bean，
@@ -17,13 +17,13 @@ import com.example.demo.repository.IngredientRepository;
             //     然后将提交数据转换后的值注入到相应处理器方法的参数中。
 public class IngredientByIdConverter implements Converter<String, Ingredient> {
 
-    private final IngredientRepository ingredientRepository;
+    private final IngredientCatalog ingredientCatalog;
 
-    // @Autowired  // 这里无需使用 @Autowired 注解来注入 IngredientRepository 对象，
-                   // 因为此处 DesignCatController 类只有一个构造器，其参数为 IngredientRepository 对象，
-                   // 这种情况下，Spring 会自动将 IngredientRepository 对象注入到构造器中。
-    public IngredientByIdConverter(IngredientRepository ingredientRepository) {
-        this.ingredientRepository = ingredientRepository;
+    // @Autowired  // 这里无需使用 @Autowired 注解来注入 IngredientCatalog 对象，
+                   // 因为此处 IngredientByIdConverter 类只有一个构造器，其参数为 IngredientCatalog 对象，
+                   // 这种情况下，Spring 会自动将 IngredientCatalog 对象注入到构造器中。
+    public IngredientByIdConverter(IngredientCatalog ingredientCatalog) {
+        this.ingredientCatalog = ingredientCatalog;
         // 代替原来的硬编码方式，改为从数据库中获取指定 id 的 Ingredient 对象列表的方式来实现 converter
         // 因此，这里不再需要 ingredientsMap 了
         // // 在引入数据库之前，先使用硬编码的方式来创构造 ingredientsMap 即 Ingredient id 到 Ingredient 对象的映射
@@ -41,9 +41,9 @@ public class IngredientByIdConverter implements Converter<String, Ingredient> {
 
     @Override
     public Ingredient convert(String id) {
-        // 代替原来的从 ingredientsMap 中获取 Ingredient 对象的方式，
-        // 改为从数据库中获取指定 id 的 Ingredient 对象列表的方式来实现 converter
-        return ingredientRepository.findById(id).orElse(null);  // 注意：orElse(null) 是一种过于简单的处理方式，不推荐。
+        // 代替原来的逐个从数据库中获取的方式，改为从配料目录的内存快照中获取，
+        // 这样 /design 提交时勾选的每个配料都不再需要一次数据库查询
+        return ingredientCatalog.findById(id).orElse(null);  // 注意：orElse(null) 是一种过于简单的处理方式，不推荐。
                                                                       //       因为它会导致空指针异常（NullPointerException），
                                                                       //       从而抵消了使用 Optional 的好处。
                                                                       //       如果不确定应该返回什么值时，可以使用 orElseThrow() 方法来抛出一个异常。
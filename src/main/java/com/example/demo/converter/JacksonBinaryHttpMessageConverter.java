@@ -0,0 +1,63 @@
+package com.example.demo.converter;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.util.StreamUtils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 用一个已配置好的（JSON 的）ObjectMapper 序列化，但以另一种 Jackson 格式（如 CBOR、Smile）写出的消息转换器，只用于写出应答
+ *
+ * 注：
+ *     Spring 自带的 MappingJackson2CborHttpMessageConverter 等要求 ObjectMapper 本身就以该格式的 JsonFactory 创建，
+ *     而 Spring Data REST 的 HAL 应答所用的 ObjectMapper（带有 HAL 模块、PersistentEntity 的序列化器等）是它内部创建的，无法以其它格式重新创建。
+ *     Jackson 的序列化器只通过 JsonGenerator 写出，与具体格式无关，因此这里借用该 ObjectMapper 的全部序列化配置，
+ *     把应答写到对应格式的 JsonGenerator 上，得到的结构与 JSON 应答完全相同。
+ */
+public class JacksonBinaryHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    private final ObjectMapper objectMapper;
+    private final JsonFactory factory;
+
+    public JacksonBinaryHttpMessageConverter(ObjectMapper objectMapper, JsonFactory factory, MediaType mediaType) {
+        super(mediaType);
+        this.objectMapper = objectMapper;
+        this.factory = factory;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return true;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;  // 请求体仍以 JSON 提交
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Reading " + getSupportedMediaTypes() + " is not supported", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object object, HttpOutputMessage outputMessage) throws IOException {
+        // 与 AbstractJackson2HttpMessageConverter 相同，关闭 JsonGenerator 时不关闭应答的输出流
+        try (JsonGenerator generator = factory.createGenerator(StreamUtils.nonClosing(outputMessage.getBody()))) {
+            objectMapper.writeValue(generator, object);
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotWritableException("Could not write " + getSupportedMediaTypes() + ": " + e.getOriginalMessage(), e);
+        }
+    }
+
+}
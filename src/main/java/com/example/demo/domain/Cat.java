@@ -1,5 +1,8 @@
 package com.example.demo.domain;
 
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
@@ -14,18 +17,29 @@ import javax.persistence.JoinColumn;
 
 import javax.persistence.Entity;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
 // 如果使用 Spring Data JPA 那么需要用上面两个注解代替 Spring Data JDBC 的下面两个注解
 // import org.springframework.data.relational.core.mapping.Table;
 // import org.springframework.data.annotation.Id;
 
+import org.eclipse.persistence.annotations.BatchFetch;
+import org.eclipse.persistence.annotations.BatchFetchType;
+import org.springframework.data.domain.DomainEvents;
+
 import lombok.Data;
 
+import com.example.demo.repository.CatsSavedEvent;
+
 @Data
 /*@Table*/  // 这个注解的作用是在数据库中创建一个对应的表，表名默认基于类名（Cat）生成，也可以指定，例如：@Table("Cat_Table")。
             // 注：当不指定表名时，表名默认为类名，但类名中的非首位大写字母会被转换为前缀下划线的形式，例如：Cat -> Cat，CatOrder -> Cat_Order。
             //     当不指定表名时，与不加 @Table 注解等效。也就是说，如果使用默认规则生成的表名，那么这个注解可以省略，Spring Data 也会自动创建这个表。
 @Entity  // 使用 @Entity 代替 @Table 注解，以获得更多实体特性（包括实体映射、实体关系、实体生命周期）
-public class Cat {
+@Table(indexes = @Index(name = "IDX_CAT_CREATEDAT_ID", columnList = "createdAt, id"))  // 注：这里的 @Table 是 JPA 的注解，用于声明 (createdAt, id) 组合索引，
+                                                                                       //     以支持 CatRepository 中按 createdAt、id 倒序的 keyset（seek）分页查询（倒序时反向扫描该索引即可）。
+public class Cat implements Serializable {  // 注：CatOrder 实现了 Serializable，其中的 Cat 也需要能够序列化，否则序列化 CatOrder 时会抛出 NotSerializableException
+    private static final long serialVersionUID = 1L;
 
     @Id  // 这个注解的作用是声明 id 属性为数据库相应表（Cat表）中的主键
     @GeneratedValue(strategy=GenerationType.AUTO)
@@ -70,6 +84,10 @@ public class Cat {
                    //       - 实体类（Ingredient）实例所拥有的另一实体类（Cat）实例的集合（cats）会被放入 cats 属性中。
                    //       - 实体类（Ingredient）上无需重复注解 @JoinTable 配置相同的中间表信息，只需注解 @ManyToMany 并指定 mappedBy 属性即可。
                    //         例如：@ManyToMany(mappedBy="<拥有者 @ManyToMany 所注解的属性名称（ingredients）>") 
+    @BatchFetch(BatchFetchType.IN)  // EclipseLink 的批量加载：当某个 Cat 的 ingredients 被访问（懒加载）时，
+                                    // 一次性用 IN (...) 加载同一次查询得到的所有 Cat 的 ingredients，
+                                    // 从而避免序列化多个 Cat 时每个 Cat 各执行一次查询（N+1 问题）。
+                                    // 注：这是默认的加载方式，CatRepository 中的查询方法还可以通过查询提示（hint）选择各自的加载方式。
     @JoinTable(
         name="Cat_Ingredient",
         joinColumns=@JoinColumn(name="cat_id"),
@@ -77,4 +95,9 @@ public class Cat {
     )
     private List<Ingredient> ingredients;
 
+    @DomainEvents  // catRepository.save(cat) 之后由 Spring Data 发布，以便在提交后更新配料索引（见 CatIngredientIndex）
+    Collection<Object> domainEvents() {
+        return Collections.singletonList(new CatsSavedEvent(Collections.singletonList(this), false));
+    }
+
 }
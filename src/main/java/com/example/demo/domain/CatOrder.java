@@ -19,12 +19,16 @@ import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
+import javax.persistence.Version;
 
 // 如果使用 Spring Data JPA 那么需要用上面两个注解代替 Spring Data JDBC 的下面两个注解
 // import org.springframework.data.relational.core.mapping.Table;
 // import org.springframework.data.annotation.Id;
 import org.springframework.data.relational.core.mapping.Column;
 
+import org.eclipse.persistence.annotations.BatchFetch;
+import org.eclipse.persistence.annotations.BatchFetchType;
+
 import lombok.Data;
 
 @Data
@@ -43,6 +47,10 @@ public class CatOrder implements Serializable {
 
     private Date placedAt = new Date();  // placedAt 属性用于存储 CatOrder 对象的下单时间
 
+    @Version  // 乐观锁的版本号，每次更新加一：EclipseLink 更新时会带上 "WHERE version = <读取时的版本号>"，
+              // 部分更新（见 CatOrderPatchRepository）也以它检查订单是否已被其他人修改。新插入的订单版本号为 1。
+    private Long version;
+
     // 其它属性也会自动映射到数据库表中相应的字段，例如：name、placedAt、ingredients 等。
     // 也可以显式地使用 @Column 注解来指定属性与数据库表中字段的映射关系，例如：
 
@@ -94,6 +102,7 @@ public class CatOrder implements Serializable {
                                            // 也就是 CatOrder 表与 Cat 表之间通过 CatOrder 表的 id 字段建立的一对多关系，
                                            // 即一个 CatOrder 对象可以拥有多个 Cat 对象，它们被放入 cats 属性中。
                                            // 同时，这个注解还声明了级联操作，即当 CatOrder 对象（及其映射的表记录）被删除时，其所拥有的 Cat 对象（及其映射的表记录）也会被删除。
+    @BatchFetch(BatchFetchType.IN)  // 同 Cat.ingredients，多个订单的 cats 一次性用 IN (...) 批量加载
     @JoinTable(
         name = "Cat_Order_Cat", 
         joinColumns = @JoinColumn(name = "cat_order_id"), 
@@ -1,9 +1,12 @@
 package com.example.demo.domain;
 
+import java.io.Serializable;
+
 import javax.persistence.Enumerated;
 import javax.persistence.EnumType;
 import javax.persistence.Entity;
 import javax.persistence.Id;
+import javax.validation.constraints.NotNull;
 // 如果使用 Spring Data JPA 那么需要用上面两个注解代替 Spring Data JDBC 的下面两个注解
 // import org.springframework.data.relational.core.mapping.Table;
 // import org.springframework.data.annotation.Id;
@@ -39,13 +42,15 @@ import lombok.AccessLevel;
                                                                 //    - 如果没有这个注解，那么当这个类已经定义了其它的构造函数时，Java 就不会为这个类自动生成无参构造函数了。
                                                                 // 参考：书中 3.3.2 节 或 https://stackoverflow.com/questions/68314072/why-to-use-allargsconstructor-and-noargsconstructor-together-over-an-entity
                                                                 // 注：虽然相关的参考或问答大都是针对 JPA 的，但不论是 Spring Data JDBC 还是 Spring Data JPA，其数据持久化过程都是需要通过反射来创建所需类实例的。
-public class Ingredient /*implements Persistable<String>*/ {
+public class Ingredient implements Serializable /*, Persistable<String>*/ {  // 注：同 Cat，CatOrder 中的 Cat 的配料也需要能够序列化
                         // 注：使用 JPA 后，将持久化过程的实体状态检测（包括检测是否新建）可以交给 JPA 自动处理，
                         //     因此如果没有特别的需要，那么可以不用实现 Persistable 接口及其方法。
+    private static final long serialVersionUID = 1L;
     
     @Id
     private String id;
     private String name;
+    @NotNull(message="Ingredient type is required")  // 校验以确保 type 属性的值不能为空（配料目录按类型分组）
     @Enumerated(EnumType.STRING)
     private Type type;
 
@@ -0,0 +1,44 @@
+package com.example.demo.domain;
+
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 配料统计的汇总表（Ingredient_Stats）中的一行：某个配料，或某两个配料的组合，被下单的次数，
+ * 以及订单总数和 Cat 总数（kind 为 TOTAL，id 为 TOTAL:ORDERS 和 TOTAL:CATS）
+ *
+ * 注：
+ *     内存中的计数器由 IngredientStatistics 维护，并定期将发生变化的行写回这张表（写入的是累计值而不是增量），
+ *     应用重启时从这张表恢复计数器。这个实体只用于声明表结构，读写都通过 JDBC 完成。
+ */
+@Data
+@Entity
+@Table(name = "Ingredient_Stats")
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PRIVATE, force = true)
+public class IngredientStat {
+
+    public static enum Kind {
+        INGREDIENT, PAIR, TOTAL
+    }
+
+    @Id
+    private String id;  // INGREDIENT:<配料 id> 或 PAIR:<配料 id>:<配料 id>（两个 id 按字典序排列）
+
+    @Enumerated(EnumType.STRING)
+    private Kind kind;
+
+    private String ingredientA;  // TOTAL 时为 ORDERS 或 CATS
+    private String ingredientB;  // 只有 PAIR 才有
+
+    private long orderCount;  // 包含该配料（或同时包含这两个配料）的、已下单的 Cat 的个数，TOTAL 时为订单数或 Cat 数
+
+}
@@ -7,6 +7,7 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Entity;
 import javax.persistence.Id;
+import javax.persistence.Column;
 
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -32,6 +33,10 @@ public class User implements UserDetails {  // 用户（User）实现了 UserDet
     @GeneratedValue(strategy = GenerationType.AUTO)
     private Long id;
 
+    @Column(unique = true)  // 用户名唯一，且登录时按用户名查询用户，因此需要唯一索引
+                            // 注：这里没有使用 @Table(indexes = @Index(..., unique = true))，
+                            //     因为 EclipseLink 生成的 CREATE INDEX 语句中不会给表名 USER 加上双引号，而 USER 是 SQL 的关键字；
+                            //     改用唯一约束，数据库会自动为其创建唯一索引。
     private final String username;
     private final String password;
     private final String fullname;
@@ -0,0 +1,46 @@
+package com.example.demo.metrics;
+
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * 按认证方式统计认证的耗时（catcloud.authentication，带百分位直方图），
+ * 标签 method 为认证方式：form（表单登录，见 LoginController）、oauth2（OAuth2 登录）、jwt（携带 Bearer Token 的 API 请求），
+ * 标签 outcome 为认证结果：success 或 failure。
+ *
+ * 注：
+ *     三种认证方式最终都是调用某个 AuthenticationManager 完成认证的，因此这里用计时的 AuthenticationManager 装饰它们，
+ *     只统计认证本身（校验密码、换取令牌并获取用户信息、校验 JWT 签名）的耗时，不含排队等待（见 PasswordHashingExecutor）和之后的跳转。
+ */
+@Component
+public class AuthenticationMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    public AuthenticationMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public AuthenticationManager timed(String method, AuthenticationManager authenticationManager) {
+        return authentication -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            Authentication result = null;
+            try {
+                result = authenticationManager.authenticate(authentication);
+                return result;
+            } finally {
+                sample.stop(Timer.builder("catcloud.authentication")
+                    .description("Time taken to authenticate a login or an API request")
+                    .tag("method", method)
+                    .tag("outcome", result != null ? "success" : "failure")
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+            }
+        };
+    }
+
+}
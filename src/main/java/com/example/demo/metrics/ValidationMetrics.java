@@ -0,0 +1,36 @@
+package com.example.demo.metrics;
+
+import org.springframework.stereotype.Component;
+import org.springframework.validation.Errors;
+import org.springframework.validation.FieldError;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 按表单对象和字段统计表单校验失败的次数（catcloud.validation.failures），
+ * 例如提交订单时信用卡号通不过校验的次数为 catcloud.validation.failures{object="catOrder", field="ccNumber"}。
+ *
+ * 注：标签 field 只会是表单对象中声明了校验注解的字段，取值是有限的。
+ */
+@Component
+public class ValidationMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    public ValidationMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void record(Errors errors) {
+        for (FieldError error : errors.getFieldErrors()) {
+            Counter.builder("catcloud.validation.failures")
+                .description("Number of form fields rejected by validation")
+                .tag("object", errors.getObjectName())
+                .tag("field", error.getField())
+                .register(meterRegistry)
+                .increment();
+        }
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.example.demo.reactive;
+
+import lombok.Data;
+
+/**
+ * 某个 Cat 的一个配料，即 Cat_Ingredient 关联表与 Ingredient 表连接查询的一行，见 ReactiveCatRepository.findIngredientsByCatIds
+ */
+@Data
+public class CatIngredientRow {
+
+    private Long catId;
+    private String id;
+    private String name;
+    private String type;
+
+}
@@ -0,0 +1,26 @@
+package com.example.demo.reactive;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import lombok.Data;
+
+/**
+ * Cat 表的一行（R2DBC 的实体），由 ReactiveCatHandler 与其配料一起组装成 domain 包中的 Cat 作为应答
+ *
+ * 注：Spring Data R2DBC 不支持实体间的关联（如 Cat 的 @ManyToMany 配料），因此不直接使用 JPA 的实体类，配料见 CatIngredientRow。
+ */
+@Data
+@Table("CAT")
+public class CatRow {
+
+    @Id
+    private Long id;
+    @Column("CREATEDAT")  // 与 EclipseLink 生成的列名相同（默认的命名策略会映射为 created_at）
+    private LocalDateTime createdAt;
+    private String name;
+
+}
@@ -0,0 +1,26 @@
+package com.example.demo.reactive;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import lombok.Data;
+
+import com.example.demo.domain.Ingredient;
+
+/**
+ * Ingredient 表的一行（R2DBC 的实体）
+ */
+@Data
+@Table("INGREDIENT")
+public class IngredientRow {
+
+    @Id
+    private String id;
+    private String name;
+    private String type;
+
+    public Ingredient toIngredient() {
+        return new Ingredient(id, name, Ingredient.Type.valueOf(type));
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.example.demo.reactive;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RequestPredicates;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.example.demo.ReactiveApiProperties;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * 响应式接口的子上下文（见 ReactiveApiServer）：R2DBC 连接池和仓库、WebFlux 函数式路由，以及监听 catcloud.reactive.port 的 Reactor Netty 服务器
+ *
+ * 注：
+ *     这个类只由 ReactiveApiServer 注册到子上下文中，因此没有标注 @Configuration，以免被主上下文的组件扫描发现。
+ *     ReactiveApiProperties 和 ObjectMapper 取自父上下文（主上下文），JSON 的序列化配置因此与 Spring MVC 的接口完全相同。
+ */
+@EnableR2dbcRepositories
+public class ReactiveApiConfiguration {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool connectionFactory(ReactiveApiProperties properties) {
+        ConnectionFactory connectionFactory = ConnectionFactories.get(ConnectionFactoryOptions.parse(properties.getR2dbcUrl()).mutate()
+            .option(ConnectionFactoryOptions.USER, properties.getUsername())
+            .option(ConnectionFactoryOptions.PASSWORD, properties.getPassword())
+            .build());
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+            .name("catcloud-reactive")
+            .maxSize(properties.getMaximumPoolSize())
+            .build());
+    }
+
+    @Bean
+    public R2dbcEntityTemplate r2dbcEntityTemplate(ConnectionFactory connectionFactory) {
+        return new R2dbcEntityTemplate(connectionFactory);
+    }
+
+    @Bean
+    public ReactiveCatHandler reactiveCatHandler(ReactiveCatRepository catRepository) {
+        return new ReactiveCatHandler(catRepository);
+    }
+
+    @Bean
+    public ReactiveIngredientHandler reactiveIngredientHandler(ReactiveIngredientRepository ingredientRepository) {
+        return new ReactiveIngredientHandler(ingredientRepository);
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> reactiveRoutes(ReactiveCatHandler cats, ReactiveIngredientHandler ingredients) {
+        return RouterFunctions.route()
+            .GET("/api/cats", RequestPredicates.queryParam("recent", value -> true), cats::recentCats)  // /api/cats?recent[&after=..&limit=N]
+            .GET("/api/cats/{id}", cats::catById)
+            .GET("/api/ingredients", ingredients::allIngredients)
+            .build();
+    }
+
+    @Bean
+    public HttpHandler reactiveHttpHandler(RouterFunction<ServerResponse> reactiveRoutes, ObjectMapper objectMapper) {
+        return RouterFunctions.toHttpHandler(reactiveRoutes, HandlerStrategies.builder()
+            .codecs(codecs -> {
+                codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+            })
+            .build());
+    }
+
+    // 单独的事件循环线程（线程名以 catcloud-reactive 开头），不与应用中其它使用 Reactor Netty 的地方（如 WebClient）共用
+    @Bean(destroyMethod = "dispose")
+    public LoopResources reactiveLoopResources(ReactiveApiProperties properties) {
+        return LoopResources.create("catcloud-reactive", properties.getEventLoopThreads(), true);
+    }
+
+    @Bean(destroyMethod = "disposeNow")
+    public DisposableServer reactiveHttpServer(HttpHandler reactiveHttpHandler, LoopResources reactiveLoopResources, ReactiveApiProperties properties) {
+        return HttpServer.create()
+            .port(properties.getPort())
+            .runOn(reactiveLoopResources)
+            .handle(new ReactorHttpHandlerAdapter(reactiveHttpHandler))
+            .bindNow();
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.example.demo.reactive;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.example.demo.domain.Cat;
+import com.example.demo.domain.Ingredient;
+import com.example.demo.vo.CatCursorPage;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * CatController 中 GET /api/cats?recent、GET /api/cats?recent&after=..&limit=N 和 GET /api/cats/{id} 的响应式版本，应答的 JSON 与之相同
+ */
+public class ReactiveCatHandler {
+
+    private static final int RECENT_SIZE = 12;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final ReactiveCatRepository catRepo;
+
+    public ReactiveCatHandler(ReactiveCatRepository catRepo) {
+        this.catRepo = catRepo;
+    }
+
+    public Mono<ServerResponse> recentCats(ServerRequest request) {
+        Optional<String> limitParam = request.queryParam("limit");
+        Optional<String> afterParam = request.queryParam("after");
+        if (!limitParam.isPresent() && !afterParam.isPresent()) {
+            return catRepo.findAllByOrderByCreatedAtDescIdDesc(PageRequest.of(0, RECENT_SIZE))
+                .collectList()
+                .flatMap(this::withIngredients)
+                .flatMap(cats -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(cats));
+        }
+
+        int limit;
+        try {
+            limit = limitParam.isPresent() ? Integer.parseInt(limitParam.get()) : RECENT_SIZE;  // 只有 after 时每页的个数与第一页相同
+        } catch (NumberFormatException e) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST/*400*/, "limit must be a number", e));
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST/*400*/, "limit must be between 1 and " + MAX_PAGE_SIZE));
+        }
+        // 与 Slice 相同，多取一条记录来判断是否还有下一页
+        String after = afterParam.orElse("");
+        Flux<CatRow> rows;
+        if (after.isEmpty()) {
+            rows = catRepo.findAllByOrderByCreatedAtDescIdDesc(PageRequest.of(0, limit + 1));
+        } else {
+            CatCursorPage.Cursor cursor;
+            try {
+                cursor = CatCursorPage.parseCursor(after);
+            } catch (IllegalArgumentException e) {
+                return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST/*400*/, e.getMessage(), e));
+            }
+            rows = catRepo.findRecentBefore(new Timestamp(cursor.getCreatedAt().getTime()).toLocalDateTime(), cursor.getId(), limit + 1);
+        }
+        return rows.collectList().flatMap(page -> {
+            boolean hasNext = page.size() > limit;
+            return withIngredients(hasNext ? page.subList(0, limit) : page)
+                .map(cats -> CatCursorPage.of(new SliceImpl<>(cats, PageRequest.of(0, limit), hasNext)));
+        }).flatMap(page -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(page));
+    }
+
+    public Mono<ServerResponse> catById(ServerRequest request) {
+        long id;
+        try {
+            id = Long.parseLong(request.pathVariable("id"));
+        } catch (NumberFormatException e) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST/*400*/, "id must be a number", e));
+        }
+        return catRepo.findById(id)
+            .flatMap(row -> withIngredients(Collections.singletonList(row)))
+            .flatMap(cats -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(cats.get(0)))
+            .switchIfEmpty(ServerResponse.notFound().build());  // 同 CatController，找不到时返回 404
+    }
+
+    // 用一条 IN (...) 查询取回这些 Cat 的全部配料，组装成与 JPA 实体相同的 Cat
+    private Mono<List<Cat>> withIngredients(List<CatRow> rows) {
+        if (rows.isEmpty()) {
+            return Mono.just(Collections.emptyList());
+        }
+        List<Long> ids = rows.stream().map(CatRow::getId).collect(Collectors.toList());
+        return catRepo.findIngredientsByCatIds(ids)
+            .collectMultimap(CatIngredientRow::getCatId,
+                row -> new Ingredient(row.getId(), row.getName(), Ingredient.Type.valueOf(row.getType())))
+            .map(ingredients -> rows.stream().map(row -> toCat(row, ingredients)).collect(Collectors.toList()));
+    }
+
+    private static Cat toCat(CatRow row, Map<Long, Collection<Ingredient>> ingredients) {
+        Cat cat = new Cat();
+        cat.setId(row.getId());
+        cat.setCreatedAt(row.getCreatedAt() == null ? null : Timestamp.valueOf(row.getCreatedAt()));
+        cat.setName(row.getName());
+        cat.setIngredients(new ArrayList<>(ingredients.getOrDefault(row.getId(), Collections.emptyList())));
+        return cat;
+    }
+
+}
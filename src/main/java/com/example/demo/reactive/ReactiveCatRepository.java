@@ -0,0 +1,28 @@
+package com.example.demo.reactive;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+import reactor.core.publisher.Flux;
+
+// 注：与 CatRepository 中对应的查询相同，只是改为 R2DBC 的 SQL，Cat 的配料由 findIngredientsByCatIds 用一条 IN (...) 查询一次取回
+public interface ReactiveCatRepository extends ReactiveCrudRepository<CatRow, Long> {
+
+    // 第一页
+    Flux<CatRow> findAllByOrderByCreatedAtDescIdDesc(Pageable pageable);
+
+    // 上一页最后一条记录（createdAt, id）之后的一页，见 CatRepository.findRecentBefore
+    @Query("SELECT * FROM CAT WHERE CREATEDAT <= :createdAt AND (CREATEDAT < :createdAt OR ID < :id) "
+         + "ORDER BY CREATEDAT DESC, ID DESC LIMIT :limit")
+    Flux<CatRow> findRecentBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, @Param("limit") int limit);
+
+    @Query("SELECT ci.cat_id AS cat_id, i.ID AS id, i.NAME AS name, i.TYPE AS type "
+         + "FROM Cat_Ingredient ci JOIN Ingredient i ON i.ID = ci.ingredient_id WHERE ci.cat_id IN (:catIds)")
+    Flux<CatIngredientRow> findIngredientsByCatIds(@Param("catIds") Collection<Long> catIds);
+
+}
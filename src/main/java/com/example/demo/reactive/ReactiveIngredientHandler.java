@@ -0,0 +1,28 @@
+package com.example.demo.reactive;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.example.demo.domain.Ingredient;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * IngredientController 中 GET /api/ingredients 的响应式版本，应答的 JSON 与之相同（全部配料的数组）
+ */
+public class ReactiveIngredientHandler {
+
+    private final ReactiveIngredientRepository ingredientRepo;
+
+    public ReactiveIngredientHandler(ReactiveIngredientRepository ingredientRepo) {
+        this.ingredientRepo = ingredientRepo;
+    }
+
+    public Mono<ServerResponse> allIngredients(ServerRequest request) {
+        return ServerResponse.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(ingredientRepo.findAll().map(IngredientRow::toIngredient), Ingredient.class);
+    }
+
+}
@@ -0,0 +1,7 @@
+package com.example.demo.reactive;
+
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+public interface ReactiveIngredientRepository extends ReactiveCrudRepository<IngredientRow, String> {
+
+}
@@ -0,0 +1,15 @@
+package com.example.demo.repository;
+
+import java.util.List;
+
+import com.example.demo.domain.Cat;
+
+/**
+ * CatRepository 的自定义片段（fragment），
+ * 用 JDBC 批量插入的方式一次性持久化多个 Cat 及其配料关联（用于批量导入，见 BulkImportService）。
+ */
+public interface CatBatchRepository {
+
+    List<Cat> saveAllBatched(List<Cat> cats);
+
+}
@@ -0,0 +1,69 @@
+package com.example.demo.repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.domain.Cat;
+import com.example.demo.domain.Ingredient;
+
+/**
+ * CatBatchRepository 的实现
+ *
+ * 注：与 CatOrderBatchRepositoryImpl 相同，先用 SequenceBlockAllocator 为所有 Cat 预先分配主键，
+ *     再对 Cat、Cat_Ingredient 两张表各执行一次批量插入（batchUpdate），之后发布 CatsSavedEvent。
+ */
+public class CatBatchRepositoryImpl implements CatBatchRepository {
+
+    private final JdbcOperations jdbcOperations;
+    private final SequenceBlockAllocator sequenceBlockAllocator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public CatBatchRepositoryImpl(
+        JdbcOperations jdbcOperations,
+        SequenceBlockAllocator sequenceBlockAllocator,
+        ApplicationEventPublisher eventPublisher
+    ) {
+        this.jdbcOperations = jdbcOperations;
+        this.sequenceBlockAllocator = sequenceBlockAllocator;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    @Transactional
+    public List<Cat> saveAllBatched(List<Cat> cats) {
+        if (cats.isEmpty()) {
+            return cats;
+        }
+        long nextId = sequenceBlockAllocator.nextIds(cats.size());
+
+        List<Object[]> catRows = new ArrayList<>(cats.size());
+        List<Object[]> catIngredientRows = new ArrayList<>();
+        for (Cat cat : cats) {
+            long catId = nextId++;
+            cat.setId(catId);
+            if (cat.getCreatedAt() == null) {
+                cat.setCreatedAt(new Date());
+            }
+            catRows.add(new Object[] { catId, new Timestamp(cat.getCreatedAt().getTime()), cat.getName() });
+            if (cat.getIngredients() != null) {
+                for (Ingredient ingredient : cat.getIngredients()) {
+                    catIngredientRows.add(new Object[] { catId, ingredient.getId() });
+                }
+            }
+        }
+
+        jdbcOperations.batchUpdate("INSERT INTO Cat (id, createdAt, name) VALUES (?, ?, ?)", catRows);
+        if (!catIngredientRows.isEmpty()) {
+            jdbcOperations.batchUpdate("INSERT INTO Cat_Ingredient (cat_id, ingredient_id) VALUES (?, ?)", catIngredientRows);
+        }
+        eventPublisher.publishEvent(new CatsSavedEvent(cats, true));
+        return cats;
+    }
+
+}
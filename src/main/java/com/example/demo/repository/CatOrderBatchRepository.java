@@ -0,0 +1,21 @@
+package com.example.demo.repository;
+
+import java.util.List;
+
+import com.example.demo.domain.CatOrder;
+
+/**
+ * CatOrderRepository 的自定义片段（fragment），
+ * 用 JDBC 批量插入的方式持久化订单及其级联的 Cat。
+ *
+ * 注：
+ *     Spring Data 会按 "片段接口名 + Impl" 的约定找到它的实现类（CatOrderBatchRepositoryImpl），
+ *     并将其方法合并到继承了这个片段接口的 CatOrderRepository 中。
+ */
+public interface CatOrderBatchRepository {
+
+    CatOrder saveBatched(CatOrder catOrder);
+
+    List<CatOrder> saveAllBatched(List<CatOrder> catOrders);
+
+}
@@ -0,0 +1,119 @@
+package com.example.demo.repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.domain.Cat;
+import com.example.demo.domain.CatOrder;
+import com.example.demo.domain.Ingredient;
+
+/**
+ * CatOrderBatchRepository 的实现
+ *
+ * 注：
+ *     与 JdbcCatOrderRepository（已注释掉）中每个订单、每个 Cat、每个配料各执行一次 update 不同，
+ *     这里先用 SequenceBlockAllocator 为所有订单和 Cat 预先分配主键，
+ *     再对 Cat_Order、Cat、Cat_Order_Cat、Cat_Ingredient 四张表各执行一次批量插入（batchUpdate）。
+ *     插入后发布 CatOrdersSavedEvent，以便在事务提交后更新配料的统计等。
+ */
+public class CatOrderBatchRepositoryImpl implements CatOrderBatchRepository {
+
+    private final JdbcOperations jdbcOperations;
+    private final SequenceBlockAllocator sequenceBlockAllocator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public CatOrderBatchRepositoryImpl(
+        JdbcOperations jdbcOperations,
+        SequenceBlockAllocator sequenceBlockAllocator,
+        ApplicationEventPublisher eventPublisher
+    ) {
+        this.jdbcOperations = jdbcOperations;
+        this.sequenceBlockAllocator = sequenceBlockAllocator;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    @Transactional
+    public CatOrder saveBatched(CatOrder catOrder) {
+        saveAllBatched(Collections.singletonList(catOrder));
+        return catOrder;
+    }
+
+    @Override
+    @Transactional
+    public List<CatOrder> saveAllBatched(List<CatOrder> catOrders) {
+        int catCount = 0;
+        for (CatOrder catOrder : catOrders) {
+            catCount += catOrder.getCats().size();
+        }
+        // 一次性为所有订单和 Cat 分配连续的主键
+        long nextId = sequenceBlockAllocator.nextIds(catOrders.size() + catCount);
+
+        List<Object[]> orderRows = new ArrayList<>(catOrders.size());
+        List<Object[]> catRows = new ArrayList<>(catCount);
+        List<Object[]> orderCatRows = new ArrayList<>(catCount);
+        List<Object[]> catIngredientRows = new ArrayList<>();
+
+        for (CatOrder catOrder : catOrders) {
+            long catOrderId = nextId++;
+            catOrder.setId(catOrderId);
+            catOrder.setVersion(1L);  // 与 EclipseLink 插入时的初始版本号一致
+            if (catOrder.getPlacedAt() == null) {
+                catOrder.setPlacedAt(new Date());
+            }
+            orderRows.add(new Object[] {
+                catOrderId,
+                catOrder.getVersion(),
+                new Timestamp(catOrder.getPlacedAt().getTime()),
+                catOrder.getDeliveryName(),
+                catOrder.getDeliveryStreet(),
+                catOrder.getDeliveryCity(),
+                catOrder.getDeliveryState(),
+                catOrder.getDeliveryZip(),
+                catOrder.getCcNumber(),
+                catOrder.getCcExpiration(),
+                catOrder.getCcCVV(),
+                catOrder.getUser() == null ? null : catOrder.getUser().getId()
+            });
+            for (Cat cat : catOrder.getCats()) {
+                long catId = nextId++;
+                cat.setId(catId);
+                if (cat.getCreatedAt() == null) {
+                    cat.setCreatedAt(new Date());
+                }
+                catRows.add(new Object[] { catId, new Timestamp(cat.getCreatedAt().getTime()), cat.getName() });
+                orderCatRows.add(new Object[] { catOrderId, catId });
+                if (cat.getIngredients() != null) {
+                    for (Ingredient ingredient : cat.getIngredients()) {
+                        catIngredientRows.add(new Object[] { catId, ingredient.getId() });
+                    }
+                }
+            }
+        }
+
+        // 注：需先插入被外键引用的 Cat_Order 和 Cat，再插入两张关联表
+        jdbcOperations.batchUpdate(
+            "INSERT INTO Cat_Order (id, version, placedAt, deliveryName, deliveryStreet, deliveryCity, "
+            + "deliveryState, deliveryZip, ccNumber, ccExpiration, ccCVV, user_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+            orderRows
+        );
+        if (!catRows.isEmpty()) {
+            jdbcOperations.batchUpdate("INSERT INTO Cat (id, createdAt, name) VALUES (?, ?, ?)", catRows);
+            jdbcOperations.batchUpdate("INSERT INTO Cat_Order_Cat (cat_order_id, cat_id) VALUES (?, ?)", orderCatRows);
+        }
+        if (!catIngredientRows.isEmpty()) {
+            jdbcOperations.batchUpdate("INSERT INTO Cat_Ingredient (cat_id, ingredient_id) VALUES (?, ?)", catIngredientRows);
+        }
+        eventPublisher.publishEvent(new CatOrdersSavedEvent(catOrders));
+        return catOrders;
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.example.demo.repository;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * CatOrderRepository 的自定义片段（fragment），
+ * 用一条 UPDATE 语句只修改订单中发生变化的列，并以 version 列做乐观锁检查。
+ */
+public interface CatOrderPatchRepository {
+
+    /**
+     * 执行 UPDATE Cat_Order SET <changes 中的列>, version = version + 1 WHERE id = ? AND version = ?
+     * @param changes 列名（即 CatOrder 的字段名，见 CatOrderMergePatch.PATCHABLE_FIELDS）到新值的映射
+     * @return 更新后的版本号，订单不存在时为 empty
+     * @throws org.springframework.dao.OptimisticLockingFailureException 订单存在但版本号不是 expectedVersion（已被其他人修改）
+     */
+    Optional<Long> patch(Long id, long expectedVersion, Map<String, String> changes);
+
+}
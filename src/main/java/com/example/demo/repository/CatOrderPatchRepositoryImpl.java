@@ -0,0 +1,76 @@
+package com.example.demo.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.demo.domain.CatOrder;
+import com.example.demo.vo.CatOrderMergePatch;
+
+/**
+ * CatOrderPatchRepository 的实现
+ *
+ * 注：
+ *     与先 findById() 加载订单、复制非空字段、再 save() 合并整个实体（UPDATE 全部列）不同，
+ *     这里不加载订单，直接执行一条只含变化列的 UPDATE，并以 "WHERE version = ?" 代替 EclipseLink 的乐观锁检查：
+ *     修改不同字段的并发请求各自只更新自己的列，只有版本号过期的请求才会失败。
+ *     只有更新失败时才再查询一次版本号，以区分订单不存在（404）和版本号不匹配（412）。
+ *     由于绕过了 EclipseLink，提交后需要将该订单从共享缓存中淘汰，否则之后的 findById() 可能读到旧的订单。
+ */
+public class CatOrderPatchRepositoryImpl implements CatOrderPatchRepository {
+
+    private final JdbcOperations jdbcOperations;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public CatOrderPatchRepositoryImpl(JdbcOperations jdbcOperations, EntityManagerFactory entityManagerFactory) {
+        this.jdbcOperations = jdbcOperations;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    @Transactional
+    public Optional<Long> patch(Long id, long expectedVersion, Map<String, String> changes) {
+        if (changes.isEmpty()) {
+            throw new IllegalArgumentException("Nothing to patch");
+        }
+        StringBuilder sql = new StringBuilder("UPDATE Cat_Order SET ");
+        List<Object> args = new ArrayList<>(changes.size() + 2);
+        for (Map.Entry<String, String> change : changes.entrySet()) {
+            // 注：列名只能来自白名单，不能直接拼接请求中的字段名
+            if (!CatOrderMergePatch.PATCHABLE_FIELDS.contains(change.getKey())) {
+                throw new IllegalArgumentException("Column '" + change.getKey() + "' cannot be patched");
+            }
+            sql.append(change.getKey()).append(" = ?, ");
+            args.add(change.getValue());
+        }
+        sql.append("version = version + 1 WHERE id = ? AND version = ?");
+        args.add(id);
+        args.add(expectedVersion);
+
+        if (jdbcOperations.update(sql.toString(), args.toArray()) == 0) {
+            List<Long> current = jdbcOperations.queryForList("SELECT version FROM Cat_Order WHERE id = ?", Long.class, id);
+            if (current.isEmpty()) {
+                return Optional.empty();
+            }
+            throw new OptimisticLockingFailureException(
+                "Order " + id + " is at version " + current.get(0) + ", not " + expectedVersion);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                entityManagerFactory.getCache().evict(CatOrder.class, id);
+            }
+        });
+        return Optional.of(expectedVersion + 1);
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.example.demo.repository;
+
+import java.util.Date;
+
+import lombok.Data;
+
+/**
+ * CatOrderRepository 的自定义片段（fragment），
+ * 按订单 id 的区间分块、用集合式的 DELETE 语句删除订单及其级联的 Cat（见 OrderPurgeService）。
+ */
+public interface CatOrderPurgeRepository {
+
+    /**
+     * 找到 afterId 之后（按 id 升序）第 chunkSize 个（不足时为最后一个）要删除的订单的 id，作为下一块的上界
+     * @param placedBefore 只删除在此之前下的订单，为 null 时删除全部订单
+     * @return 没有要删除的订单时为 null
+     */
+    Long findChunkEnd(long afterId, Date placedBefore, int chunkSize);
+
+    /**
+     * 在一个事务中删除 id 在 (afterId, upToId] 区间内的订单，依次删除 Cat_Ingredient、Cat_Order_Cat、Cat、Cat_Order 中的相关行
+     * 注：要删除的订单 id 在事务开始时选出并锁住（SELECT ... FOR UPDATE），之后才提交的、id 在区间内的订单不在这一块中
+     * @param placedBefore 同 findChunkEnd
+     */
+    PurgedRows purgeRange(long afterId, long upToId, Date placedBefore);
+
+    @Data
+    class PurgedRows {
+
+        private final int orders;
+        private final int cats;
+
+    }
+
+}
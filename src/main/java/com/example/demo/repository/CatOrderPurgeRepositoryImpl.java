@@ -0,0 +1,122 @@
+package com.example.demo.repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.demo.domain.Cat;
+import com.example.demo.domain.CatOrder;
+
+/**
+ * CatOrderPurgeRepository 的实现
+ *
+ * 注：
+ *     与 catOrderRepository.deleteAll() 先加载全部订单、再由 EclipseLink 逐个级联删除不同，
+ *     这里每一块只执行几条 DELETE ... WHERE ... IN (...) 语句，内存中最多只有一块订单的订单 id 和 Cat id。
+ *     每块在事务开始时用 SELECT ... FOR UPDATE 一次性选出（并锁住）这一块的订单 id，之后的语句都只针对这份固定的 id 列表：
+ *     订单 id 来自预先分配的 SEQ_GEN 号段（见 SequenceBlockAllocator），id 落在 (afterId, upToId] 区间内的新订单
+ *     可能在这一块的几条语句之间提交，若每条语句都重新执行区间子查询，后面的语句会看到前面的语句没有看到的订单，
+ *     导致删除 Cat、Cat_Order 时违反外键而整块失败，或者只删除了 Cat_Order_Cat 而留下孤立的 Cat。
+ *     Cat 被 Cat_Order_Cat 和 Cat_Ingredient 外键引用，因此先记下 Cat 的 id，依次删除 Cat_Ingredient、Cat_Order_Cat，
+ *     最后删除 Cat 和 Cat_Order。
+ *     由于绕过了 EclipseLink，提交后需要将 CatOrder 和 Cat 从共享缓存中淘汰，并发布 CatsDeletedEvent。
+ */
+public class CatOrderPurgeRepositoryImpl implements CatOrderPurgeRepository {
+
+    private static final int MAX_IN_LIST = 1000;  // 每条 ... WHERE id IN (...) 语句最多的参数个数
+
+    private final JdbcOperations jdbcOperations;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public CatOrderPurgeRepositoryImpl(
+        JdbcOperations jdbcOperations,
+        EntityManagerFactory entityManagerFactory,
+        ApplicationEventPublisher eventPublisher
+    ) {
+        this.jdbcOperations = jdbcOperations;
+        this.entityManagerFactory = entityManagerFactory;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public Long findChunkEnd(long afterId, Date placedBefore, int chunkSize) {
+        List<Object> args = new ArrayList<>();
+        String orders = ordersInRange(args, afterId, null, placedBefore);
+        args.add(chunkSize);
+        return jdbcOperations.queryForObject(
+            "SELECT MAX(id) FROM (" + orders + " ORDER BY id LIMIT ?)", Long.class, args.toArray());
+    }
+
+    @Override
+    @Transactional
+    public PurgedRows purgeRange(long afterId, long upToId, Date placedBefore) {
+        List<Object> args = new ArrayList<>();
+        String orders = ordersInRange(args, afterId, upToId, placedBefore);
+        List<Long> orderIds = jdbcOperations.queryForList(orders + " ORDER BY id FOR UPDATE", Long.class, args.toArray());
+        if (orderIds.isEmpty()) {
+            return new PurgedRows(0, 0);
+        }
+
+        List<Long> catIds = new ArrayList<>();
+        forEachBatch(orderIds, (in, batch) -> catIds.addAll(jdbcOperations.queryForList(
+            "SELECT cat_id FROM Cat_Order_Cat WHERE cat_order_id IN (" + in + ")", Long.class, batch)));
+        forEachBatch(catIds, (in, batch) -> jdbcOperations.update("DELETE FROM Cat_Ingredient WHERE cat_id IN (" + in + ")", batch));
+        forEachBatch(orderIds, (in, batch) -> jdbcOperations.update("DELETE FROM Cat_Order_Cat WHERE cat_order_id IN (" + in + ")", batch));
+        forEachBatch(catIds, (in, batch) -> jdbcOperations.update("DELETE FROM Cat WHERE id IN (" + in + ")", batch));
+        int[] deletedOrders = {0};
+        forEachBatch(orderIds, (in, batch) ->
+            deletedOrders[0] += jdbcOperations.update("DELETE FROM Cat_Order WHERE id IN (" + in + ")", batch));
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                entityManagerFactory.getCache().evict(CatOrder.class);
+                entityManagerFactory.getCache().evict(Cat.class);
+            }
+        });
+        if (!catIds.isEmpty()) {
+            eventPublisher.publishEvent(new CatsDeletedEvent(catIds));
+        }
+        return new PurgedRows(deletedOrders[0], catIds.size());
+    }
+
+    /**
+     * 把 ids 按 MAX_IN_LIST 分批，以每批的占位符列表（"?, ?, ..."）和参数调用 statement
+     */
+    private static void forEachBatch(List<Long> ids, BiConsumer<String, Object[]> statement) {
+        for (int from = 0; from < ids.size(); from += MAX_IN_LIST) {
+            List<Long> batch = ids.subList(from, Math.min(from + MAX_IN_LIST, ids.size()));
+            statement.accept(String.join(", ", Collections.nCopies(batch.size(), "?")), batch.toArray());
+        }
+    }
+
+    /**
+     * 选出 id 在 (afterId, upToId] 区间内、且在 placedBefore 之前下的订单 id 的子查询，参数追加到 args 中
+     */
+    private static String ordersInRange(List<Object> args, long afterId, Long upToId, Date placedBefore) {
+        StringBuilder sql = new StringBuilder("SELECT id FROM Cat_Order WHERE id > ?");
+        args.add(afterId);
+        if (upToId != null) {
+            sql.append(" AND id <= ?");
+            args.add(upToId);
+        }
+        if (placedBefore != null) {
+            sql.append(" AND placedAt < ?");
+            args.add(new Timestamp(placedBefore.getTime()));
+        }
+        return sql.toString();
+    }
+
+}
@@ -1,12 +1,21 @@
 package com.example.demo.repository;
 
+import static org.eclipse.persistence.config.QueryHints.BATCH;
+import static org.eclipse.persistence.config.QueryHints.BATCH_TYPE;
+import static org.eclipse.persistence.config.QueryHints.LEFT_FETCH;
+
 import java.util.Optional;
 
+import javax.persistence.QueryHint;
+
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 import com.example.demo.domain.CatOrder;
 
-public interface CatOrderRepository extends CrudRepository<CatOrder, Long> {
+public interface CatOrderRepository extends CrudRepository<CatOrder, Long>, CatOrderBatchRepository, CatOrderPatchRepository, CatOrderPurgeRepository {
 
     /* 
         因为所继承的 CrudRepository 接口已定义常见的 findAll、findById、save 等操作，
@@ -18,4 +27,16 @@ public interface CatOrderRepository extends CrudRepository<CatOrder, Long> {
     CatOrder save(CatOrder order);
     */
 
+    // 覆盖 CrudRepository 的 findById：一条查询 LEFT JOIN FETCH 订单的 cats，再用一条 IN (...) 查询批量加载这些 cats 的 ingredients
+    @Query("select o from Cat_Order o where o.id = :id")
+    @QueryHints({
+        @QueryHint(name = LEFT_FETCH, value = "o.cats"),
+        @QueryHint(name = BATCH, value = "o.cats.ingredients"),
+        @QueryHint(name = BATCH_TYPE, value = "IN")
+    })
+    Optional<CatOrder> findById(@Param("id") Long id);
+
+    // 注：saveBatched、saveAllBatched 来自自定义片段 CatOrderBatchRepository，
+    //     由 CatOrderBatchRepositoryImpl 以 JDBC 批量插入的方式实现。
+
 }
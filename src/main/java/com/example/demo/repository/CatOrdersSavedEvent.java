@@ -0,0 +1,18 @@
+package com.example.demo.repository;
+
+import java.util.List;
+
+import lombok.Data;
+
+import com.example.demo.domain.CatOrder;
+
+/**
+ * 订单被批量插入（见 CatOrderBatchRepository）时发布的事件，
+ * 监听者可以用 @TransactionalEventListener 在事务提交后再处理（例如 IngredientStatistics 更新配料的统计）。
+ */
+@Data
+public class CatOrdersSavedEvent {
+
+    private final List<CatOrder> catOrders;
+
+}
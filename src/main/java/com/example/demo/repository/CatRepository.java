@@ -1,14 +1,66 @@
 package com.example.demo.repository;
 
+import static org.eclipse.persistence.config.QueryHints.BATCH;
+import static org.eclipse.persistence.config.QueryHints.BATCH_TYPE;
+import static org.eclipse.persistence.config.QueryHints.LEFT_FETCH;
+
+import java.util.Date;
+import java.util.Optional;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.demo.domain.Cat;
 
-public interface CatRepository extends PagingAndSortingRepository<Cat, Long> {
+// 注：接口上声明的查询方法（派生查询和 @Query）不会继承 SimpleJpaRepository 的 @Transactional(readOnly = true)，
+//     不加这个注解时它们不在事务中执行，启用读写分离时也就发往主库（见 ReadWriteRoutingDataSource）；
+//     save 等继承自 CrudRepository 的方法仍使用 SimpleJpaRepository 上各自的事务配置。
+@Transactional(readOnly = true)
+public interface CatRepository extends PagingAndSortingRepository<Cat, Long>, CatBatchRepository, CatSearchRepository {
 
     // 注：需使用 PagingAndSortingRepository 以便支持分页的 findAll，
     //     它 继承了 CrudRepository 并覆写了 findAll 方法以便支持分页。
     //     如果使用 CrudRepository 那么 findAll(pageReqeust) 时会报错。
-    
+
+    // 注：以下两个方法用于 keyset（seek）分页，即按 (createdAt, id) 倒序，从上一页最后一条记录之后继续取，
+    //     而不是像 findAll(pageRequest) 那样用 OFFSET 跳过前面所有页的记录。
+    //     返回 Slice 而不是 Page，因此只会多取一条记录来判断是否还有下一页，不会再执行一次 count 查询。
+
+    // 注：各查询方法通过 EclipseLink 的查询提示（hint）各自选择 ingredients 的加载方式（fetch plan），
+    //     使每个读接口执行的 SQL 语句数固定，而不随返回的 Cat 数量增长：
+    //       - 分页查询使用 BATCH + IN：先查出一页 Cat，再用一条 IN (...) 查询加载这一页所有 Cat 的 ingredients，
+    //         不使用 JOIN FETCH 是因为连接后的行数不等于 Cat 的个数，分页的 LIMIT 就不准确了；
+    //       - 按 id 查询单个 Cat 使用 LEFT JOIN FETCH：一条查询同时取回 Cat 及其 ingredients。
+
+    // 第一页
+    @QueryHints({
+        @QueryHint(name = BATCH, value = "c.ingredients"),
+        @QueryHint(name = BATCH_TYPE, value = "IN")
+    })
+    Slice<Cat> findAllByOrderByCreatedAtDescIdDesc(Pageable pageable);
+
+    // 上一页最后一条记录（createdAt, id）之后的一页
+    // 注：c.createdAt <= :createdAt 这一冗余条件是为了让数据库能够直接在 (createdAt, id) 索引上定位起点
+    @Query("select c from Cat c where c.createdAt <= :createdAt and (c.createdAt < :createdAt or c.id < :id) "
+         + "order by c.createdAt desc, c.id desc")
+    @QueryHints({
+        @QueryHint(name = BATCH, value = "c.ingredients"),
+        @QueryHint(name = BATCH_TYPE, value = "IN")
+    })
+    Slice<Cat> findRecentBefore(@Param("createdAt") Date createdAt, @Param("id") Long id, Pageable pageable);
+
+    // 覆盖 CrudRepository 的 findById，以便加上 @Query 和查询提示
+    // 注：加了 @Query 注解的方法，即使与 CrudRepository 中的方法同名，Spring Data 也会按该注解的查询来实现它
+    @Query("select c from Cat c where c.id = :id")
+    @QueryHints(@QueryHint(name = LEFT_FETCH, value = "c.ingredients"))
+    Optional<Cat> findById(@Param("id") Long id);
+
 }
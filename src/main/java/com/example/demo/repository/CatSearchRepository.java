@@ -0,0 +1,22 @@
+package com.example.demo.repository;
+
+import java.util.List;
+
+import com.example.demo.vo.CatIngredientQuery;
+
+/**
+ * 按配料组成查询 Cat 的 SQL 实现，每个配料条件对 Cat_Ingredient 执行一次 EXISTS 子查询
+ *
+ * 注：GET /api/cats/search 平时由内存中的 CatIngredientIndex 回答，只有索引不可用时才回退到这里。
+ */
+public interface CatSearchRepository {
+
+    /**
+     * 满足条件的 Cat 的 id，按 id 倒序，最多 limit 个
+     * @param before 只返回 id 小于它的 Cat，为 null 时从最大的 id 开始
+     */
+    List<Long> findIdsByIngredients(CatIngredientQuery query, Long before, int limit);
+
+    long countByIngredients(CatIngredientQuery query);
+
+}
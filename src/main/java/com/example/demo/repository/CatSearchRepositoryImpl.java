@@ -0,0 +1,65 @@
+package com.example.demo.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.jdbc.core.JdbcOperations;
+
+import com.example.demo.vo.CatIngredientQuery;
+
+/**
+ * CatSearchRepository 的实现
+ */
+public class CatSearchRepositoryImpl implements CatSearchRepository {
+
+    private final JdbcOperations jdbcOperations;
+
+    public CatSearchRepositoryImpl(JdbcOperations jdbcOperations) {
+        this.jdbcOperations = jdbcOperations;
+    }
+
+    @Override
+    public List<Long> findIdsByIngredients(CatIngredientQuery query, Long before, int limit) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT c.id FROM Cat c WHERE ").append(conditions(query, args));
+        if (before != null) {
+            sql.append(" AND c.id < ?");
+            args.add(before);
+        }
+        sql.append(" ORDER BY c.id DESC LIMIT ?");
+        args.add(limit);
+        return jdbcOperations.queryForList(sql.toString(), Long.class, args.toArray());
+    }
+
+    @Override
+    public long countByIngredients(CatIngredientQuery query) {
+        List<Object> args = new ArrayList<>();
+        return jdbcOperations.queryForObject(
+            "SELECT COUNT(*) FROM Cat c WHERE " + conditions(query, args), Long.class, args.toArray());
+    }
+
+    private static String conditions(CatIngredientQuery query, List<Object> args) {
+        List<String> conditions = new ArrayList<>();
+        conditions.add("1 = 1");
+        for (String id : query.getWith()) {
+            conditions.add("EXISTS (SELECT 1 FROM Cat_Ingredient ci WHERE ci.cat_id = c.id AND ci.ingredient_id = ?)");
+            args.add(id);
+        }
+        if (!query.getAny().isEmpty()) {
+            conditions.add("EXISTS (SELECT 1 FROM Cat_Ingredient ci WHERE ci.cat_id = c.id AND ci.ingredient_id IN (" + placeholders(query.getAny()) + "))");
+            args.addAll(query.getAny());
+        }
+        if (!query.getWithout().isEmpty()) {
+            conditions.add("NOT EXISTS (SELECT 1 FROM Cat_Ingredient ci WHERE ci.cat_id = c.id AND ci.ingredient_id IN (" + placeholders(query.getWithout()) + "))");
+            args.addAll(query.getWithout());
+        }
+        return String.join(" AND ", conditions);
+    }
+
+    private static String placeholders(Set<String> ids) {
+        return String.join(", ", Collections.nCopies(ids.size(), "?"));
+    }
+
+}
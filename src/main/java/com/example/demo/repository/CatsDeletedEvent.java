@@ -0,0 +1,15 @@
+package com.example.demo.repository;
+
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * Cat 被绕过 EclipseLink 删除（见 CatOrderPurgeRepository）时发布的事件，只带有被删除的 Cat 的 id
+ */
+@Data
+public class CatsDeletedEvent {
+
+    private final List<Long> catIds;
+
+}
@@ -0,0 +1,20 @@
+package com.example.demo.repository;
+
+import java.util.List;
+
+import lombok.Data;
+
+import com.example.demo.domain.Cat;
+
+/**
+ * Cat 被保存（catRepository.save() 见 Cat.domainEvents()，或批量插入见 CatBatchRepository）时发布的事件，
+ * 监听者可以用 @TransactionalEventListener 在事务提交后再处理（例如 CatIngredientIndex 更新索引）。
+ * inserted 为 true 表示这些 Cat 都是新插入的，为 false 表示其中可能有修改了已有的 Cat（例如 ETag 需要失效，见 RepresentationVersions）。
+ */
+@Data
+public class CatsSavedEvent {
+
+    private final List<Cat> cats;
+    private final boolean inserted;
+
+}
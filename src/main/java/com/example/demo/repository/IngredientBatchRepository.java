@@ -0,0 +1,15 @@
+package com.example.demo.repository;
+
+import java.util.List;
+
+import com.example.demo.domain.Ingredient;
+
+/**
+ * IngredientRepository 的自定义片段（fragment），
+ * 用 JDBC 批量插入的方式一次性持久化多个配料（用于批量导入，见 BulkImportService）。
+ */
+public interface IngredientBatchRepository {
+
+    List<Ingredient> saveAllBatched(List<Ingredient> ingredients);
+
+}
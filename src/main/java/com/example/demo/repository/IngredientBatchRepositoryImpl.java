@@ -0,0 +1,36 @@
+package com.example.demo.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.domain.Ingredient;
+
+/**
+ * IngredientBatchRepository 的实现
+ *
+ * 注：与 IngredientRepository.saveAll() 经由 EclipseLink 逐个插入（且会先逐个查询是否已存在）不同，
+ *     这里只执行一次批量插入（batchUpdate），已存在的 id 会因主键冲突而使整批失败。
+ */
+public class IngredientBatchRepositoryImpl implements IngredientBatchRepository {
+
+    private final JdbcOperations jdbcOperations;
+
+    public IngredientBatchRepositoryImpl(JdbcOperations jdbcOperations) {
+        this.jdbcOperations = jdbcOperations;
+    }
+
+    @Override
+    @Transactional
+    public List<Ingredient> saveAllBatched(List<Ingredient> ingredients) {
+        List<Object[]> rows = new ArrayList<>(ingredients.size());
+        for (Ingredient ingredient : ingredients) {
+            rows.add(new Object[] { ingredient.getId(), ingredient.getName(), ingredient.getType().name() });
+        }
+        jdbcOperations.batchUpdate("INSERT INTO Ingredient (id, name, type) VALUES (?, ?, ?)", rows);
+        return ingredients;
+    }
+
+}
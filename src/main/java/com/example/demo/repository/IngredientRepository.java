@@ -18,7 +18,7 @@ import com.example.demo.domain.Ingredient;
  *     这个接口的实现类可以基于 JDBC、JdbcTemplate、JPA、MyBatis(Plus) 等技术或框架来实现。
  *     例如：JdbcIngredientRepository 类就是基于 JdbcTemplate 技术来实现的。
  */
-public interface IngredientRepository extends CrudRepository<Ingredient, String> {
+public interface IngredientRepository extends CrudRepository<Ingredient, String>, IngredientBatchRepository {
 
     /* 
         因为所继承的 CrudRepository 接口已定义常见的 findAll、findById、save 等操作，
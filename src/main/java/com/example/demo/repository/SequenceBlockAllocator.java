@@ -0,0 +1,78 @@
+package com.example.demo.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 主键号段分配器：一次从序列表中预取一段（block）主键，之后在内存中逐个分配，
+ * 从而代替每插入一行就通过 GeneratedKeyHolder 取回一次自增主键的方式。
+ *
+ * 注：
+ *     实体的 @GeneratedValue(strategy=GenerationType.AUTO) 在 EclipseLink 下使用的是表序列（TABLE），
+ *     即 SEQUENCE 表中 SEQ_NAME = 'SEQ_GEN' 的那一行，EclipseLink 自己也是以"先加 allocationSize，再读回"的方式预取号段的。
+ *     这里使用同一行、同样的方式预取，因此分到的号段与 EclipseLink 分到的号段不会重叠。
+ */
+@Component
+public class SequenceBlockAllocator {
+
+    private static final String SEQUENCE_NAME = "SEQ_GEN";
+
+    private final JdbcOperations jdbcOperations;
+    private final TransactionTemplate requiresNew;
+    private final int blockSize;
+
+    private long next;  // 下一个可分配的主键
+    private long max;   // 当前号段中最后一个可分配的主键
+
+    public SequenceBlockAllocator(
+        JdbcOperations jdbcOperations,
+        PlatformTransactionManager transactionManager,
+        @Value("${catcloud.sequence.block-size:500}") int blockSize
+    ) {
+        this.jdbcOperations = jdbcOperations;
+        // 号段的预取在独立的事务中完成并立即提交，避免长时间锁住序列表的这一行，也避免外层事务回滚后号段被重复分配
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+    }
+
+    public synchronized long nextId() {
+        if (next == 0 || next > max) {
+            allocateBlock(blockSize);
+        }
+        return next++;
+    }
+
+    /**
+     * 一次分配 count 个连续的主键，返回其中的第一个
+     */
+    public synchronized long nextIds(int count) {
+        if (next == 0 || max - next + 1 < count) {
+            allocateBlock(Math.max(count, blockSize));
+        }
+        long first = next;
+        next += count;
+        return first;
+    }
+
+    private void allocateBlock(int size) {
+        Long count = requiresNew.execute(status -> {
+            jdbcOperations.update(
+                "UPDATE SEQUENCE SET SEQ_COUNT = SEQ_COUNT + ? WHERE SEQ_NAME = ?",
+                size, SEQUENCE_NAME
+            );
+            return jdbcOperations.queryForObject(
+                "SELECT SEQ_COUNT FROM SEQUENCE WHERE SEQ_NAME = ?",
+                Long.class, SEQUENCE_NAME
+            );
+        });
+        // 与 EclipseLink 的约定一致：读回的值是本号段的最后一个主键
+        max = count;
+        next = count - size + 1;
+    }
+
+}
@@ -1,11 +1,21 @@
 package com.example.demo.repository;
 
+import static org.eclipse.persistence.config.QueryHints.QUERY_TYPE;
+
+import javax.persistence.QueryHint;
+
+import org.eclipse.persistence.config.QueryType;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 
 import com.example.demo.domain.User;
 
 public interface UserRepository extends CrudRepository<User, Long> {
 
+    // 注：以 ReadObject 查询（而不是默认的 ReadAll 查询）执行，
+    //     这样 EclipseLink 会先在共享缓存中按 username 的缓存索引查找（见 application.yml 中 catcloud.jpa.cache.entities.User.index），
+    //     命中时无需访问数据库。
+    @QueryHints(@QueryHint(name = QUERY_TYPE, value = QueryType.ReadObject))
     User findByUsername(String username);
 
 }
@@ -0,0 +1,334 @@
+package com.example.demo.service;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import lombok.extern.slf4j.Slf4j;
+import com.example.demo.domain.Cat;
+import com.example.demo.domain.Ingredient;
+import com.example.demo.repository.CatRepository;
+import com.example.demo.repository.IngredientRepository;
+import com.example.demo.vo.BulkImportReport;
+
+/**
+ * 批量导入配料和 Cat
+ *
+ * 注：
+ *     输入是 NDJSON（每行一个 JSON 对象）或带表头的 CSV，逐行读取、解析并校验，
+ *     校验通过的行凑满一块（catcloud.bulk-import.chunk-size 行）后，用 JDBC 批量插入（见 IngredientBatchRepository、CatBatchRepository）
+ *     在一个事务中提交，然后再读取下一块，因此内存中最多只有一块的数据。
+ *     某一块提交失败（例如主键冲突）时只回滚这一块，不影响之前已提交的块，也会继续导入之后的块。
+ *     每个请求最多读取 catcloud.bulk-import.max-request-size 字节的请求体，超出时抛出 ResponseStatusException（应答 413）并停止导入，
+ *     之前已提交的块保留，与某一块提交失败时相同。
+ *
+ *     每行的格式：
+ *       - 配料：NDJSON 为 {"id":"FLTO","name":"Flour Tortilla","type":"WRAP"}，CSV 表头为 id,name,type；
+ *       - Cat：NDJSON 为 {"name":"...","ingredients":["FLTO","GRBF"]}，CSV 表头为 name,ingredients，
+ *         其中 ingredients 为以 | 分隔的配料 id，例如 FLTO|GRBF。
+ */
+@Slf4j
+@Service
+public class BulkImportService {
+
+    public enum Format {
+        NDJSON, CSV;
+
+        public static Format of(String contentType) {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            if (mediaType.isCompatibleWith(MediaType.parseMediaType("text/csv"))) {
+                return CSV;
+            }
+            return NDJSON;
+        }
+    }
+
+    private final IngredientRepository ingredientRepository;
+    private final CatRepository catRepository;
+    private final IngredientCatalog ingredientCatalog;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final long maxRequestSize;
+
+    public BulkImportService(
+        IngredientRepository ingredientRepository,
+        CatRepository catRepository,
+        IngredientCatalog ingredientCatalog,
+        Validator validator,
+        ObjectMapper objectMapper,
+        @Value("${catcloud.bulk-import.chunk-size:1000}") int chunkSize,
+        @Value("${catcloud.bulk-import.max-request-size:64MB}") DataSize maxRequestSize
+    ) {
+        this.ingredientRepository = ingredientRepository;
+        this.catRepository = catRepository;
+        this.ingredientCatalog = ingredientCatalog;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maxRequestSize = maxRequestSize.toBytes();
+    }
+
+    public BulkImportReport importIngredients(InputStream in, Format format) throws IOException {
+        BulkImportReport report = importRows(in, format, this::parseIngredient, ingredientRepository::saveAllBatched);
+        if (report.getImported() > 0) {
+            ingredientCatalog.reload();  // 批量插入绕过了 IngredientCatalog.save()，需手动刷新配料目录的快照
+        }
+        log.info("喵喵喵，Imported ingredients: imported={}, rejected={}, failed={}",
+            report.getImported(), report.getRejected(), report.getFailed());
+        return report;
+    }
+
+    public BulkImportReport importCats(InputStream in, Format format) throws IOException {
+        BulkImportReport report = importRows(in, format, this::parseCat, catRepository::saveAllBatched);
+        log.info("喵喵喵，Imported cats: imported={}, rejected={}, failed={}",
+            report.getImported(), report.getRejected(), report.getFailed());
+        return report;
+    }
+
+    /**
+     * 逐行读取、解析、校验，并按块提交
+     */
+    private <T> BulkImportReport importRows(
+        InputStream in, Format format, RowParser<T> parser, Consumer<List<T>> writer
+    ) throws IOException {
+        BulkImportReport report = new BulkImportReport();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new LimitedInputStream(in, maxRequestSize), StandardCharsets.UTF_8));
+        String[] header = null;
+        if (format == Format.CSV) {
+            String headerLine = reader.readLine();
+            if (headerLine == null) {
+                return report;
+            }
+            header = splitCsvLine(headerLine.trim());
+        }
+
+        int lineNumber = header == null ? 0 : 1;
+        List<T> rows = new ArrayList<>(chunkSize);
+        BulkImportReport.ChunkReport chunk = null;
+        int chunkRows = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            if (chunk == null) {
+                chunk = new BulkImportReport.ChunkReport(report.getChunks().size() + 1, lineNumber);
+            }
+            chunk.setLastRow(lineNumber);
+            try {
+                JsonNode node = header == null ? objectMapper.readTree(line) : csvToNode(header, line);
+                rows.add(parser.parse(node));
+            } catch (JsonProcessingException e) {
+                chunk.reject(lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+            } catch (IllegalArgumentException e) {
+                chunk.reject(lineNumber, e.getMessage());
+            }
+            if (++chunkRows == chunkSize) {
+                report.addChunk(commitChunk(chunk, rows, writer));
+                rows.clear();
+                chunk = null;
+                chunkRows = 0;
+            }
+        }
+        if (chunk != null) {
+            report.addChunk(commitChunk(chunk, rows, writer));
+        }
+        return report;
+    }
+
+    private <T> BulkImportReport.ChunkReport commitChunk(
+        BulkImportReport.ChunkReport chunk, List<T> rows, Consumer<List<T>> writer
+    ) {
+        if (rows.isEmpty()) {
+            chunk.setCommitted(true);
+            return chunk;
+        }
+        try {
+            writer.accept(rows);  // 注：批量插入的方法带有 @Transactional，每块在各自的事务中提交
+            chunk.setCommitted(true);
+            chunk.setImported(rows.size());
+        } catch (DataAccessException e) {
+            log.warn("喵喵喵，Bulk import chunk {} failed: {}", chunk.getChunk(), e.getMessage());
+            chunk.setCommitted(false);
+            chunk.setFailed(rows.size());
+            chunk.setError(e.getMostSpecificCause().getMessage());
+        }
+        return chunk;
+    }
+
+    private Ingredient parseIngredient(JsonNode node) {
+        String id = requiredText(node, "id");
+        String name = requiredText(node, "name");
+        String type = requiredText(node, "type");
+        try {
+            return new Ingredient(id, name, Ingredient.Type.valueOf(type.toUpperCase()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown ingredient type: " + type);
+        }
+    }
+
+    private Cat parseCat(JsonNode node) {
+        Cat cat = new Cat();
+        cat.setName(node.hasNonNull("name") ? node.get("name").asText() : null);
+
+        JsonNode ingredientsNode = node.get("ingredients");
+        if (ingredientsNode != null && !ingredientsNode.isNull()) {
+            List<String> ingredientIds = new ArrayList<>();
+            if (ingredientsNode.isTextual()) {  // CSV 中以 | 分隔的配料 id
+                for (String id : ingredientsNode.asText().split("\\|")) {
+                    if (!id.trim().isEmpty()) {
+                        ingredientIds.add(id.trim());
+                    }
+                }
+            } else {
+                for (JsonNode ingredientNode : ingredientsNode) {  // 配料 id，或带有 id 属性的配料对象
+                    ingredientIds.add(ingredientNode.isObject() ? requiredText(ingredientNode, "id") : ingredientNode.asText());
+                }
+            }
+            List<Ingredient> ingredients = new ArrayList<>(ingredientIds.size());
+            for (String id : ingredientIds) {
+                Ingredient ingredient = ingredientCatalog.snapshot().get(id);
+                if (ingredient == null) {
+                    throw new IllegalArgumentException("Unknown ingredient: " + id);
+                }
+                ingredients.add(ingredient);
+            }
+            cat.setIngredients(ingredients);
+        }
+
+        // 使用 Cat 上声明的 Bean Validation 约束（与 /design 表单提交时的校验相同）
+        Set<ConstraintViolation<Cat>> violations = validator.validate(cat);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<Cat> violation = violations.iterator().next();
+            throw new IllegalArgumentException(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        return cat;
+    }
+
+    private static String requiredText(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        if (value == null || value.isNull() || value.asText().trim().isEmpty()) {
+            throw new IllegalArgumentException("Missing " + field);
+        }
+        return value.asText().trim();
+    }
+
+    private ObjectNode csvToNode(String[] header, String line) {
+        String[] fields = splitCsvLine(line);
+        if (fields.length != header.length) {
+            throw new IllegalArgumentException("Expected " + header.length + " columns but got " + fields.length);
+        }
+        ObjectNode node = objectMapper.createObjectNode();
+        for (int i = 0; i < header.length; i++) {
+            node.put(header[i].trim(), fields[i]);
+        }
+        return node;
+    }
+
+    /**
+     * 拆分一行 CSV，支持以双引号包裹（含逗号的）字段，字段中的双引号以两个双引号转义
+     */
+    static String[] splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    /**
+     * 最多读取 limit 个字节的输入流，超出时抛出 413 的 ResponseStatusException
+     */
+    private static class LimitedInputStream extends FilterInputStream {
+
+        private final long limit;
+        private long count;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(int n) {
+            count += n;
+            if (count > limit) {
+                throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE/*413*/, "Request body exceeds " + limit + " bytes");
+            }
+        }
+
+    }
+
+    @FunctionalInterface
+    private interface RowParser<T> {
+
+        T parse(JsonNode node) throws JsonProcessingException;
+
+    }
+
+}
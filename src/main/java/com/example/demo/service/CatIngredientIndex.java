@@ -0,0 +1,306 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.rest.core.annotation.HandleAfterDelete;
+import org.springframework.data.rest.core.annotation.RepositoryEventHandler;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import com.example.demo.domain.Cat;
+import com.example.demo.domain.CatOrder;
+import com.example.demo.domain.Ingredient;
+import com.example.demo.repository.CatOrdersSavedEvent;
+import com.example.demo.repository.CatRepository;
+import com.example.demo.repository.CatsDeletedEvent;
+import com.example.demo.repository.CatsSavedEvent;
+import com.example.demo.vo.CatIngredientQuery;
+
+/**
+ * 配料到 Cat 的倒排索引：每个配料 id 对应一个包含它的 Cat 的 id 的压缩位图（Roaring Bitmap），
+ * 用于 GET /api/cats/search 按配料组成查询 Cat（with 求交集、any 求并集、without 求差集）。
+ *
+ * 注：
+ *     用 SQL 回答这类查询需要对每个配料条件各关联（或 EXISTS）一次 Cat_Ingredient（见 CatSearchRepository），
+ *     而位图的交、并、差是按 65536 个 id 一组成块计算的，与条件中的配料个数和 Cat 的总数都近似线性且常数很小，
+ *     id 连续的 Cat 在位图中还会被压缩成区间（runOptimize），索引占用的内存见 catcloud.cats.index.bytes 指标。
+ *     应用启动时从 Cat_Ingredient 全量构建，之后在 Cat 保存（CatsSavedEvent、CatOrdersSavedEvent）和删除（CatsDeletedEvent、
+ *     经由 Spring Data REST 删除）的事务提交后增量维护；位图不是线程安全的，查询持有读锁，修改持有写锁。
+ *     位图只能存放 32 位的 id，若出现超过 Integer.MAX_VALUE 的 Cat id，索引将停用，查询回退到 SQL。
+ */
+@Slf4j
+@Service
+@RepositoryEventHandler(Cat.class)  // 通过 Spring Data REST 导出的接口删除 Cat 时，也需要从索引中移除
+public class CatIngredientIndex {
+
+    private static final RoaringBitmap EMPTY = new RoaringBitmap();
+
+    private final JdbcOperations jdbcOperations;
+    private final CatRepository catRepository;
+
+    private final Map<String, RoaringBitmap> byIngredient = new HashMap<>();
+    private final RoaringBitmap all = new RoaringBitmap();  // 全部 Cat，用于只有 any 或 without 条件的查询
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;  // 构建完成之前（或停用之后）查询回退到 SQL
+
+    public CatIngredientIndex(JdbcOperations jdbcOperations, CatRepository catRepository, MeterRegistry meterRegistry) {
+        this.jdbcOperations = jdbcOperations;
+        this.catRepository = catRepository;
+        Gauge.builder("catcloud.cats.index.bytes", this, CatIngredientIndex::getSizeInBytes)
+            .description("Memory used by the ingredient bitmaps of the cat index")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder("catcloud.cats.index.cats", this, CatIngredientIndex::getCatCount)
+            .description("Number of cats in the ingredient index")
+            .register(meterRegistry);
+    }
+
+    /**
+     * 从 Cat 和 Cat_Ingredient 表重新构建整个索引
+     * 注：构建期间提交的 Cat 的事件会等待写锁，构建之后再加入索引，加入是幂等的，因此不会遗漏也不会重复。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            long started = System.currentTimeMillis();
+            ready = false;
+            byIngredient.clear();
+            all.clear();
+            boolean[] overflow = {false};
+            jdbcOperations.query("SELECT id FROM Cat", rs -> {
+                long id = rs.getLong(1);
+                if (id > Integer.MAX_VALUE) {
+                    overflow[0] = true;
+                } else {
+                    all.add((int) id);
+                }
+            });
+            jdbcOperations.query("SELECT cat_id, ingredient_id FROM Cat_Ingredient", rs -> {
+                long id = rs.getLong(1);
+                if (id <= Integer.MAX_VALUE) {
+                    bitmap(rs.getString(2)).add((int) id);
+                }
+            });
+            if (overflow[0]) {
+                disable();
+                return;
+            }
+            all.runOptimize();
+            byIngredient.values().forEach(RoaringBitmap::runOptimize);
+            ready = true;
+            log.info("喵喵喵，Cat ingredient index built: cats={}, ingredients={}, bytes={}, took={}ms",
+                all.getLongCardinality(), byIngredient.size(), sizeInBytes(), System.currentTimeMillis() - started);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 按配料组成查询 Cat 的 id，按 id 倒序，最多 limit 个，索引不可用时回退到 SQL
+     * @param before 只返回 id 小于它的 Cat（上一页的 nextBefore），为 null 时从最大的 id 开始
+     */
+    public Result search(CatIngredientQuery query, Long before, int limit) {
+        if (!ready) {
+            return new Result(catRepository.countByIngredients(query), catRepository.findIdsByIngredients(query, before, limit));
+        }
+        lock.readLock().lock();
+        try {
+            RoaringBitmap matched = match(query);
+            long total = matched.getLongCardinality();
+            if (before != null) {
+                matched.remove(Math.max(before, 0L), 0x1_0000_0000L);
+            }
+            List<Long> ids = new ArrayList<>(Math.min(limit, matched.getCardinality()));
+            IntIterator reverse = matched.getReverseIntIterator();
+            while (reverse.hasNext() && ids.size() < limit) {
+                ids.add((long) reverse.next());
+            }
+            return new Result(total, ids);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private RoaringBitmap match(CatIngredientQuery query) {
+        RoaringBitmap matched;
+        if (query.getWith().isEmpty()) {
+            matched = all.clone();
+        } else {
+            // 从最小的位图开始求交集，中间结果越早变小越好
+            List<RoaringBitmap> with = new ArrayList<>();
+            for (String id : query.getWith()) {
+                with.add(byIngredient.getOrDefault(id, EMPTY));
+            }
+            with.sort(Comparator.comparingInt(RoaringBitmap::getCardinality));
+            matched = with.get(0).clone();
+            for (int i = 1; i < with.size() && !matched.isEmpty(); i++) {
+                matched.and(with.get(i));
+            }
+        }
+        if (!query.getAny().isEmpty() && !matched.isEmpty()) {
+            List<RoaringBitmap> any = new ArrayList<>();
+            for (String id : query.getAny()) {
+                any.add(byIngredient.getOrDefault(id, EMPTY));
+            }
+            matched.and(FastAggregation.or(any.toArray(new RoaringBitmap[0])));
+        }
+        for (String id : query.getWithout()) {
+            if (matched.isEmpty()) {
+                break;
+            }
+            matched.andNot(byIngredient.getOrDefault(id, EMPTY));
+        }
+        return matched;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)  // 默认在事务提交之后（AFTER_COMMIT）才加入，回滚的 Cat 不加入
+    public void onCatsSaved(CatsSavedEvent event) {
+        add(event.getCats());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrdersSaved(CatOrdersSavedEvent event) {
+        List<Cat> cats = new ArrayList<>();
+        for (CatOrder catOrder : event.getCatOrders()) {
+            cats.addAll(catOrder.getCats());
+        }
+        add(cats);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatsDeleted(CatsDeletedEvent event) {
+        remove(event.getCatIds());
+    }
+
+    @HandleAfterDelete
+    public void onCatDeleted(Cat cat) {
+        remove(Collections.singletonList(cat.getId()));
+    }
+
+    /**
+     * 将新增或修改的 Cat 加入索引，修改时先从原来的配料中移除
+     */
+    public void add(Collection<Cat> cats) {
+        lock.writeLock().lock();
+        try {
+            if (!ready) {  // 还未构建（构建时会从表中读到它们）或已停用
+                return;
+            }
+            for (Cat cat : cats) {
+                if (cat.getId() == null) {
+                    continue;
+                }
+                if (cat.getId() > Integer.MAX_VALUE) {
+                    disable();
+                    return;
+                }
+                int id = cat.getId().intValue();
+                if (!all.checkedAdd(id)) {  // 已在索引中，即修改了配料
+                    byIngredient.values().forEach(bitmap -> bitmap.remove(id));
+                }
+                if (cat.getIngredients() != null) {
+                    for (Ingredient ingredient : cat.getIngredients()) {
+                        bitmap(ingredient.getId()).add(id);
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Collection<Long> catIds) {
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                return;
+            }
+            for (Long catId : catIds) {
+                if (catId == null || catId > Integer.MAX_VALUE) {
+                    continue;
+                }
+                int id = catId.intValue();
+                if (all.checkedRemove(id)) {
+                    byIngredient.values().forEach(bitmap -> bitmap.remove(id));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long getCatCount() {
+        lock.readLock().lock();
+        try {
+            return all.getLongCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 索引中全部位图占用的内存（字节）
+     */
+    public long getSizeInBytes() {
+        lock.readLock().lock();
+        try {
+            return sizeInBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long sizeInBytes() {
+        long bytes = all.getLongSizeInBytes();
+        for (RoaringBitmap bitmap : byIngredient.values()) {
+            bytes += bitmap.getLongSizeInBytes();
+        }
+        return bytes;
+    }
+
+    private RoaringBitmap bitmap(String ingredientId) {
+        return byIngredient.computeIfAbsent(ingredientId, id -> new RoaringBitmap());
+    }
+
+    private void disable() {
+        log.warn("喵喵喵，Cat ids exceed the 32-bit range, the ingredient index is disabled");
+        ready = false;
+        byIngredient.clear();
+        all.clear();
+    }
+
+    /**
+     * 一次查询的结果：满足条件的 Cat 总数，以及这一页的 Cat id（按 id 倒序）
+     */
+    @Data
+    public static class Result {
+
+        private final long total;
+        private final List<Long> ids;
+
+    }
+
+}
@@ -0,0 +1,250 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.rest.core.annotation.HandleAfterCreate;
+import org.springframework.data.rest.core.annotation.HandleAfterDelete;
+import org.springframework.data.rest.core.annotation.HandleAfterSave;
+import org.springframework.data.rest.core.annotation.RepositoryEventHandler;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+import com.example.demo.ReadWriteRoutingDataSource;
+import com.example.demo.domain.Ingredient;
+import com.example.demo.repository.IngredientRepository;
+
+/**
+ * 配料目录（Ingredient Catalog）：Ingredient 表在内存中的只读快照。
+ *
+ * 注：
+ *     Ingredient 表是读多写少的，而 /design 的每次提交都会按 id 逐个查询配料（见 IngredientByIdConverter），
+ *     因此这里将整张表一次性加载为一个不可变的快照（Snapshot），读取时无锁地直接从快照中获取；
+ *     当配料被新增、修改或删除时，重新加载一份新的快照并原子地替换旧快照（版本号加一）。
+ *     快照中找不到的 id 会回源到数据库查询一次（read-through），若数据库中确实存在，说明快照已过期，则重新加载。
+ *     Ingredient 是可变的（@Data）实体，快照在构造时把配料复制为只读的视图（ReadOnlyIngredient），之后所有请求共享这些视图，
+ *     调用方既不能修改快照中的集合，也不能修改其中的配料；只读视图不是实体类，EclipseLink 不能持久化它，
+ *     因此 findById()（其结果会被设置到 Cat 上，见 IngredientByIdConverter）返回该配料的一个副本。
+ */
+@Slf4j
+@Service
+@RepositoryEventHandler(Ingredient.class)  // 通过 Spring Data REST 导出的 /ingredients 接口修改配料时，也需要刷新快照
+public class IngredientCatalog {
+
+    private final IngredientRepository ingredientRepository;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong reloads = new AtomicLong();
+
+    public IngredientCatalog(IngredientRepository ingredientRepository) {
+        this.ingredientRepository = ingredientRepository;
+    }
+
+    /**
+     * 获取当前快照，首次访问时才从数据库加载
+     */
+    public Snapshot snapshot() {
+        Snapshot current = snapshot.get();
+        return current != null ? current : reload();
+    }
+
+    /**
+     * 按 id 查找配料，返回可以设置到 Cat 等实体上一起持久化的 Ingredient（快照中只读视图的副本，只复制这一个配料）
+     */
+    public Optional<Ingredient> findById(String id) {
+        Ingredient ingredient = snapshot().get(id);
+        if (ingredient != null) {
+            hits.incrementAndGet();
+            return Optional.of(new Ingredient(ingredient.getId(), ingredient.getName(), ingredient.getType()));
+        }
+        misses.incrementAndGet();
+        // 快照中没有时回源数据库，若数据库中存在则说明快照已过期，需要重新加载
+        Optional<Ingredient> fromDb = onPrimary(() -> ingredientRepository.findById(id));
+        if (fromDb.isPresent()) {
+            reload();
+        }
+        return fromDb;
+    }
+
+    public List<Ingredient> findAll() {
+        return snapshot().getIngredients();
+    }
+
+    public Ingredient save(Ingredient ingredient) {
+        Ingredient saved = ingredientRepository.save(ingredient);
+        reload();
+        return saved;
+    }
+
+    /**
+     * 删除配料，配料不存在时返回 false（不刷新快照）
+     */
+    public boolean deleteById(String id) {
+        try {
+            ingredientRepository.deleteById(id);
+        } catch (EmptyResultDataAccessException e) {  // Spring Data JPA 的 deleteById 在 id 不存在时抛出
+            return false;
+        }
+        reload();
+        return true;
+    }
+
+    /**
+     * 从数据库重新加载全部配料，构造新的快照并替换旧快照。
+     * 注：加 synchronized 是为了避免并发加载时较旧的快照覆盖较新的快照。
+     *     总是从主库加载：reload 通常紧跟在配料的写入之后，若读到只读副本中尚未复制过来的旧数据，
+     *     新版本号下就是旧内容，依赖版本号的 ETag（RepresentationVersions）和 /design 的片段缓存都会长期返回旧内容。
+     */
+    public synchronized Snapshot reload() {
+        List<Ingredient> ingredients = new ArrayList<>();
+        onPrimary(() -> ingredientRepository.findAll()).forEach(ingredients::add);
+        Snapshot previous = snapshot.get();
+        Snapshot next = new Snapshot(previous == null ? 1 : previous.getVersion() + 1, ingredients);
+        snapshot.set(next);
+        reloads.incrementAndGet();
+        log.info("喵喵喵，Ingredient catalog reloaded: version={}, size={}", next.getVersion(), ingredients.size());
+        return next;
+    }
+
+    // 在 ReadWriteRoutingDataSource.runOnPrimary() 中执行，未启用读写分离时与直接执行相同
+    private static <T> T onPrimary(Callable<T> query) {
+        try {
+            return ReadWriteRoutingDataSource.runOnPrimary(query);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @HandleAfterCreate
+    @HandleAfterSave
+    @HandleAfterDelete
+    public void onIngredientChanged(Ingredient ingredient) {
+        reload();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getReloads() {
+        return reloads.get();
+    }
+
+    /**
+     * 快照中配料的只读视图，修改时抛出 UnsupportedOperationException
+     * 注：它是 Ingredient 的子类，可以直接交给原来使用 Ingredient 的代码（序列化、模板渲染、按 id 写入 Cat_Ingredient 等），
+     *     equals/hashCode 与同样内容的 Ingredient 相同；但它不是实体类，不要把它交给 EntityManager 持久化或合并。
+     */
+    private static final class ReadOnlyIngredient extends Ingredient {
+
+        private static final long serialVersionUID = 1L;
+
+        private ReadOnlyIngredient(Ingredient ingredient) {
+            super(ingredient.getId(), ingredient.getName(), ingredient.getType());
+        }
+
+        @Override
+        public void setId(String id) {
+            throw new UnsupportedOperationException("Ingredient catalog snapshot is read-only");
+        }
+
+        @Override
+        public void setName(String name) {
+            throw new UnsupportedOperationException("Ingredient catalog snapshot is read-only");
+        }
+
+        @Override
+        public void setType(Type type) {
+            throw new UnsupportedOperationException("Ingredient catalog snapshot is read-only");
+        }
+
+    }
+
+    /**
+     * 配料目录的不可变快照
+     * 注：构造时把配料复制为只读视图，按 id 索引的 byId 和按类型分组的 byType 也在这时一次性算好，
+     *     每个快照版本只计算一次，各访问方法返回的都是这些不可修改的集合本身，所有请求共享，不再逐次复制。
+     */
+    public static final class Snapshot {
+
+        private final long version;
+        private final List<Ingredient> ingredients;
+        private final Map<String, Ingredient> byId;
+        private final Map<Ingredient.Type, List<Ingredient>> byType;
+
+        public Snapshot(long version, List<Ingredient> ingredients) {
+            this.version = version;
+            Map<String, Ingredient> byId = new LinkedHashMap<>();
+            Map<Ingredient.Type, List<Ingredient>> byType = new EnumMap<>(Ingredient.Type.class);
+            for (Ingredient.Type type : Ingredient.Type.values()) {
+                byType.put(type, new ArrayList<>());  // 没有配料的类型也保留一个空列表，与原来页面上的分组保持一致
+            }
+            List<Ingredient> valid = new ArrayList<>(ingredients.size());
+            for (Ingredient ingredient : ingredients) {
+                if (ingredient.getId() == null || ingredient.getType() == null) {
+                    // 例如直接写入数据库的、没有类型的行：跳过它，而不是让整个快照构造失败
+                    log.warn("喵喵喵，Skipping invalid ingredient in catalog snapshot: {}", ingredient);
+                    continue;
+                }
+                Ingredient copy = new ReadOnlyIngredient(ingredient);
+                valid.add(copy);
+                byId.put(copy.getId(), copy);
+                byType.get(copy.getType()).add(copy);
+            }
+            this.ingredients = Collections.unmodifiableList(valid);
+            for (Map.Entry<Ingredient.Type, List<Ingredient>> entry : byType.entrySet()) {
+                entry.setValue(Collections.unmodifiableList(entry.getValue()));
+            }
+            this.byId = Collections.unmodifiableMap(byId);
+            this.byType = Collections.unmodifiableMap(byType);
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public int size() {
+            return ingredients.size();
+        }
+
+        public boolean contains(String id) {
+            return byId.containsKey(id);
+        }
+
+        /**
+         * 按 id 获取配料（只读视图），不存在时返回 null
+         * 注：需要与 Cat 一起经由 JPA 持久化时使用 IngredientCatalog.findById()
+         */
+        public Ingredient get(String id) {
+            return byId.get(id);
+        }
+
+        public List<Ingredient> getIngredients() {
+            return ingredients;
+        }
+
+        public Map<Ingredient.Type, List<Ingredient>> getByType() {
+            return byType;
+        }
+
+    }
+
+}
@@ -0,0 +1,417 @@
+package com.example.demo.service;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+
+import javax.annotation.PreDestroy;
+
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.rest.core.annotation.HandleAfterCreate;
+import org.springframework.data.rest.core.annotation.RepositoryEventHandler;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import lombok.extern.slf4j.Slf4j;
+import com.example.demo.domain.Cat;
+import com.example.demo.domain.CatOrder;
+import com.example.demo.domain.Ingredient;
+import com.example.demo.domain.IngredientStat;
+import com.example.demo.repository.CatOrdersSavedEvent;
+import com.example.demo.vo.IngredientStatsSnapshot;
+
+/**
+ * 配料的受欢迎程度统计：每个配料、每种配料类型、每两个配料的组合被下单的次数（按 Cat 计），以及订单总数和 Cat 总数
+ *
+ * 注：
+ *     原来要回答 "哪些配料和组合最受欢迎" 只能关联 Cat_Order_Cat、Cat、Cat_Ingredient 全表扫描。
+ *     这里改为增量维护：订单提交后（CatOrdersSavedEvent，或经由 Spring Data REST 创建订单之后）
+ *     在内存中给相应的计数器加一，计数器是 LongAdder（按线程分散到多个单元上累加，并发下单时不会争用同一个变量）；
+ *     后台线程每隔 catcloud.stats.flush-interval 将有变化的计数器写回汇总表 Ingredient_Stats（见 IngredientStat），
+ *     并重新计算一份快照（含前 catcloud.stats.top-pairs 个组合），GET /api/stats/ingredients 直接返回这份快照，
+ *     因此统计最多落后一个刷新间隔。应用启动时从汇总表恢复计数器。
+ *     删除订单（例如 OrderPurgeService 清理订单）不会逐个扣减计数器，清理完成后整体重建一次；
+ *     也可以随时通过 POST /api/stats/ingredients/rebuild 从订单表重新统计（rebuild()）。
+ *     重建只用一条查询逐行读取全部订单及其 Cat 和配料，在内存中计数（单条语句读到的是数据库某一时刻的一致快照），
+ *     并记下统计到的订单 id；重建持有写锁，期间提交的订单在重建后才计入，其中已被重建统计到的订单按 id 跳过，因此不会多算。
+ *     写回汇总表时先 UPDATE，更新不到的行再 INSERT，不依赖某种数据库特有的 MERGE/UPSERT 语法。
+ */
+@Slf4j
+@Service
+@RepositoryEventHandler(CatOrder.class)  // 通过 Spring Data REST 导出的接口创建订单时，也需要计入统计
+public class IngredientStatistics {
+
+    private static final String TOTAL_ORDERS = "TOTAL:ORDERS";
+    private static final String TOTAL_CATS = "TOTAL:CATS";
+    private static final int REBUILD_FETCH_SIZE = 1000;  // 重建时游标每次从数据库读取的行数
+
+    // 重建时逐行读取订单、Cat 及其配料，按订单 id、Cat id 排序，同一个订单、同一个 Cat 的行是连续的
+    private static final String REBUILD_SQL =
+        "SELECT o.id, oc.cat_id, ci.ingredient_id FROM Cat_Order o"
+        + " LEFT JOIN Cat_Order_Cat oc ON oc.cat_order_id = o.id"
+        + " LEFT JOIN Cat_Ingredient ci ON ci.cat_id = oc.cat_id"
+        + " ORDER BY o.id, oc.cat_id";
+
+    private final JdbcOperations jdbcOperations;
+    private final IngredientCatalog ingredientCatalog;
+    private final long flushIntervalMillis;
+    private final int topPairs;
+
+    // 计数器，键为 IngredientStat 的 id
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    // 上次刷新后有变化、还未写回汇总表的计数器
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    // 记录订单时持有读锁（可以并发），重建时持有写锁
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile IngredientStatsSnapshot snapshot;
+    // 最近一次重建统计到的订单 id，这些订单的 record() 不再计入，由 lock 保护
+    private Roaring64NavigableMap rebuiltOrderIds = new Roaring64NavigableMap();
+
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ingredient-stats-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public IngredientStatistics(
+        JdbcOperations jdbcOperations,
+        IngredientCatalog ingredientCatalog,
+        @Value("${catcloud.stats.flush-interval:10s}") Duration flushInterval,
+        @Value("${catcloud.stats.top-pairs:10}") int topPairs
+    ) {
+        this.jdbcOperations = jdbcOperations;
+        this.ingredientCatalog = ingredientCatalog;
+        this.flushIntervalMillis = flushInterval.toMillis();
+        this.topPairs = topPairs;
+    }
+
+    /**
+     * 从汇总表恢复计数器（汇总表为空而已有订单时从订单表重建），然后开始定期刷新
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        List<IngredientStat> rows = jdbcOperations.query(
+            "SELECT id, kind, ingredientA, ingredientB, orderCount FROM Ingredient_Stats",
+            (rs, rowNum) -> new IngredientStat(
+                rs.getString(1), IngredientStat.Kind.valueOf(rs.getString(2)), rs.getString(3), rs.getString(4), rs.getLong(5)));
+        if (rows.isEmpty() && jdbcOperations.queryForObject("SELECT COUNT(*) FROM Cat_Order", Long.class) > 0) {
+            rebuild();
+        } else {
+            for (IngredientStat row : rows) {
+                counter(row.getId()).add(row.getOrderCount());
+            }
+            refreshSnapshot();
+            log.info("喵喵喵，Ingredient statistics loaded: rows={}", rows.size());
+        }
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 当前的统计快照，O(1)，最多落后一个刷新间隔
+     */
+    public IngredientStatsSnapshot snapshot() {
+        IngredientStatsSnapshot current = snapshot;
+        if (current == null) {  // 应用还未就绪（start() 之前）
+            current = refreshSnapshot();
+        }
+        return current;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)  // 默认在事务提交之后（AFTER_COMMIT）才计入，回滚的订单不计入
+    public void onOrdersSaved(CatOrdersSavedEvent event) {
+        record(event.getCatOrders());
+    }
+
+    @HandleAfterCreate
+    public void onOrderCreated(CatOrder catOrder) {
+        record(Collections.singletonList(catOrder));
+    }
+
+    /**
+     * 将已提交的订单计入统计
+     */
+    public void record(Collection<CatOrder> catOrders) {
+        lock.readLock().lock();
+        try {
+            for (CatOrder catOrder : catOrders) {
+                if (catOrder.getId() != null && rebuiltOrderIds.contains(catOrder.getId())) {
+                    continue;  // 重建时已统计到
+                }
+                increment(TOTAL_ORDERS, 1);
+                for (Cat cat : catOrder.getCats()) {
+                    increment(TOTAL_CATS, 1);
+                    List<String> ids = new ArrayList<>();
+                    for (Ingredient ingredient : cat.getIngredients()) {
+                        ids.add(ingredient.getId());
+                    }
+                    countCat(ids, this::increment);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 将有变化的计数器写回汇总表，并重新计算快照
+     */
+    public IngredientStatsSnapshot flush() {
+        lock.readLock().lock();  // 不与重建同时进行，以免重建之前的计数覆盖重建的结果
+        try {
+            List<String> ids = new ArrayList<>();
+            List<Object[]> updates = new ArrayList<>();
+            for (String id : dirty) {
+                dirty.remove(id);  // 先移除再读取，读取之后的加一会再次标记
+                ids.add(id);
+                updates.add(new Object[] {counter(id).sum(), id});
+            }
+            if (!updates.isEmpty()) {
+                try {
+                    int[] updated = jdbcOperations.batchUpdate("UPDATE Ingredient_Stats SET orderCount = ? WHERE id = ?", updates);
+                    List<Object[]> inserts = new ArrayList<>();
+                    for (int i = 0; i < updated.length; i++) {
+                        if (updated[i] == 0) {  // 汇总表中还没有这一行
+                            inserts.add(toRow(ids.get(i), (Long) updates.get(i)[0]));
+                        }
+                    }
+                    if (!inserts.isEmpty()) {
+                        jdbcOperations.batchUpdate(
+                            "INSERT INTO Ingredient_Stats (id, kind, ingredientA, ingredientB, orderCount) VALUES (?, ?, ?, ?, ?)", inserts);
+                    }
+                } catch (RuntimeException e) {
+                    dirty.addAll(ids);  // 下次刷新时重试
+                    throw e;
+                }
+            }
+            return refreshSnapshot();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 从订单表重新统计全部计数器并覆盖汇总表
+     */
+    public IngredientStatsSnapshot rebuild() {
+        lock.writeLock().lock();
+        try {
+            long started = System.currentTimeMillis();
+            RebuildScanner scanner = new RebuildScanner();
+            jdbcOperations.query(
+                connection -> {
+                    PreparedStatement ps = connection.prepareStatement(
+                        REBUILD_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY
+                    );
+                    ps.setFetchSize(REBUILD_FETCH_SIZE);
+                    return ps;
+                },
+                scanner
+            );
+            Map<String, Long> counts = scanner.finish();
+
+            rebuiltOrderIds = scanner.orderIds;
+            counters.clear();
+            dirty.clear();
+            List<Object[]> rows = new ArrayList<>(counts.size());
+            for (Map.Entry<String, Long> entry : counts.entrySet()) {
+                counter(entry.getKey()).add(entry.getValue());
+                rows.add(toRow(entry.getKey(), entry.getValue()));
+            }
+            jdbcOperations.update("DELETE FROM Ingredient_Stats");
+            jdbcOperations.batchUpdate(
+                "INSERT INTO Ingredient_Stats (id, kind, ingredientA, ingredientB, orderCount) VALUES (?, ?, ?, ?, ?)", rows);
+            log.info("喵喵喵，Ingredient statistics rebuilt: rows={}, took={}ms", rows.size(), System.currentTimeMillis() - started);
+            return refreshSnapshot();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {  // 不抛出，否则定期任务会被取消
+            log.error("喵喵喵，Ingredient statistics flush failed", e);
+        }
+    }
+
+    /**
+     * 计入一个 Cat 的配料：同一个 Cat 中重复的配料只算一次，按 id 排序后两两组合
+     */
+    private static void countCat(Collection<String> ingredientIds, BiConsumer<String, Long> add) {
+        List<String> sorted = new ArrayList<>(new TreeSet<>(ingredientIds));
+        for (int i = 0; i < sorted.size(); i++) {
+            add.accept(ingredientKey(sorted.get(i)), 1L);
+            for (int j = i + 1; j < sorted.size(); j++) {
+                add.accept(pairKey(sorted.get(i), sorted.get(j)), 1L);
+            }
+        }
+    }
+
+    private void increment(String id, long delta) {
+        counter(id).add(delta);
+        dirty.add(id);
+    }
+
+    private LongAdder counter(String id) {
+        return counters.computeIfAbsent(id, key -> new LongAdder());
+    }
+
+    private synchronized IngredientStatsSnapshot refreshSnapshot() {
+        IngredientCatalog.Snapshot catalog = ingredientCatalog.snapshot();
+        List<IngredientStatsSnapshot.IngredientCount> ingredients = new ArrayList<>();
+        Map<Ingredient.Type, Long> types = new EnumMap<>(Ingredient.Type.class);
+        for (Ingredient.Type type : Ingredient.Type.values()) {
+            types.put(type, 0L);
+        }
+        // 只保留次数最多的 topPairs 个组合（小顶堆）
+        Comparator<IngredientStatsSnapshot.PairCount> byCount = Comparator.comparingLong(IngredientStatsSnapshot.PairCount::getCount);
+        PriorityQueue<IngredientStatsSnapshot.PairCount> pairs = new PriorityQueue<>(byCount);
+        long orders = 0;
+        long cats = 0;
+        for (Map.Entry<String, LongAdder> entry : counters.entrySet()) {
+            String[] parts = entry.getKey().split(":");
+            long count = entry.getValue().sum();
+            switch (IngredientStat.Kind.valueOf(parts[0])) {
+                case INGREDIENT:
+                    Ingredient ingredient = catalog.get(parts[1]);
+                    if (ingredient == null) {  // 配料已被删除
+                        break;
+                    }
+                    ingredients.add(new IngredientStatsSnapshot.IngredientCount(ingredient.getId(), ingredient.getName(), ingredient.getType(), count));
+                    types.merge(ingredient.getType(), count, Long::sum);
+                    break;
+                case PAIR:
+                    pairs.add(new IngredientStatsSnapshot.PairCount(parts[1], parts[2], count));
+                    if (pairs.size() > topPairs) {
+                        pairs.poll();
+                    }
+                    break;
+                default:
+                    if (TOTAL_ORDERS.equals(entry.getKey())) {
+                        orders = count;
+                    } else {
+                        cats = count;
+                    }
+            }
+        }
+        ingredients.sort(Comparator.comparingLong(IngredientStatsSnapshot.IngredientCount::getCount).reversed()
+            .thenComparing(IngredientStatsSnapshot.IngredientCount::getId));
+        List<IngredientStatsSnapshot.PairCount> top = new ArrayList<>(pairs);
+        top.sort(byCount.reversed()
+            .thenComparing(IngredientStatsSnapshot.PairCount::getFirst)
+            .thenComparing(IngredientStatsSnapshot.PairCount::getSecond));
+        IngredientStatsSnapshot next = new IngredientStatsSnapshot(
+            new Date(), orders, cats,
+            Collections.unmodifiableList(ingredients), Collections.unmodifiableMap(types), Collections.unmodifiableList(top));
+        snapshot = next;
+        return next;
+    }
+
+    private static String ingredientKey(String ingredientId) {
+        return IngredientStat.Kind.INGREDIENT + ":" + ingredientId;
+    }
+
+    private static String pairKey(String first, String second) {
+        return IngredientStat.Kind.PAIR + ":" + first + ":" + second;
+    }
+
+    private static Object[] toRow(String id, long count) {
+        String[] parts = id.split(":");
+        return new Object[] {id, parts[0], parts[1], parts.length > 2 ? parts[2] : null, count};
+    }
+
+    /**
+     * 重建时逐行计数，与 record() 的计数方式相同，并记下统计到的订单 id
+     */
+    private static final class RebuildScanner implements RowCallbackHandler {
+
+        private final Map<String, Long> counts = new HashMap<>();
+        private final Roaring64NavigableMap orderIds = new Roaring64NavigableMap();
+        private final List<String> ingredientIds = new ArrayList<>();
+        private Long orderId;
+        private Long catId;
+
+        RebuildScanner() {
+            counts.put(TOTAL_ORDERS, 0L);
+            counts.put(TOTAL_CATS, 0L);
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long currentOrderId = rs.getLong(1);
+            if (orderId == null || orderId != currentOrderId) {
+                endCat();
+                orderId = currentOrderId;
+                orderIds.addLong(currentOrderId);
+                counts.merge(TOTAL_ORDERS, 1L, Long::sum);
+            }
+            long currentCatId = rs.getLong(2);
+            if (rs.wasNull()) {
+                return;  // 没有 Cat 的订单
+            }
+            if (catId == null || catId != currentCatId) {
+                endCat();
+                catId = currentCatId;
+                counts.merge(TOTAL_CATS, 1L, Long::sum);
+            }
+            String ingredientId = rs.getString(3);
+            if (ingredientId != null) {
+                ingredientIds.add(ingredientId);
+            }
+        }
+
+        Map<String, Long> finish() {
+            endCat();
+            return counts;
+        }
+
+        private void endCat() {
+            if (catId == null) {
+                return;
+            }
+            countCat(ingredientIds, (id, delta) -> counts.merge(id, delta, Long::sum));
+            ingredientIds.clear();
+            catId = null;
+        }
+
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("喵喵喵，Ingredient statistics not flushed on shutdown: {}", e.getMessage());
+        }
+    }
+
+}
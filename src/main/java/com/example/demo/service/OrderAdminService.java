@@ -1,14 +1,20 @@
 package com.example.demo.service;
 
+import java.util.Date;
+
 import org.springframework.stereotype.Service;
 import org.springframework.security.access.prepost.PreAuthorize;
 
-import com.example.demo.repository.CatOrderRepository;
+import com.example.demo.vo.OrderPurgeStatus;
 
 @Service
 public class OrderAdminService {
 
-    private CatOrderRepository catOrderRepository;
+    private OrderPurgeService orderPurgeService;
+
+    public OrderAdminService(OrderPurgeService orderPurgeService) {
+        this.orderPurgeService = orderPurgeService;
+    }
 
     // 路由级别的访问限制只能限制访问某个路由，而不能限制访问某个方法。
     // 因此，为了确保只有管理员才能访问删除所有订单的方法，需要进行方法级别的访问限制。
@@ -55,8 +61,25 @@ public class OrderAdminService {
 
     // 这里使用了 hasRole('ADMIN') 表达式，表示只有具有 ADMIN 角色（ADMIN 权限）的用户才能访问该方法。
     @PreAuthorize("hasRole('ADMIN')")
-    public void deleteAllOrder() {
-        catOrderRepository.deleteAll();
+    public OrderPurgeStatus deleteAllOrder() {
+        // 注：原来使用 catOrderRepository.deleteAll()，Spring Data 会先加载全部订单，再在一个事务中逐个级联删除，
+        //     订单很多时会耗尽内存并长时间锁表，因此改为在后台分块删除，见 OrderPurgeService。
+        return orderPurgeService.start(null);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    public OrderPurgeStatus deleteOrdersPlacedBefore(Date placedBefore) {  // 按保留期限清理，只删除在 placedBefore 之前下的订单
+        return orderPurgeService.start(placedBefore);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    public OrderPurgeStatus getPurgeStatus() {
+        return orderPurgeService.getStatus();
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    public boolean cancelPurge() {
+        return orderPurgeService.cancel();
     }
 
 }
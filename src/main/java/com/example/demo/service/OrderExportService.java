@@ -0,0 +1,188 @@
+package com.example.demo.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 以 NDJSON（每行一个 JSON 对象）的格式导出全部订单
+ *
+ * 注：
+ *     与分页读取 Cat_Order 实体不同，这里只用一条连接了 Cat_Order、Cat_Order_Cat、Cat、Cat_Ingredient 的查询，
+ *     以只进（forward-only）游标、按 fetchSize 分批从数据库读取行，边读边写到输出流：
+ *     结果按订单 id、Cat id 排序，因此同一个订单的行是连续的，读到下一个订单的行时，上一个订单就已经写完了。
+ *     内存中始终只有当前这一行和一个 JsonGenerator，不会随订单数量增长。
+ *     出于安全考虑，导出内容不包含信用卡信息（ccNumber、ccExpiration、ccCVV）。
+ */
+@Service
+public class OrderExportService {
+
+    private static final String EXPORT_SQL =
+        "SELECT o.id, o.placedAt, o.deliveryName, o.deliveryStreet, o.deliveryCity, o.deliveryState, "
+        + "o.deliveryZip, o.user_id, c.id AS cat_id, c.name AS cat_name, c.createdAt AS cat_createdAt, "
+        + "ci.ingredient_id "
+        + "FROM Cat_Order o "
+        + "LEFT JOIN Cat_Order_Cat oc ON oc.cat_order_id = o.id "
+        + "LEFT JOIN Cat c ON c.id = oc.cat_id "
+        + "LEFT JOIN Cat_Ingredient ci ON ci.cat_id = c.id "
+        + "ORDER BY o.id, c.id";
+
+    private final JdbcOperations jdbcOperations;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    public OrderExportService(
+        JdbcOperations jdbcOperations,
+        ObjectMapper objectMapper,
+        @Value("${catcloud.orders.export.fetch-size:1000}") int fetchSize
+    ) {
+        this.jdbcOperations = jdbcOperations;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * 将全部订单写到 out，返回导出的订单数
+     *
+     * 注：在只读事务中执行，使游标所在的连接关闭自动提交，
+     *     否则有的数据库（例如 PostgreSQL）会忽略 fetchSize，一次性把全部结果读入内存
+     */
+    @Transactional(readOnly = true)
+    public long exportTo(OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            OrderWriter writer = new OrderWriter(generator);
+            jdbcOperations.query(
+                connection -> {
+                    PreparedStatement ps = connection.prepareStatement(
+                        EXPORT_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY
+                    );
+                    ps.setFetchSize(fetchSize);
+                    return ps;
+                },
+                writer
+            );
+            writer.finish();
+            return writer.orders;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();  // 例如客户端中途断开连接
+        }
+    }
+
+    /**
+     * 逐行处理查询结果，在订单或 Cat 切换时关闭上一个 JSON 对象
+     */
+    private static class OrderWriter implements RowCallbackHandler {
+
+        private final JsonGenerator generator;
+        private Long orderId;
+        private Long catId;
+        private long orders;
+
+        OrderWriter(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                long currentOrderId = rs.getLong("id");
+                if (orderId == null || orderId != currentOrderId) {
+                    endOrder();
+                    startOrder(rs, currentOrderId);
+                }
+                long currentCatId = rs.getLong("cat_id");
+                if (rs.wasNull()) {
+                    return;  // 没有 Cat 的订单
+                }
+                if (catId == null || catId != currentCatId) {
+                    endCat();
+                    startCat(rs, currentCatId);
+                }
+                String ingredientId = rs.getString("ingredient_id");
+                if (ingredientId != null) {
+                    generator.writeString(ingredientId);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void finish() throws IOException {
+            endOrder();
+            generator.flush();
+        }
+
+        private void startOrder(ResultSet rs, long id) throws SQLException, IOException {
+            orderId = id;
+            orders++;
+            generator.writeStartObject();
+            generator.writeNumberField("id", id);
+            writeTimestampField("placedAt", rs.getTimestamp("placedAt"));
+            generator.writeStringField("deliveryName", rs.getString("deliveryName"));
+            generator.writeStringField("deliveryStreet", rs.getString("deliveryStreet"));
+            generator.writeStringField("deliveryCity", rs.getString("deliveryCity"));
+            generator.writeStringField("deliveryState", rs.getString("deliveryState"));
+            generator.writeStringField("deliveryZip", rs.getString("deliveryZip"));
+            long userId = rs.getLong("user_id");
+            if (rs.wasNull()) {
+                generator.writeNullField("userId");
+            } else {
+                generator.writeNumberField("userId", userId);
+            }
+            generator.writeArrayFieldStart("cats");
+        }
+
+        private void endOrder() throws IOException {
+            if (orderId == null) {
+                return;
+            }
+            endCat();
+            generator.writeEndArray();   // cats
+            generator.writeEndObject();  // order
+            generator.writeRaw('\n');
+            orderId = null;
+        }
+
+        private void startCat(ResultSet rs, long id) throws SQLException, IOException {
+            catId = id;
+            generator.writeStartObject();
+            generator.writeNumberField("id", id);
+            generator.writeStringField("name", rs.getString("cat_name"));
+            writeTimestampField("createdAt", rs.getTimestamp("cat_createdAt"));
+            generator.writeArrayFieldStart("ingredients");
+        }
+
+        private void endCat() throws IOException {
+            if (catId == null) {
+                return;
+            }
+            generator.writeEndArray();   // ingredients
+            generator.writeEndObject();  // cat
+            catId = null;
+        }
+
+        private void writeTimestampField(String name, Timestamp timestamp) throws IOException {
+            if (timestamp == null) {
+                generator.writeNullField(name);
+            } else {
+                generator.writeStringField(name, timestamp.toInstant().toString());
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * 订单异步写入（group commit）的配置，对应 application.yml 中的 catcloud.orders.ingestion.*
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "catcloud.orders.ingestion")
+public class OrderIngestionProperties {
+
+    private boolean enabled = false;             // 是否开启异步写入模式（默认关闭，即每个请求同步保存订单）
+    private int queueCapacity = 1000;            // 待写入队列的容量，队列满时请求将得到 503
+    private int maxBatchSize = 100;              // 每批最多合并提交的订单数
+    private Duration maxWait = Duration.ofMillis(10);  // 凑批的最长等待时间（从取到本批第一个订单开始计时）
+    private int writers = 1;                     // 写入线程数
+    private Duration retryAfter = Duration.ofSeconds(1);  // 503 应答中 Retry-After 头的值
+
+}
@@ -0,0 +1,206 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import com.example.demo.domain.CatOrder;
+import com.example.demo.repository.CatOrderRepository;
+
+/**
+ * 订单异步写入服务（group commit）
+ *
+ * 注：
+ *     开启后（catcloud.orders.ingestion.enabled=true），校验通过的订单不再由请求线程各自开启事务保存，
+ *     而是放入一个有界队列，由写入线程按数量（maxBatchSize）或时间窗口（maxWait）凑成一批，
+ *     在同一个事务中批量插入（见 CatOrderRepository.saveAllBatched）并提交。
+ *     提交成功后才完成 submit() 返回的 CompletableFuture，因此请求得到的应答意味着订单已经持久化。
+ *     队列满时 submit() 直接抛出 OrderQueueFullException，以便尽早拒绝请求（背压），而不是让请求排队等待。
+ *     一批提交失败时（例如其中一个订单的配料已被删除），改为逐个订单单独提交，只有出错的订单失败，不连累同批的其它订单。
+ */
+@Slf4j
+@Service
+public class OrderIngestionService {
+
+    private final CatOrderRepository catOrderRepository;
+    private final OrderIngestionProperties properties;
+    private final BlockingQueue<PendingOrder> queue;
+
+    private final DistributionSummary batchSize;
+    private final Timer commitLatency;
+
+    private final List<Thread> writers = new ArrayList<>();
+    private final Object lifecycleLock = new Object();  // 使 submit() 中的检查与入队、stop() 中的停止互斥
+    private volatile boolean running;
+
+    public OrderIngestionService(
+        CatOrderRepository catOrderRepository,
+        OrderIngestionProperties properties,
+        MeterRegistry meterRegistry
+    ) {
+        this.catOrderRepository = catOrderRepository;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        Gauge.builder("catcloud.orders.ingestion.queue.depth", queue, BlockingQueue::size)
+            .description("Orders waiting to be group-committed")
+            .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("catcloud.orders.ingestion.batch.size")
+            .description("Orders committed per transaction")
+            .register(meterRegistry);
+        this.commitLatency = Timer.builder("catcloud.orders.ingestion.commit.latency")
+            .description("Time to insert and commit one batch of orders")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < properties.getWriters(); i++) {
+            Thread writer = new Thread(this::writeLoop, "order-ingestion-" + i);
+            writer.start();
+            writers.add(writer);
+        }
+        log.info("喵喵喵，Order ingestion started: {}", properties);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        synchronized (lifecycleLock) {
+            running = false;  // 此后 submit() 不会再有订单入队
+        }
+        for (Thread writer : writers) {
+            writer.join();  // 写入线程会先把队列中剩余的订单写完再退出
+        }
+        // 写入线程被中断等异常退出时，队列中可能还有订单，让它们的请求失败而不是一直等待
+        List<PendingOrder> leftovers = new ArrayList<>();
+        queue.drainTo(leftovers);
+        for (PendingOrder pending : leftovers) {
+            pending.future.completeExceptionally(new IllegalStateException("Order ingestion stopped"));
+        }
+    }
+
+    /**
+     * 提交一个已校验的订单，返回的 CompletableFuture 在该订单所在批次提交后完成
+     */
+    public CompletableFuture<CatOrder> submit(CatOrder catOrder) {
+        PendingOrder pending = new PendingOrder(catOrder);
+        synchronized (lifecycleLock) {
+            // 注：检查与入队需在同一把锁中，否则 stop() 可能在两者之间停止写入线程，使入队的订单无人处理
+            if (!running || !queue.offer(pending)) {
+                throw new OrderQueueFullException(properties.getQueueCapacity());
+            }
+        }
+        return pending.future;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private void writeLoop() {
+        List<PendingOrder> batch = new ArrayList<>(properties.getMaxBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingOrder first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + properties.getMaxWait().toNanos();
+                while (batch.size() < properties.getMaxBatchSize()) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        queue.drainTo(batch, properties.getMaxBatchSize() - batch.size());  // 时间到了，把已在队列中的顺带取走
+                        break;
+                    }
+                    PendingOrder next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<PendingOrder> batch) {
+        List<CatOrder> catOrders = new ArrayList<>(batch.size());
+        for (PendingOrder pending : batch) {
+            catOrders.add(pending.catOrder);
+        }
+        long start = System.nanoTime();
+        try {
+            catOrderRepository.saveAllBatched(catOrders);
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                log.error("喵喵喵，Failed to commit an order", e);
+                batch.get(0).future.completeExceptionally(e);
+            } else {
+                log.warn("喵喵喵，Failed to commit a batch of " + batch.size() + " orders, committing them one by one", e);
+                commitEach(batch);
+            }
+            return;
+        } finally {
+            commitLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            batchSize.record(batch.size());
+        }
+        for (PendingOrder pending : batch) {
+            pending.future.complete(pending.catOrder);
+        }
+    }
+
+    /**
+     * 逐个订单在各自的事务中提交，只让出错的订单失败
+     * 注：saveBatched() 每次都会重新分配主键，因此批量提交失败时已分配给订单的主键不影响重新提交
+     */
+    private void commitEach(List<PendingOrder> batch) {
+        for (PendingOrder pending : batch) {
+            try {
+                catOrderRepository.saveBatched(pending.catOrder);
+                pending.future.complete(pending.catOrder);
+            } catch (RuntimeException e) {
+                log.error("喵喵喵，Failed to commit an order", e);
+                pending.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static final class PendingOrder {
+
+        private final CatOrder catOrder;
+        private final CompletableFuture<CatOrder> future = new CompletableFuture<>();
+
+        private PendingOrder(CatOrder catOrder) {
+            this.catOrder = catOrder;
+        }
+
+    }
+
+}
@@ -0,0 +1,143 @@
+package com.example.demo.service;
+
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+import com.example.demo.repository.CatOrderPurgeRepository;
+import com.example.demo.repository.CatOrderRepository;
+import com.example.demo.vo.OrderPurgeStatus;
+
+/**
+ * 在后台分块删除订单（全部删除或只删除某个时间之前下的订单）
+ *
+ * 注：
+ *     按订单 id 升序，每次取 catcloud.orders.purge.chunk-size 个订单作为一块，
+ *     每块在一个独立的事务中用几条 DELETE 语句删除（见 CatOrderPurgeRepository），
+ *     因此无论有多少订单，内存占用和每个事务持有的锁都是有上限的，删除期间其它请求也可以继续下单。
+ *     同一时间只运行一个清理任务，每块删除后检查是否已请求取消，已删除的块不会回滚。
+ *     删除了订单时，结束前重建配料统计（见 IngredientStatistics）。
+ */
+@Slf4j
+@Service
+public class OrderPurgeService {
+
+    private final CatOrderRepository catOrderRepository;
+    private final JdbcOperations jdbcOperations;
+    private final IngredientStatistics ingredientStatistics;
+    private final int chunkSize;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "order-purge");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicReference<OrderPurgeStatus> current = new AtomicReference<>();
+
+    public OrderPurgeService(
+        CatOrderRepository catOrderRepository,
+        JdbcOperations jdbcOperations,
+        IngredientStatistics ingredientStatistics,
+        @Value("${catcloud.orders.purge.chunk-size:1000}") int chunkSize
+    ) {
+        this.catOrderRepository = catOrderRepository;
+        this.jdbcOperations = jdbcOperations;
+        this.ingredientStatistics = ingredientStatistics;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * 开始一个清理任务，已有任务在运行时抛出 PurgeAlreadyRunningException
+     * @param placedBefore 只删除在此之前下的订单，为 null 时删除全部订单
+     */
+    public OrderPurgeStatus start(Date placedBefore) {
+        OrderPurgeStatus previous = current.get();
+        if (previous != null && previous.isRunning()) {
+            throw new PurgeAlreadyRunningException();
+        }
+        OrderPurgeStatus status = new OrderPurgeStatus(placedBefore, countOrders(placedBefore));
+        if (!current.compareAndSet(previous, status)) {
+            throw new PurgeAlreadyRunningException();
+        }
+        executor.execute(() -> run(status));
+        return status;
+    }
+
+    /**
+     * 最近一次（或正在运行的）清理任务的状态，从未运行过时为 null
+     */
+    public OrderPurgeStatus getStatus() {
+        return current.get();
+    }
+
+    /**
+     * 请求取消正在运行的清理任务，当前这一块删除完后停止
+     * @return 是否有正在运行的任务
+     */
+    public boolean cancel() {
+        OrderPurgeStatus status = current.get();
+        if (status == null || !status.isRunning()) {
+            return false;
+        }
+        status.setCancelRequested(true);
+        return true;
+    }
+
+    private void run(OrderPurgeStatus status) {
+        log.info("喵喵喵，Purging orders placed before {}", status.getPlacedBefore());
+        try {
+            long afterId = Long.MIN_VALUE;
+            Long upToId;
+            while ((upToId = catOrderRepository.findChunkEnd(afterId, status.getPlacedBefore(), chunkSize)) != null) {
+                if (status.isCancelRequested()) {
+                    status.setState(OrderPurgeStatus.State.CANCELLED);
+                    break;
+                }
+                CatOrderPurgeRepository.PurgedRows purged = catOrderRepository.purgeRange(afterId, upToId, status.getPlacedBefore());
+                status.setOrdersDeleted(status.getOrdersDeleted() + purged.getOrders());
+                status.setCatsDeleted(status.getCatsDeleted() + purged.getCats());
+                status.setChunks(status.getChunks() + 1);
+                status.setLastOrderId(upToId);
+                afterId = upToId;
+            }
+            if (status.isRunning()) {
+                status.setState(OrderPurgeStatus.State.COMPLETED);
+            }
+            if (status.getOrdersDeleted() > 0) {
+                ingredientStatistics.rebuild();  // 配料统计不会随删除逐个扣减，删除后整体重建一次
+            }
+        } catch (RuntimeException e) {
+            log.error("喵喵喵，Order purge failed after " + status.getOrdersDeleted() + " orders", e);
+            status.setError(e.getMessage());
+            status.setState(OrderPurgeStatus.State.FAILED);
+        } finally {
+            status.setFinishedAt(new Date());
+            log.info("喵喵喵，Order purge {}: orders={}, cats={}, chunks={}",
+                status.getState(), status.getOrdersDeleted(), status.getCatsDeleted(), status.getChunks());
+        }
+    }
+
+    private long countOrders(Date placedBefore) {
+        if (placedBefore == null) {
+            return jdbcOperations.queryForObject("SELECT COUNT(*) FROM Cat_Order", Long.class);
+        }
+        return jdbcOperations.queryForObject(
+            "SELECT COUNT(*) FROM Cat_Order WHERE placedAt < ?", Long.class, new Timestamp(placedBefore.getTime()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        cancel();
+        executor.shutdown();
+    }
+
+}
@@ -0,0 +1,14 @@
+package com.example.demo.service;
+
+/**
+ * 订单写入队列已满时抛出，由 OrderController 转换为 503 应答
+ */
+public class OrderQueueFullException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public OrderQueueFullException(int capacity) {
+        super("Order ingestion queue is full (capacity " + capacity + ")");
+    }
+
+}
@@ -0,0 +1,14 @@
+package com.example.demo.service;
+
+/**
+ * 已有清理任务在运行时再开始一个清理任务时抛出，由 AdminController 转换为 409 应答
+ */
+public class PurgeAlreadyRunningException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PurgeAlreadyRunningException() {
+        super("An order purge is already running");
+    }
+
+}
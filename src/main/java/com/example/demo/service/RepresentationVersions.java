@@ -0,0 +1,95 @@
+package com.example.demo.service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.data.rest.core.annotation.HandleAfterDelete;
+import org.springframework.data.rest.core.annotation.RepositoryEventHandler;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.demo.BinaryContentConfiguration;
+import com.example.demo.domain.Cat;
+import com.example.demo.repository.CatsDeletedEvent;
+import com.example.demo.repository.CatsSavedEvent;
+
+/**
+ * 为 GET /api/ingredients 和 GET /api/cats/{id} 的应答生成强 ETag，使条件请求（If-None-Match）无需查询数据库即可判断是否返回 304
+ *
+ * 注：
+ *     - 配料列表的 ETag 取自配料目录快照的版本号（见 IngredientCatalog），配料被新增、修改、删除时版本号加一；
+ *     - Cat 的应答中含有配料，因此它的 ETag 由配料目录的版本号、Cat 的修改代数（generation）和 Cat 的 id 组成。
+ *       Cat 插入后很少被修改，这里不为每个 Cat 记录版本号，而是在任何已有的 Cat 可能被修改或删除时（提交后）将代数加一，
+ *       使所有 Cat 的 ETag 一起失效；下单和批量导入只插入新的 Cat，不会使已有的 ETag 失效。
+ *     版本号和代数只存在于内存中，ETag 中带上应用启动的时间（epoch），重启后之前的 ETag 都不再匹配。
+ *     同一资源的 JSON、CBOR、Smile 应答是不同的表示，强 ETag 须各不相同，因此按请求的 Accept 头为二进制格式加上后缀（见 BinaryContentConfiguration），
+ *     控制器同时在应答中带上 Vary: Accept。
+ */
+@Service
+@RepositoryEventHandler(Cat.class)  // 通过 Spring Data REST 导出的接口删除 Cat 时，也需要使 ETag 失效
+public class RepresentationVersions {
+
+    private final IngredientCatalog ingredientCatalog;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong catGeneration = new AtomicLong();
+
+    public RepresentationVersions(IngredientCatalog ingredientCatalog) {
+        this.ingredientCatalog = ingredientCatalog;
+    }
+
+    public String ingredientsETag(IngredientCatalog.Snapshot snapshot, String accept) {
+        return "\"i-" + epoch + "-" + snapshot.getVersion() + representationSuffix(accept) + "\"";
+    }
+
+    public String catETag(Long id, String accept) {
+        return "\"c-" + epoch + "-" + ingredientCatalog.snapshot().getVersion() + "-" + catGeneration.get() + "-" + id + representationSuffix(accept) + "\"";
+    }
+
+    // 与 Spring MVC 的内容协商一致：按质量值和具体程度排序后，第一个可接受的类型为 CBOR 或 Smile 时应答为该格式，
+    // 其它情况（未指定、通配、application/json 等）应答为 JSON，不加后缀
+    private static String representationSuffix(String accept) {
+        if (accept == null || accept.isEmpty()) {
+            return "";
+        }
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return "";
+        }
+        MediaType.sortBySpecificityAndQuality(mediaTypes);
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.getQualityValue() == 0) {
+                continue;
+            }
+            if (MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(mediaType)) {
+                return "-cbor";
+            }
+            if (BinaryContentConfiguration.APPLICATION_SMILE.equalsTypeAndSubtype(mediaType)) {
+                return "-smile";
+            }
+            return "";
+        }
+        return "";
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatsSaved(CatsSavedEvent event) {
+        if (!event.isInserted()) {
+            catGeneration.incrementAndGet();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatsDeleted(CatsDeletedEvent event) {
+        catGeneration.incrementAndGet();
+    }
+
+    @HandleAfterDelete
+    public void onCatDeleted(Cat cat) {
+        catGeneration.incrementAndGet();
+    }
+
+}
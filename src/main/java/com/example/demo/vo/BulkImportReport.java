@@ -0,0 +1,62 @@
+package com.example.demo.vo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * 批量导入（POST /api/ingredients/bulk、POST /api/cats/bulk）的结果报告
+ *
+ * 注：
+ *     输入按行（NDJSON 的每行、CSV 除表头外的每行）分块，每块独立提交，报告中逐块列出：
+ *       - 该块的起止行号（即输入中的行号，从 1 开始，CSV 的表头是第 1 行）；
+ *       - 校验失败而被拒绝的行及原因（rejected）；
+ *       - 校验通过的行是否提交成功（committed），提交失败时该块的有效行全部回滚（failed），并给出原因（error）。
+ */
+@Data
+public class BulkImportReport {
+
+    private int totalRows;
+    private int imported;
+    private int rejected;
+    private int failed;
+    private final List<ChunkReport> chunks = new ArrayList<>();
+
+    public void addChunk(ChunkReport chunk) {
+        chunks.add(chunk);
+        totalRows += chunk.getImported() + chunk.getRejected() + chunk.getFailed();
+        imported += chunk.getImported();
+        rejected += chunk.getRejected();
+        failed += chunk.getFailed();
+    }
+
+    @Data
+    public static class ChunkReport {
+
+        private final int chunk;
+        private final int firstRow;
+        private int lastRow;
+        private boolean committed;
+        private int imported;
+        private int rejected;
+        private int failed;
+        private String error;
+        private final List<RowError> errors = new ArrayList<>();
+
+        public void reject(int row, String message) {
+            rejected++;
+            errors.add(new RowError(row, message));
+        }
+
+    }
+
+    @Data
+    public static class RowError {
+
+        private final int row;
+        private final String message;
+
+    }
+
+}
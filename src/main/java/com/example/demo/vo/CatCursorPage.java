@@ -0,0 +1,62 @@
+package com.example.demo.vo;
+
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.domain.Slice;
+
+import lombok.Data;
+
+import com.example.demo.domain.Cat;
+
+/**
+ * keyset（seek）分页的一页 Cat，用于 GET /api/cats?recent&after=<createdAt,id>&limit=N 的应答
+ *
+ * 注：
+ *     游标（cursor）的格式为 "<createdAt 的毫秒时间戳>,<id>"，即本页最后一个 Cat 的排序键，
+ *     客户端将 nextCursor 原样作为下一次请求的 after 参数即可取得下一页。没有下一页时 nextCursor 为 null。
+ */
+@Data
+public class CatCursorPage {
+
+    private final List<Cat> content;
+    private final boolean hasNext;
+    private final String nextCursor;
+
+    public static CatCursorPage of(Slice<Cat> slice) {
+        List<Cat> content = slice.getContent();
+        String nextCursor = null;
+        if (slice.hasNext() && !content.isEmpty()) {
+            nextCursor = toCursor(content.get(content.size() - 1));
+        }
+        return new CatCursorPage(content, slice.hasNext(), nextCursor);
+    }
+
+    public static String toCursor(Cat cat) {
+        return cat.getCreatedAt().getTime() + "," + cat.getId();
+    }
+
+    /**
+     * 解析游标，格式不正确时抛出 IllegalArgumentException
+     */
+    public static Cursor parseCursor(String cursor) {
+        String[] parts = cursor.split(",");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Cursor must be formatted <createdAt>,<id>: " + cursor);
+        }
+        try {
+            return new Cursor(new Date(Long.parseLong(parts[0].trim())), Long.valueOf(parts[1].trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor must be formatted <createdAt>,<id>: " + cursor, e);
+        }
+    }
+
+    @Data
+    public static class Cursor {
+
+        private final Date createdAt;
+        private final Long id;
+
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.example.demo.vo;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import lombok.Data;
+
+/**
+ * 按配料组成查询 Cat 的条件，用于 GET /api/cats/search?with=CHED,SLSA&any=GRBF,CARN&without=LETC：
+ *   - with：必须包含其中全部配料（AND）；
+ *   - any：至少包含其中一个配料（OR）；
+ *   - without：不能包含其中任何一个配料（NOT）。
+ * 三者之间是 AND 的关系，省略的条件不做限制，但至少要有一个条件。
+ */
+@Data
+public class CatIngredientQuery {
+
+    private final Set<String> with;
+    private final Set<String> any;
+    private final Set<String> without;
+
+    /**
+     * 解析以逗号分隔的配料 id，全部为空时抛出 IllegalArgumentException
+     */
+    public static CatIngredientQuery of(String with, String any, String without) {
+        CatIngredientQuery query = new CatIngredientQuery(parse(with), parse(any), parse(without));
+        if (query.getWith().isEmpty() && query.getAny().isEmpty() && query.getWithout().isEmpty()) {
+            throw new IllegalArgumentException("At least one of with, any and without is required");
+        }
+        return query;
+    }
+
+    private static Set<String> parse(String ids) {
+        if (ids == null || ids.trim().isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<String> parsed = new LinkedHashSet<>();
+        Arrays.stream(ids.split(",")).map(String::trim).filter(id -> !id.isEmpty()).forEach(parsed::add);
+        return Collections.unmodifiableSet(parsed);
+    }
+
+}
@@ -0,0 +1,198 @@
+package com.example.demo.vo;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import lombok.extern.slf4j.Slf4j;
+import com.example.demo.domain.Cat;
+import com.example.demo.domain.CatOrder;
+import com.example.demo.domain.Ingredient;
+
+/**
+ * 下单过程中保存在会话（session）中的订单草稿：只记录每个 Cat 的名称及其配料的 id
+ *
+ * 注：
+ *     原来会话中保存的是完整的 CatOrder 对象图（CatOrder -> Cat -> Ingredient），会话被持久化或复制时整个对象图都要经过 Java 序列化，
+ *     其中每个 Ingredient 的名称、类型以及各个类的类描述信息都会被写入。
+ *     配料的其它信息可以随时从配料目录（IngredientCatalog）中取得，因此草稿中只保存配料 id，
+ *     并实现 Externalizable 直接写出名称和 id，不写出字段的描述信息。
+ *     到提交订单时再由 toCats() 按配料目录还原为 Cat 对象（见 OrderController.processOrder）。
+ *
+ *     配料 id 以 int 保存：1 到 4 个 ASCII 字符的 id（例如 FLTO）按字符逐字节打包为一个正数，
+ *     其它的 id 放入草稿自己的字符串表中，以 -(下标 + 1) 表示，因此任何 id 都能原样还原。
+ */
+@Slf4j
+public class CatOrderDraft implements Externalizable {
+
+    private static final long serialVersionUID = 2L;  // 注：配料 id 由字符串改为打包的 int，序列化格式与 1L 不兼容
+
+    private final List<String> names = new ArrayList<>();
+    private final List<int[]> ingredientIds = new ArrayList<>();  // 与 names 一一对应，打包后的配料 id
+    private final List<String> unpackedIds = new ArrayList<>();   // 无法打包为 int 的配料 id
+
+    public CatOrderDraft() {  // 注：Externalizable 要求有一个 public 的无参构造函数，反序列化时先调用它再调用 readExternal()
+    }
+
+    public void addDesign(Cat cat) {
+        int[] ids = new int[cat.getIngredients().size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = pack(cat.getIngredients().get(i).getId());
+        }
+        names.add(cat.getName());
+        ingredientIds.add(ids);
+    }
+
+    public List<String> getCatNames() {
+        return Collections.unmodifiableList(names);
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    /**
+     * 移除配料已被删除的 Cat，返回它们的名称
+     *
+     * 注：这些 Cat 若按剩下的配料下单，可能一个配料也没有，违反 Cat 上的约束，因此由调用者提示用户重新设计
+     * @param ingredientById 按 id 查找配料，例如 IngredientCatalog::findById
+     */
+    public List<String> removeStaleDesigns(Function<String, Optional<Ingredient>> ingredientById) {
+        List<String> stale = new ArrayList<>();
+        for (int i = names.size() - 1; i >= 0; i--) {
+            for (int id : ingredientIds.get(i)) {
+                if (!ingredientById.apply(unpack(id)).isPresent()) {
+                    log.warn("喵喵喵，Ingredient " + unpack(id) + " of cat '" + names.get(i) + "' no longer exists");
+                    stale.add(0, names.remove(i));
+                    ingredientIds.remove(i);
+                    break;
+                }
+            }
+        }
+        return stale;
+    }
+
+    /**
+     * 按配料目录将草稿还原为 Cat 对象
+     * @param ingredientById 按 id 查找配料，例如 IngredientCatalog::findById
+     * @throws IllegalStateException 草稿中的配料已被删除，应先调用 removeStaleDesigns()
+     */
+    public List<Cat> toCats(Function<String, Optional<Ingredient>> ingredientById) {
+        List<Cat> cats = new ArrayList<>(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            List<Ingredient> ingredients = new ArrayList<>(ingredientIds.get(i).length);
+            for (int id : ingredientIds.get(i)) {
+                String ingredientId = unpack(id);
+                ingredients.add(ingredientById.apply(ingredientId).orElseThrow(() -> new IllegalStateException(
+                    "Ingredient " + ingredientId + " of cat '" + name + "' no longer exists")));
+            }
+            Cat cat = new Cat();
+            cat.setName(name);
+            cat.setIngredients(ingredients);
+            cats.add(cat);
+        }
+        return cats;
+    }
+
+    /**
+     * 将草稿中的 Cat 还原后添加到订单中
+     */
+    public CatOrder addDesignsTo(CatOrder catOrder, Function<String, Optional<Ingredient>> ingredientById) {
+        for (Cat cat : toCats(ingredientById)) {
+            catOrder.addDesign(cat);
+        }
+        return catOrder;
+    }
+
+    /**
+     * 将配料 id 打包为 int：1 到 4 个 ASCII 字符的 id 按字符逐字节打包（首字节不超过 0x7F，结果为正数），
+     * 其它的 id 放入 unpackedIds，返回 -(下标 + 1)
+     */
+    private int pack(String id) {
+        if (!id.isEmpty() && id.length() <= 4) {
+            int packed = 0;
+            for (int i = 0; i < id.length(); i++) {
+                char c = id.charAt(i);
+                if (c == 0 || c > 0x7F) {
+                    packed = -1;
+                    break;
+                }
+                packed = packed << 8 | c;
+            }
+            if (packed > 0) {
+                return packed;
+            }
+        }
+        int index = unpackedIds.indexOf(id);
+        if (index < 0) {
+            index = unpackedIds.size();
+            unpackedIds.add(id);
+        }
+        return -(index + 1);
+    }
+
+    private String unpack(int id) {
+        if (id < 0) {
+            return unpackedIds.get(-id - 1);
+        }
+        char[] chars = new char[4];
+        int length = 0;
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            int c = id >>> shift & 0xFF;
+            if (c != 0) {
+                chars[length++] = (char) c;
+            }
+        }
+        return new String(chars, 0, length);
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeShort(unpackedIds.size());
+        for (String id : unpackedIds) {
+            out.writeUTF(id);
+        }
+        out.writeInt(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            out.writeUTF(names.get(i));
+            int[] ids = ingredientIds.get(i);
+            out.writeShort(ids.length);
+            for (int id : ids) {
+                out.writeInt(id);
+            }
+        }
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        unpackedIds.clear();
+        names.clear();
+        ingredientIds.clear();
+        int unpacked = in.readUnsignedShort();
+        for (int i = 0; i < unpacked; i++) {
+            unpackedIds.add(in.readUTF());
+        }
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            names.add(in.readUTF());
+            int[] ids = new int[in.readUnsignedShort()];
+            for (int j = 0; j < ids.length; j++) {
+                ids[j] = in.readInt();
+            }
+            ingredientIds.add(ids);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CatOrderDraft(catNames=" + names + ")";
+    }
+
+}
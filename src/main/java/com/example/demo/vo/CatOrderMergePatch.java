@@ -0,0 +1,85 @@
+package com.example.demo.vo;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import com.example.demo.domain.CatOrder;
+
+/**
+ * 订单的 JSON 合并补丁（RFC 7396 JSON Merge Patch，Content-Type: application/merge-patch+json），
+ * 例如 {"deliveryZip": "90001"} 只修改邮编，{"deliveryStreet": null} 将街道置为 null（会被 @NotBlank 拒绝）。
+ *
+ * 注：
+ *     订单的可修改字段都是字符串，没有嵌套的对象，因此合并补丁就是 "字段名 -> 新值" 的映射，
+ *     只允许修改配送和支付信息（PATCHABLE_FIELDS），id、placedAt、user、cats、version 等都不能修改。
+ *     补丁中的每个值都按 CatOrder 上对应字段的校验注解单独校验（validator.validateValue），无需先加载订单。
+ */
+public class CatOrderMergePatch {
+
+    public static final List<String> PATCHABLE_FIELDS = Collections.unmodifiableList(Arrays.asList(
+        "deliveryName", "deliveryStreet", "deliveryCity", "deliveryState", "deliveryZip",
+        "ccNumber", "ccExpiration", "ccCVV"
+    ));
+
+    private final Map<String, String> changes;
+
+    private CatOrderMergePatch(Map<String, String> changes) {
+        this.changes = Collections.unmodifiableMap(changes);
+    }
+
+    /**
+     * 解析合并补丁，不是 JSON 对象、含有不可修改的字段或值不是字符串（或 null）时抛出 IllegalArgumentException
+     */
+    public static CatOrderMergePatch of(JsonNode patch) {
+        if (patch == null || !patch.isObject()) {
+            throw new IllegalArgumentException("Merge patch must be a JSON object");
+        }
+        Map<String, String> changes = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = patch.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (!PATCHABLE_FIELDS.contains(field.getKey())) {
+                throw new IllegalArgumentException("Field '" + field.getKey() + "' cannot be patched");
+            }
+            JsonNode value = field.getValue();
+            if (!value.isNull() && !value.isTextual()) {
+                throw new IllegalArgumentException("Field '" + field.getKey() + "' must be a string or null");
+            }
+            changes.put(field.getKey(), value.isNull() ? null : value.textValue());
+        }
+        if (changes.isEmpty()) {
+            throw new IllegalArgumentException("Merge patch has nothing to change");
+        }
+        return new CatOrderMergePatch(changes);
+    }
+
+    /**
+     * 要修改的字段及其新值（按补丁中的顺序），值为 null 表示置为 null
+     */
+    public Map<String, String> getChanges() {
+        return changes;
+    }
+
+    /**
+     * 按 CatOrder 上的校验注解校验补丁中的每个值，返回 "字段名 -> 错误信息"，全部通过时为空
+     */
+    public Map<String, String> validate(Validator validator) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        for (Map.Entry<String, String> change : changes.entrySet()) {
+            for (ConstraintViolation<CatOrder> violation : validator.validateValue(CatOrder.class, change.getKey(), change.getValue())) {
+                errors.putIfAbsent(change.getKey(), violation.getMessage());
+            }
+        }
+        return errors;
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.example.demo.vo;
+
+import java.util.List;
+
+import lombok.Data;
+
+import com.example.demo.domain.Cat;
+
+/**
+ * 按配料组成查询 Cat（GET /api/cats/search）的一页结果，按 id 倒序（即大致按创建时间倒序）排列
+ *
+ * 注：total 为满足条件的 Cat 总数（不受 before 影响），下一页以 nextBefore 作为 before 参数，没有下一页时为 null。
+ */
+@Data
+public class CatSearchPage {
+
+    private final long total;
+    private final List<Cat> content;
+    private final Long nextBefore;
+
+}
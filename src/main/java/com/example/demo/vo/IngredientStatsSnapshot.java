@@ -0,0 +1,43 @@
+package com.example.demo.vo;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Data;
+
+import com.example.demo.domain.Ingredient;
+
+/**
+ * 配料统计（GET /api/stats/ingredients）的不可变快照，由 IngredientStatistics 每次刷新时算好，请求直接返回
+ */
+@Data
+public class IngredientStatsSnapshot {
+
+    private final Date computedAt;
+    private final long orders;  // 已下单的订单数
+    private final long cats;    // 已下单的 Cat 数
+    private final List<IngredientCount> ingredients;  // 按次数从多到少排列
+    private final Map<Ingredient.Type, Long> types;   // 每种类型的配料在已下单的 Cat 中出现的次数（即该类型各配料的次数之和）
+    private final List<PairCount> topPairs;           // 同时出现在一个 Cat 中次数最多的配料组合，按次数从多到少排列
+
+    @Data
+    public static class IngredientCount {
+
+        private final String id;
+        private final String name;
+        private final Ingredient.Type type;
+        private final long count;  // 包含该配料的 Cat 的个数
+
+    }
+
+    @Data
+    public static class PairCount {
+
+        private final String first;   // 两个配料 id 按字典序排列
+        private final String second;
+        private final long count;     // 同时包含这两个配料的 Cat 的个数
+
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.example.demo.vo;
+
+import java.util.Date;
+
+import lombok.Data;
+
+/**
+ * 订单清理任务（见 OrderPurgeService）的状态和进度，由清理线程更新，可随时通过 GET /admin/purge 查看
+ */
+@Data
+public class OrderPurgeStatus {
+
+    public enum State {
+        RUNNING, COMPLETED, CANCELLED, FAILED
+    }
+
+    private final Date placedBefore;  // 只删除在此之前下的订单，为 null 时删除全部订单
+    private final Date startedAt = new Date();
+    private final long estimatedOrders;  // 开始时要删除的订单数
+
+    private volatile State state = State.RUNNING;
+    private volatile Date finishedAt;
+    private volatile long ordersDeleted;
+    private volatile long catsDeleted;
+    private volatile long chunks;
+    private volatile long lastOrderId;  // 已删除的最后一块的上界，即下一块从这之后开始
+    private volatile boolean cancelRequested;
+    private volatile String error;
+
+    public boolean isRunning() {
+        return state == State.RUNNING;
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+注：
+  fast-startup 配置（application-fast-startup.yml）下代替 EclipseLink 运行时建表（eclipselink.ddl-generation=drop-and-create-tables）的表结构，
+  与 EclipseLink 按 domain 包中的实体为 H2 生成的 DDL 相同（表名、列名、类型、主键、唯一约束、索引和外键）。
+  修改实体的映射后需同步修改这里，FastStartupProfileTest 会比较两者的表结构。
+  与 drop-and-create-tables 一样，每次启动先删除已有的表再重建。
+*/
+
+DROP TABLE IF EXISTS Cat_Order_Cat CASCADE;
+DROP TABLE IF EXISTS Cat_Ingredient CASCADE;
+DROP TABLE IF EXISTS Cat_Order CASCADE;
+DROP TABLE IF EXISTS Cat CASCADE;
+DROP TABLE IF EXISTS Ingredient CASCADE;
+DROP TABLE IF EXISTS Ingredient_Stats CASCADE;
+DROP TABLE IF EXISTS "USER" CASCADE;
+DROP TABLE IF EXISTS SEQUENCE CASCADE;
+
+CREATE TABLE "USER" (
+    ID BIGINT NOT NULL,
+    CITY VARCHAR,
+    FULLNAME VARCHAR,
+    PASSWORD VARCHAR,
+    PHONENUMBER VARCHAR,
+    STATE VARCHAR,
+    STREET VARCHAR,
+    USERNAME VARCHAR UNIQUE,
+    ZIP VARCHAR,
+    PRIMARY KEY (ID)
+);
+
+CREATE TABLE Ingredient (
+    ID VARCHAR NOT NULL,
+    NAME VARCHAR,
+    TYPE VARCHAR,
+    PRIMARY KEY (ID)
+);
+
+CREATE TABLE Cat (
+    ID BIGINT NOT NULL,
+    CREATEDAT TIMESTAMP,
+    NAME VARCHAR,
+    PRIMARY KEY (ID)
+);
+
+CREATE TABLE Cat_Order (
+    ID BIGINT NOT NULL,
+    CCCVV VARCHAR,
+    CCEXPIRATION VARCHAR,
+    CCNUMBER VARCHAR,
+    DELIVERYCITY VARCHAR,
+    DELIVERYNAME VARCHAR,
+    DELIVERYSTATE VARCHAR,
+    DELIVERYSTREET VARCHAR,
+    DELIVERYZIP VARCHAR,
+    PLACEDAT TIMESTAMP,
+    VERSION BIGINT,
+    USER_ID BIGINT,
+    PRIMARY KEY (ID)
+);
+
+CREATE TABLE Ingredient_Stats (
+    ID VARCHAR NOT NULL,
+    INGREDIENTA VARCHAR,
+    INGREDIENTB VARCHAR,
+    KIND VARCHAR,
+    ORDERCOUNT BIGINT,
+    PRIMARY KEY (ID)
+);
+
+CREATE TABLE Cat_Ingredient (
+    cat_id BIGINT NOT NULL,
+    ingredient_id VARCHAR NOT NULL,
+    PRIMARY KEY (cat_id, ingredient_id)
+);
+
+CREATE TABLE Cat_Order_Cat (
+    cat_order_id BIGINT NOT NULL,
+    cat_id BIGINT NOT NULL,
+    PRIMARY KEY (cat_order_id, cat_id)
+);
+
+CREATE INDEX IDX_CAT_CREATEDAT_ID ON Cat (CREATEDAT, ID);
+
+ALTER TABLE Cat_Order ADD CONSTRAINT FK_Cat_Order_USER_ID FOREIGN KEY (USER_ID) REFERENCES "USER" (ID);
+ALTER TABLE Cat_Ingredient ADD CONSTRAINT FK_Cat_Ingredient_cat_id FOREIGN KEY (cat_id) REFERENCES Cat (ID);
+ALTER TABLE Cat_Ingredient ADD CONSTRAINT FK_Cat_Ingredient_ingredient_id FOREIGN KEY (ingredient_id) REFERENCES Ingredient (ID);
+ALTER TABLE Cat_Order_Cat ADD CONSTRAINT FK_Cat_Order_Cat_cat_order_id FOREIGN KEY (cat_order_id) REFERENCES Cat_Order (ID);
+ALTER TABLE Cat_Order_Cat ADD CONSTRAINT FK_Cat_Order_Cat_cat_id FOREIGN KEY (cat_id) REFERENCES Cat (ID);
+
+-- 实体的 @GeneratedValue(strategy=GenerationType.AUTO) 在 EclipseLink 下使用的表序列，见 SequenceBlockAllocator
+CREATE TABLE SEQUENCE (
+    SEQ_NAME VARCHAR(50) NOT NULL,
+    SEQ_COUNT DECIMAL(38),
+    PRIMARY KEY (SEQ_NAME)
+);
+INSERT INTO SEQUENCE (SEQ_NAME, SEQ_COUNT) VALUES ('SEQ_GEN', 0);
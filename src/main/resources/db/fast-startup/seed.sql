@@ -0,0 +1,30 @@
+/*
+注：
+  fast-startup 配置下代替 DemoApplication.dataLoader 的初始数据（在 data.sql 的用户和配料之后执行），
+  即 dataLoader 启动时逐个保存的那三只 Cat，主键直接写定，并把序列推进到它们之后，之后新建的实体从 4 开始分配主键。
+*/
+
+INSERT INTO Cat (ID, CREATEDAT, NAME) VALUES (1, CURRENT_TIMESTAMP, 'Garfield');
+INSERT INTO Cat (ID, CREATEDAT, NAME) VALUES (2, CURRENT_TIMESTAMP, 'Sylvester');
+INSERT INTO Cat (ID, CREATEDAT, NAME) VALUES (3, CURRENT_TIMESTAMP, 'Tom');
+
+INSERT INTO Cat_Ingredient (cat_id, ingredient_id) VALUES (1, 'FLTO');
+INSERT INTO Cat_Ingredient (cat_id, ingredient_id) VALUES (1, 'GRBF');
+INSERT INTO Cat_Ingredient (cat_id, ingredient_id) VALUES (1, 'CARN');
+INSERT INTO Cat_Ingredient (cat_id, ingredient_id) VALUES (1, 'SRCR');
+INSERT INTO Cat_Ingredient (cat_id, ingredient_id) VALUES (1, 'SLSA');
+INSERT INTO Cat_Ingredient (cat_id, ingredient_id) VALUES (1, 'CHED');
+
+INSERT INTO Cat_Ingredient (cat_id, ingredient_id) VALUES (2, 'COTO');
+INSERT INTO Cat_Ingredient (cat_id, ingredient_id) VALUES (2, 'GRBF');
+INSERT INTO Cat_Ingredient (cat_id, ingredient_id) VALUES (2, 'CHED');
+INSERT INTO Cat_Ingredient (cat_id, ingredient_id) VALUES (2, 'JACK');
+INSERT INTO Cat_Ingredient (cat_id, ingredient_id) VALUES (2, 'SRCR');
+
+INSERT INTO Cat_Ingredient (cat_id, ingredient_id) VALUES (3, 'FLTO');
+INSERT INTO Cat_Ingredient (cat_id, ingredient_id) VALUES (3, 'COTO');
+INSERT INTO Cat_Ingredient (cat_id, ingredient_id) VALUES (3, 'TMTO');
+INSERT INTO Cat_Ingredient (cat_id, ingredient_id) VALUES (3, 'LETC');
+INSERT INTO Cat_Ingredient (cat_id, ingredient_id) VALUES (3, 'SLSA');
+
+UPDATE SEQUENCE SET SEQ_COUNT = 3 WHERE SEQ_NAME = 'SEQ_GEN';
@@ -0,0 +1,80 @@
+package com.example.demo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import com.example.demo.domain.User;
+
+public class CachedUserDetailsServiceTest {
+
+    private final UserDetailsService delegate = mock(UserDetailsService.class);
+
+    @Test
+    public void testCachesUntilEvicted() {
+        User alice = user("alice");
+        when(delegate.loadUserByUsername("alice")).thenReturn(alice);
+        CachedUserDetailsService service = new CachedUserDetailsService(delegate, 10, 60_000);
+
+        assertSame(alice, service.loadUserByUsername("alice"));
+        assertSame(alice, service.loadUserByUsername("alice"));
+        verify(delegate, times(1)).loadUserByUsername("alice");
+        assertEquals(1, service.getHits());
+
+        service.evict("alice");
+        service.loadUserByUsername("alice");
+        verify(delegate, times(2)).loadUserByUsername("alice");
+    }
+
+    @Test
+    public void testExpiresAfterTtl() throws Exception {
+        when(delegate.loadUserByUsername("alice")).thenReturn(user("alice"));
+        CachedUserDetailsService service = new CachedUserDetailsService(delegate, 10, 1);
+
+        service.loadUserByUsername("alice");
+        Thread.sleep(5);
+        service.loadUserByUsername("alice");
+        verify(delegate, times(2)).loadUserByUsername("alice");
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedBeyondMaxSize() {
+        for (String username : new String[] {"alice", "bob", "carol"}) {
+            when(delegate.loadUserByUsername(username)).thenReturn(user(username));
+        }
+        CachedUserDetailsService service = new CachedUserDetailsService(delegate, 2, 60_000);
+
+        service.loadUserByUsername("alice");
+        service.loadUserByUsername("bob");
+        service.loadUserByUsername("alice");  // alice 比 bob 更近被访问
+        service.loadUserByUsername("carol");  // 淘汰 bob
+        service.loadUserByUsername("alice");
+        service.loadUserByUsername("bob");
+        verify(delegate, times(1)).loadUserByUsername("alice");
+        verify(delegate, times(2)).loadUserByUsername("bob");
+    }
+
+    @Test
+    public void testDoesNotCacheUnknownUsers() {
+        when(delegate.loadUserByUsername("nobody")).thenThrow(new UsernameNotFoundException("nobody"));
+        CachedUserDetailsService service = new CachedUserDetailsService(delegate, 10, 60_000);
+
+        assertThrows(UsernameNotFoundException.class, () -> service.loadUserByUsername("nobody"));
+        assertThrows(UsernameNotFoundException.class, () -> service.loadUserByUsername("nobody"));
+        verify(delegate, times(2)).loadUserByUsername("nobody");
+    }
+
+    private static User user(String username) {
+        return new User(username, "{noop}secret", username, "", "", "", "", "");
+    }
+
+}
@@ -0,0 +1,204 @@
+package com.example.demo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * 用本地的模拟公钥集服务器（JDK 自带的 HttpServer）验证：
+ *   - 校验通过的 JWT 被缓存到 exp，校验失败的不缓存；
+ *   - 授权服务器轮换密钥后，带新 kid 的 JWT 触发一次重新获取即可校验通过；
+ *   - 公钥集服务器不可用时继续使用之前获取的公钥集，未知的 kid 不会引发频繁的重新获取；
+ *   - 授权服务器撤下密钥后，以它签名、已缓存的 JWT 被淘汰，不再校验通过。
+ */
+public class CachingJwtDecoderTest {
+
+    private final AtomicReference<String> served = new AtomicReference<>();  // null 时返回 500
+    private HttpServer server;
+    private BackgroundRefreshingJwkSource jwkSource;
+
+    private RSAKey key1;
+    private RSAKey key2;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        key1 = new RSAKeyGenerator(2048).keyID("k1").generate();
+        key2 = new RSAKeyGenerator(2048).keyID("k2").generate();
+        served.set(new JWKSet(key1.toPublicJWK()).toString());
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/oauth2/jwks", exchange -> {
+            String body = served.get();
+            byte[] bytes = (body == null ? "" : body).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(body == null ? 500 : 200, bytes.length == 0 ? -1 : bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (jwkSource != null) {
+            jwkSource.close();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    public void testCachesVerifiedTokens() throws Exception {
+        CachingJwtDecoder decoder = (CachingJwtDecoder) decoder(properties(Duration.ofSeconds(10)));
+
+        String token = sign(key1, "alice", Instant.now().plusSeconds(60));
+        Jwt jwt = decoder.decode(token);
+        assertEquals("alice", jwt.getSubject());
+        assertSame(jwt, decoder.decode(token));
+        assertEquals(1, decoder.getHits());
+
+        // 签名错误（用不在公钥集中的私钥签名、但冒用 kid k1）的 JWT 校验失败，且不被缓存
+        String forged = sign(new RSAKeyGenerator(2048).keyID("k1").generate(), "mallory", Instant.now().plusSeconds(60));
+        assertThrows(JwtException.class, () -> decoder.decode(forged));
+        assertThrows(JwtException.class, () -> decoder.decode(forged));
+        assertEquals(1, decoder.size());
+    }
+
+    @Test
+    public void testExpiresAtExp() throws Exception {
+        JwtDecoder delegate = mock(JwtDecoder.class);
+        when(delegate.decode(anyString())).thenAnswer(invocation -> jwt(Instant.now().plusMillis(50)));
+        CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, 10);
+
+        decoder.decode("token");
+        decoder.decode("token");
+        verify(delegate, times(1)).decode("token");
+        Thread.sleep(100);
+        decoder.decode("token");
+        verify(delegate, times(2)).decode("token");
+
+        // 没有 exp 的 JWT 不缓存
+        when(delegate.decode("no-exp")).thenReturn(jwt(null));
+        decoder.decode("no-exp");
+        decoder.decode("no-exp");
+        verify(delegate, times(2)).decode("no-exp");
+    }
+
+    @Test
+    public void testRefreshesKeysInBackground() throws Exception {
+        JwtDecoder decoder = decoder(properties(Duration.ofMillis(200)));
+        decoder.decode(sign(key1, "alice", Instant.now().plusSeconds(60)));
+        long fetches = jwkSource.getFetches();
+
+        // 授权服务器轮换密钥：带新 kid 的 JWT 触发一次重新获取
+        served.set(new JWKSet(key2.toPublicJWK()).toString());
+        Thread.sleep(300);  // 超过 minRefreshInterval
+        assertEquals("bob", decoder.decode(sign(key2, "bob", Instant.now().plusSeconds(60))).getSubject());
+        assertEquals(fetches + 1, jwkSource.getFetches());
+
+        // 公钥集服务器不可用时，已知的 kid 继续用之前获取的公钥集校验，不再请求公钥集服务器
+        served.set(null);
+        Thread.sleep(300);
+        for (int i = 0; i < 5; i++) {
+            decoder.decode(sign(key2, "carol" + i, Instant.now().plusSeconds(60)));
+        }
+        assertEquals(fetches + 1, jwkSource.getFetches());
+
+        // 未知的 kid 在 minRefreshInterval 内只触发一次重新获取，获取失败时校验失败
+        RSAKey unknown = new RSAKeyGenerator(2048).keyID("k3").generate();
+        for (int i = 0; i < 5; i++) {
+            String token = sign(unknown, "mallory" + i, Instant.now().plusSeconds(60));
+            assertThrows(JwtException.class, () -> decoder.decode(token));
+        }
+        assertEquals(fetches + 2, jwkSource.getFetches());
+        assertTrue(jwkSource.isLoaded());
+        assertEquals("dave", decoder.decode(sign(key2, "dave", Instant.now().plusSeconds(60))).getSubject());
+    }
+
+    @Test
+    public void testEvictsTokensOfRemovedKeys() throws Exception {
+        CachingJwtDecoder decoder = (CachingJwtDecoder) decoder(properties(Duration.ofMillis(200)));
+        String token1 = sign(key1, "alice", Instant.now().plusSeconds(60));
+        decoder.decode(token1);
+        decoder.decode(token1);
+        assertEquals(1, decoder.getHits());
+
+        // 授权服务器撤下 k1、换成 k2：带 k2 的 JWT 触发重新获取，缓存中以 k1 签名的 JWT 随之被淘汰
+        served.set(new JWKSet(key2.toPublicJWK()).toString());
+        Thread.sleep(300);  // 超过 minRefreshInterval
+        decoder.decode(sign(key2, "bob", Instant.now().plusSeconds(60)));
+        assertEquals(0, decoder.size());  // 带 k2 的 JWT 校验期间有密钥被撤下，它也不放入缓存
+        assertThrows(JwtException.class, () -> decoder.decode(token1));
+    }
+
+    @Test
+    public void testBoundedAcrossSegments() {
+        JwtDecoder delegate = mock(JwtDecoder.class);
+        when(delegate.decode(anyString())).thenAnswer(invocation -> jwt(Instant.now().plusSeconds(60)));
+        CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, 100);
+        for (int i = 0; i < 1000; i++) {
+            decoder.decode("token" + i);
+        }
+        assertTrue(decoder.size() <= 100);
+    }
+
+    private JwtDecoder decoder(JwtDecoderProperties properties) throws Exception {
+        URL url = new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/oauth2/jwks");
+        jwkSource = new BackgroundRefreshingJwkSource(url, properties);
+        return new SecurityConfiguration().jwtDecoder(jwkSource, properties);
+    }
+
+    private static JwtDecoderProperties properties(Duration minRefreshInterval) {
+        JwtDecoderProperties properties = new JwtDecoderProperties();
+        properties.setRefreshInterval(Duration.ofHours(1));  // 测试期间只有启动时的一次定期获取
+        properties.setMinRefreshInterval(minRefreshInterval);
+        properties.setUnknownKeyWait(Duration.ofSeconds(5));
+        return properties;
+    }
+
+    private static String sign(RSAKey key, String subject, Instant expiresAt) throws Exception {
+        SignedJWT jwt = new SignedJWT(
+            new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(),
+            new JWTClaimsSet.Builder().subject(subject).issueTime(new Date()).expirationTime(Date.from(expiresAt)).build());
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+
+    private static Jwt jwt(Instant expiresAt) {
+        Jwt.Builder builder = Jwt.withTokenValue("token").header("alg", "RS256").subject("alice");
+        return expiresAt == null ? builder.build() : builder.expiresAt(expiresAt).build();
+    }
+
+}
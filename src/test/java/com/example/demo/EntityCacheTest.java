@@ -0,0 +1,78 @@
+package com.example.demo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.eclipse.persistence.descriptors.invalidation.TimeToLiveCacheInvalidationPolicy;
+import org.eclipse.persistence.internal.identitymaps.CacheIdentityMap;
+import org.eclipse.persistence.internal.identitymaps.FullIdentityMap;
+import org.eclipse.persistence.sessions.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.test.annotation.DirtiesContext;
+
+import com.example.demo.actuator.EntityCacheEndpoint;
+import com.example.demo.domain.Cat;
+import com.example.demo.domain.Ingredient;
+import com.example.demo.domain.User;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.support.SqlStatementCounter;
+
+/**
+ * 验证 catcloud.jpa.cache 中的配置被应用到了各实体上，且按 username 查询用户时能命中缓存索引
+ */
+@SpringBootTest(properties = "catcloud.jpa.cache.statistics=true")
+@DirtiesContext  // 测试结束后关闭应用上下文：EclipseLink 会复用同名持久化单元已部署的会话，
+                 // 若多个应用上下文同时存在，后创建的上下文不会重新建表
+@Import(SqlStatementCounter.Configuration.class)
+public class EntityCacheTest {
+
+    @MockBean  // 代替 application.yml 中依赖授权服务器（localhost:8000）的 OAuth2 客户端配置
+    private ClientRegistrationRepository clientRegistrationRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+
+    @Autowired
+    private EntityCacheEndpoint entityCacheEndpoint;
+
+    @Test
+    public void testCachePolicies() {
+        Session session = entityManagerFactory.unwrap(Session.class);
+        assertEquals(FullIdentityMap.class, session.getDescriptor(Ingredient.class).getCachePolicy().getIdentityMapClass());
+        assertEquals(CacheIdentityMap.class, session.getDescriptor(Cat.class).getCachePolicy().getIdentityMapClass());
+        assertEquals(5000, session.getDescriptor(Cat.class).getCachePolicy().getIdentityMapSize());
+        assertEquals(600_000L,
+            ((TimeToLiveCacheInvalidationPolicy) session.getDescriptor(Cat.class).getCacheInvalidationPolicy()).getTimeToLive());
+        assertTrue(session.getDescriptor(User.class).getCachePolicy().hasCacheIndexes());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFindByUsernameHitsCacheIndex() {
+        assertEquals("admin", userRepository.findByUsername("admin").getUsername());  // 首次从数据库加载并放入缓存
+
+        sqlStatementCounter.reset();
+        assertEquals("admin", userRepository.findByUsername("admin").getUsername());
+        assertEquals(0, sqlStatementCounter.get());
+
+        Map<String, Object> user = (Map<String, Object>) ((Map<String, Object>) entityCacheEndpoint.stats().get("entities")).get("User");
+        assertTrue((Long) user.get("hits") >= 1);
+        assertTrue((Integer) user.get("cached") >= 1);
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.example.demo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.eclipse.persistence.jpa.JpaEntityManagerFactory;
+import org.eclipse.persistence.tools.schemaframework.SchemaManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.demo.domain.Cat;
+import com.example.demo.domain.Ingredient;
+import com.example.demo.repository.CatRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.IngredientCatalog;
+
+/**
+ * 验证 fast-startup 配置：预先生成的表结构与 EclipseLink 生成的 DDL 一致，初始数据与 dataLoader 写入的相同，非主要流量的控制器延迟创建。
+ * 注：fast-startup 配置下不配置 issuer-uri，启动时不访问授权服务器，因此这里不需要像其它测试那样 @MockBean ClientRegistrationRepository。
+ */
+@SpringBootTest
+@ActiveProfiles("fast-startup")
+@DirtiesContext  // 同 EntityCacheTest，测试结束后关闭应用上下文
+public class FastStartupProfileTest {
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private CatRepository catRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private IngredientCatalog ingredientCatalog;
+
+    @Test
+    @DirtiesContext  // 用 EclipseLink 重新建表后数据都已清空
+    public void testSchemaMatchesEclipseLinkDdl() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        List<String> fromScripts = describeSchema(jdbcTemplate);
+
+        new SchemaManager(entityManagerFactory.unwrap(JpaEntityManagerFactory.class).getServerSession()).replaceDefaultTables(true, true);
+        List<String> fromEclipseLink = describeSchema(jdbcTemplate);
+
+        assertEquals(fromScripts, fromEclipseLink);
+    }
+
+    @Test
+    public void testSeedDataMatchesDataLoader() {
+        assertNotNull(userRepository.findByUsername("admin"));
+        Map<String, List<String>> cats = StreamSupport.stream(catRepository.findAll().spliterator(), false)
+            .collect(Collectors.toMap(Cat::getName,
+                cat -> cat.getIngredients().stream().map(Ingredient::getId).sorted().collect(Collectors.toList())));
+        assertEquals(Arrays.asList("CARN", "CHED", "FLTO", "GRBF", "SLSA", "SRCR"), cats.get("Garfield"));
+        assertEquals(Arrays.asList("CHED", "COTO", "GRBF", "JACK", "SRCR"), cats.get("Sylvester"));
+        assertEquals(Arrays.asList("COTO", "FLTO", "LETC", "SLSA", "TMTO"), cats.get("Tom"));
+
+        // 序列已推进到初始数据之后
+        Cat cat = new Cat();
+        cat.setName("After Seed");
+        cat.setIngredients(Collections.singletonList(ingredientCatalog.findById("FLTO").get()));
+        assertTrue(catRepository.save(cat).getId() > 3);
+    }
+
+    @Test
+    public void testOnlyHotControllersAreEager() {
+        assertFalse(context.getBeanFactory().getBeanDefinition("catController").isLazyInit());
+        assertFalse(context.getBeanFactory().getBeanDefinition("orderController").isLazyInit());
+        assertTrue(context.getBeanFactory().getBeanDefinition("adminController").isLazyInit());
+        assertTrue(context.getBeanFactory().getBeanDefinition("registrationController").isLazyInit());
+    }
+
+    // 各表的列（类型、长度、可否为空）、约束类型和 @Index 声明的索引，约束名由 H2 或 EclipseLink 生成，不参与比较
+    private static List<String> describeSchema(JdbcTemplate jdbcTemplate) {
+        List<String> schema = jdbcTemplate.queryForList(
+            "SELECT TABLE_NAME || '.' || COLUMN_NAME || ' ' || DATA_TYPE || '(' || COALESCE(CHARACTER_MAXIMUM_LENGTH, 0) || ') ' || IS_NULLABLE"
+                + " FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_SCHEMA = 'PUBLIC'", String.class);
+        schema.addAll(jdbcTemplate.queryForList(
+            "SELECT TABLE_NAME || ' ' || CONSTRAINT_TYPE FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS WHERE TABLE_SCHEMA = 'PUBLIC'", String.class));
+        schema.addAll(jdbcTemplate.queryForList(
+            "SELECT TABLE_NAME || ' ' || INDEX_NAME FROM INFORMATION_SCHEMA.INDEXES WHERE TABLE_SCHEMA = 'PUBLIC' AND INDEX_NAME LIKE 'IDX%'", String.class));
+        Collections.sort(schema);
+        return schema;
+    }
+
+}
@@ -0,0 +1,99 @@
+package com.example.demo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class PasswordHashingExecutorTest {
+
+    @Test
+    public void testRejectsBeyondThreadsPlusQueueCapacity() throws Exception {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setThreads(1);
+        properties.setQueueCapacity(1);
+        PasswordHashingExecutor executor = new PasswordHashingExecutor(properties, new SimpleMeterRegistry());
+        try {
+            // 注：这里不把任务交给 Spring MVC 执行，任务未完成之前一直占用名额
+            WebAsyncTask<String> first = executor.submit(() -> "first");
+            executor.submit(() -> "second");
+            assertThrows(PasswordHashingBusyException.class, () -> executor.submit(() -> "third"));
+
+            assertEquals("first", first.getCallable().call());  // 完成一个任务后归还名额
+            executor.submit(() -> "third");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testReleasesPermitWhenTimedOutWhileQueued() throws Exception {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setThreads(1);
+        properties.setQueueCapacity(1);
+        PasswordHashingExecutor executor = new PasswordHashingExecutor(properties, new SimpleMeterRegistry());
+        CountDownLatch hashing = new CountDownLatch(1);
+        try {
+            start(executor.submit(() -> {
+                hashing.await();  // 占住唯一的线程
+                return "first";
+            }));
+            MockAsyncContext queued = start(executor.submit(() -> "second"));
+
+            // 第二个任务还在排队时超时，Spring MVC 取消它，它不会再执行
+            for (AsyncListener listener : queued.getListeners()) {
+                listener.onTimeout(new AsyncEvent(queued));
+            }
+            for (AsyncListener listener : queued.getListeners()) {
+                listener.onComplete(new AsyncEvent(queued));
+            }
+
+            executor.submit(() -> "third");  // 名额已归还
+        } finally {
+            hashing.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testRunsOnCallingThreadWhenNotIsolated() throws Exception {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setIsolated(false);
+        PasswordHashingExecutor executor = new PasswordHashingExecutor(properties, new SimpleMeterRegistry());
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+
+        WebAsyncTask<String> task = executor.submit(() -> {
+            ranOn.set(Thread.currentThread());
+            return "done";
+        });
+        assertEquals(Thread.currentThread(), ranOn.get());
+        assertEquals("done", task.getCallable().call());
+    }
+
+    // 与 Spring MVC 处理返回 WebAsyncTask 的处理器方法时一样，开始 Servlet 异步处理并提交任务
+    private static MockAsyncContext start(WebAsyncTask<?> task) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+        asyncManager.setAsyncWebRequest(new StandardServletAsyncWebRequest(request, response));
+        asyncManager.startCallableProcessing(task);
+        return (MockAsyncContext) request.getAsyncContext();
+    }
+
+}
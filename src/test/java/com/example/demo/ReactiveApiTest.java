@@ -0,0 +1,108 @@
+package com.example.demo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+
+/**
+ * 验证响应式接口（catcloud.reactive.*，见 ReactiveApiServer）的应答与 Spring MVC 的接口相同：
+ * 同一个数据库上，两边的 GET /api/ingredients、GET /api/cats?recent、分页和按 id 查询的 JSON 一致
+ * （各 Cat 的配料的顺序由数据库决定，比较前按 id 排序）
+ */
+@SpringBootTest(properties = {
+    "catcloud.reactive.enabled=true",
+    "catcloud.reactive.port=0"
+})
+@DirtiesContext  // 同 EntityCacheTest，测试结束后关闭应用上下文（及响应式接口的端口）
+@AutoConfigureMockMvc
+public class ReactiveApiTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    @MockBean  // 代替 application.yml 中依赖授权服务器（localhost:8000）的 OAuth2 客户端配置
+    private ClientRegistrationRepository clientRegistrationRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ReactiveApiServer reactiveApiServer;
+
+    @Test
+    public void testSameJsonAsSpringMvc() throws Exception {
+        assertSameJson("/api/ingredients");
+        JsonNode recent = assertSameJson("/api/cats?recent");
+        assertTrue(recent.size() > 0);
+
+        JsonNode page = assertSameJson("/api/cats?recent&limit=2");
+        if (page.get("hasNext").asBoolean()) {
+            assertSameJson("/api/cats?recent&limit=2&after=" + page.get("nextCursor").asText());
+            // 省略 limit 时仍按 after 翻页（每页个数与第一页相同），而不是退回到不分页的第一页
+            JsonNode afterOnly = assertSameJson("/api/cats?recent&after=" + page.get("nextCursor").asText());
+            assertTrue(afterOnly.has("nextCursor"));
+            assertNotEquals(recent.get(0).get("id"), afterOnly.get("content").get(0).get("id"));
+        }
+        assertSameJson("/api/cats/" + recent.get(0).get("id").asLong());
+    }
+
+    @Test
+    public void testStatusCodes() {
+        WebTestClient client = reactiveClient();
+        client.get().uri("/api/cats/999999").exchange().expectStatus().isNotFound();
+        client.get().uri("/api/cats?recent&limit=0").exchange().expectStatus().isBadRequest();
+        client.get().uri("/api/cats?recent&limit=2&after=garbage").exchange().expectStatus().isBadRequest();
+    }
+
+    private JsonNode assertSameJson(String uri) throws Exception {
+        JsonNode mvc = JSON.readTree(mockMvc.perform(get(uri))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsByteArray());
+        JsonNode reactive = JSON.readTree(reactiveClient().get().uri(uri)
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+            .expectBody(byte[].class).returnResult().getResponseBody());
+        assertEquals(sortIngredients(mvc), sortIngredients(reactive), uri);
+        return mvc;
+    }
+
+    private WebTestClient reactiveClient() {
+        return WebTestClient.bindToServer().baseUrl("http://localhost:" + reactiveApiServer.getPort()).build();
+    }
+
+    // 把所有 "ingredients" 数组按配料 id 排序
+    private static JsonNode sortIngredients(JsonNode node) {
+        if (node.isObject() && node.get("ingredients") instanceof ArrayNode) {
+            ArrayNode ingredients = (ArrayNode) node.get("ingredients");
+            List<JsonNode> sorted = new ArrayList<>();
+            ingredients.forEach(sorted::add);
+            sorted.sort(Comparator.comparing(ingredient -> ingredient.get("id").asText()));
+            ingredients.removeAll();
+            ingredients.addAll(sorted);
+        }
+        node.forEach(ReactiveApiTest::sortIngredients);
+        return node;
+    }
+
+}
@@ -0,0 +1,178 @@
+package com.example.demo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Collections;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.example.demo.domain.Cat;
+import com.example.demo.domain.Ingredient;
+import com.example.demo.repository.CatRepository;
+import com.example.demo.service.IngredientCatalog;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 用两个 H2 内存数据库（catcloud 为主库，catcloud-replica 为只读副本）验证读写分离：
+ *   - 只读事务（仓库的查询方法）读副本，写入和事务外的 JDBC 访问都在主库，两个连接池各有 Hikari 指标；
+ *   - 配料目录总是从主库重新加载，写入配料后的新快照中马上就有；
+ *   - 会话下单后的 replicaLag 时间内，该会话的请求（包括在异步线程中执行的订单导出）只读主库，能马上看到副本中还没有的数据。
+ * 测试中没有真正的复制，每个测试开始前把主库当时的内容（H2 的 SCRIPT）导入副本，之后主库的写入副本都看不到，相当于复制延迟无限大。
+ * 注：应用启动时就会有只读事务访问副本，因此在启动前先用 fast-startup 的建表脚本（与 EclipseLink 生成的表结构相同）在副本中建好空表。
+ */
+@SpringBootTest(properties = {
+    "catcloud.datasource.read.url=" + ReadWriteRoutingTest.REPLICA_URL,
+    "catcloud.datasource.read.replica-lag=1s"
+})
+@DirtiesContext  // 同 EntityCacheTest，测试结束后关闭应用上下文
+@AutoConfigureMockMvc
+public class ReadWriteRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:catcloud-replica;DB_CLOSE_DELAY=-1";
+
+    @MockBean  // 代替 application.yml 中依赖授权服务器（localhost:8000）的 OAuth2 客户端配置
+    private ClientRegistrationRepository clientRegistrationRepository;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    private DataSource dataSource;  // 路由数据源
+
+    @Autowired
+    private CatRepository catRepository;
+
+    @Autowired
+    private IngredientCatalog ingredientCatalog;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeAll
+    public static void createReplicaSchema() {
+        new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""))
+            .execute("RUNSCRIPT FROM 'classpath:db/fast-startup/schema.sql'");
+    }
+
+    @BeforeEach
+    public void replicate() {
+        JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+        replica.execute("DROP ALL OBJECTS");
+        for (String statement : new JdbcTemplate(primaryDataSource).queryForList("SCRIPT", String.class)) {
+            replica.execute(statement);
+        }
+    }
+
+    @Test
+    public void testRoutesReadOnlyTransactionsToReplica() {
+        assertTrue(dataSource instanceof ReadWriteRoutingDataSource);
+        long replicated = catRepository.count();
+
+        catRepository.save(cat("Written To Primary"));
+
+        assertEquals(replicated, catRepository.count());  // 只读事务：副本中还没有
+        assertEquals(replicated + 1,                     // 事务外的 JDBC 访问：主库
+            new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM Cat", Long.class).longValue());
+
+        for (String pool : new String[] {"catcloud-primary", "catcloud-read"}) {
+            assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", pool).gauge(), pool);
+        }
+    }
+
+    @Test
+    public void testCatalogReloadsFromPrimary() {
+        long version = ingredientCatalog.snapshot().getVersion();
+
+        ingredientCatalog.save(new Ingredient("RPLG", "Replica Lag Salsa", Ingredient.Type.SAUCE));
+
+        // 副本中还没有这个配料，但新版本的快照中已经有了
+        assertEquals(0L, new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""))
+            .queryForObject("SELECT COUNT(*) FROM Ingredient WHERE id = 'RPLG'", Long.class).longValue());
+        assertTrue(ingredientCatalog.snapshot().getVersion() > version);
+        assertTrue(ingredientCatalog.snapshot().contains("RPLG"));
+    }
+
+    @Test
+    public void testPinsSessionToPrimaryAfterOrder() throws Exception {
+        catRepository.save(cat("Replica Lag"));
+        MockHttpSession session = new MockHttpSession();
+        assertFalse(recentCats(session).contains("Replica Lag"));
+
+        MvcResult order = mockMvc.perform(post("/orders").session(session)
+                .param("deliveryName", "Alice")
+                .param("deliveryStreet", "1 Main St")
+                .param("deliveryCity", "Springfield")
+                .param("deliveryState", "IL")
+                .param("deliveryZip", "62701")
+                .param("ccNumber", "4111111111111111")
+                .param("ccExpiration", "12/30")
+                .param("ccCVV", "123")
+                .with(user("alice").roles("USER")).with(csrf()))
+            .andReturn();
+        mockMvc.perform(asyncDispatch(order)).andExpect(status().is3xxRedirection());
+
+        // 下单后该会话只读主库，其它会话仍读副本
+        assertTrue(recentCats(session).contains("Replica Lag"));
+        assertFalse(recentCats(new MockHttpSession()).contains("Replica Lag"));
+        // 导出在异步线程中执行，也只读主库
+        assertTrue(exportOrders(session).contains("\"deliveryName\":\"Alice\""));
+        assertFalse(exportOrders(new MockHttpSession()).contains("\"deliveryName\":\"Alice\""));
+
+        Thread.sleep(1100);  // 超过 replica-lag 后恢复读副本
+        assertFalse(recentCats(session).contains("Replica Lag"));
+    }
+
+    private String recentCats(MockHttpSession session) throws Exception {
+        return mockMvc.perform(get("/api/cats").param("recent", "").session(session))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+    }
+
+    private String exportOrders(MockHttpSession session) throws Exception {
+        MvcResult export = mockMvc.perform(get("/api/orders/export").session(session)
+                .with(user("exporter").authorities(new SimpleGrantedAuthority("SCOPE_readOrders"))))
+            .andReturn();
+        return mockMvc.perform(asyncDispatch(export))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+    }
+
+    private Cat cat(String name) {
+        Cat cat = new Cat();
+        cat.setName(name);
+        cat.setIngredients(Collections.singletonList(ingredientCatalog.findById("FLTO").get()));
+        return cat;
+    }
+
+}
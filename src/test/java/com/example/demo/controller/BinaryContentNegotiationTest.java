@@ -0,0 +1,111 @@
+package com.example.demo.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import com.example.demo.BinaryContentConfiguration;
+
+/**
+ * 验证 CatController、IngredientController 和 Spring Data REST 导出的接口按 Accept 头以 CBOR、Smile 应答，结构与 JSON 应答相同，
+ * 未指定 Accept 时仍为 JSON，且各格式的 ETag 不同
+ */
+@SpringBootTest
+@DirtiesContext  // 同 CatControllerQueryCountTest，测试结束后关闭应用上下文
+@AutoConfigureMockMvc
+public class BinaryContentNegotiationTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final ObjectMapper CBOR = new ObjectMapper(new CBORFactory());
+    private static final ObjectMapper SMILE = new ObjectMapper(new SmileFactory());
+
+    @MockBean  // 代替 application.yml 中依赖授权服务器（localhost:8000）的 OAuth2 客户端配置
+    private ClientRegistrationRepository clientRegistrationRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testRecentCats() throws Exception {
+        JsonNode json = JSON.readTree(fetch("/api/cats?recent", MediaType.APPLICATION_JSON));
+        assertEquals(json, CBOR.readTree(fetch("/api/cats?recent", MediaType.APPLICATION_CBOR)));
+        assertEquals(json, SMILE.readTree(fetch("/api/cats?recent", BinaryContentConfiguration.APPLICATION_SMILE)));
+
+        mockMvc.perform(get("/api/cats?recent"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    public void testIngredientsETagPerRepresentation() throws Exception {
+        MvcResult json = mockMvc.perform(get("/api/ingredients")).andExpect(status().isOk()).andReturn();
+        MvcResult cbor = mockMvc.perform(get("/api/ingredients").accept(MediaType.APPLICATION_CBOR))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+            .andReturn();
+        assertEquals(JSON.readTree(json.getResponse().getContentAsByteArray()), CBOR.readTree(cbor.getResponse().getContentAsByteArray()));
+        assertTrue(cbor.getResponse().getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT));
+
+        String etag = cbor.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(json.getResponse().getHeader(HttpHeaders.ETAG), etag);
+        mockMvc.perform(get("/api/ingredients").accept(MediaType.APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/ingredients").header(HttpHeaders.IF_NONE_MATCH, etag))  // JSON 的表示与之不同
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testPostCatAsCbor() throws Exception {
+        ObjectNode cat = JSON.createObjectNode();
+        cat.put("name", "Binary");
+        cat.putArray("ingredients").addObject().put("id", "FLTO").put("name", "Flour Tortilla").put("type", "WRAP");
+
+        byte[] body = mockMvc.perform(post("/api/cats")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(MediaType.APPLICATION_CBOR)
+                .content(CBOR.writeValueAsBytes(cat)))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsByteArray();
+        assertEquals("Binary", CBOR.readTree(body).get("name").asText());
+    }
+
+    @Test
+    public void testDataRestHalAsSmile() throws Exception {
+        JsonNode json = JSON.readTree(fetch("/ingredients", MediaTypes.HAL_JSON));
+        JsonNode smile = SMILE.readTree(fetch("/ingredients", BinaryContentConfiguration.APPLICATION_SMILE));
+        assertEquals(json, smile);
+        assertTrue(smile.has("_embedded"));
+        assertTrue(smile.has("_links"));
+    }
+
+    private byte[] fetch(String uri, MediaType accept) throws Exception {
+        return mockMvc.perform(get(uri).accept(accept))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(accept))
+            .andReturn().getResponse().getContentAsByteArray();
+    }
+
+}
@@ -0,0 +1,117 @@
+package com.example.demo.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.demo.repository.SequenceBlockAllocator;
+import com.example.demo.support.SqlStatementCounter;
+
+/**
+ * 验证 Cat 的读接口执行的 SQL 语句数是固定的，不随返回的 Cat 数量增长（即没有 N+1 查询）
+ */
+@SpringBootTest
+@DirtiesContext  // 测试结束后关闭应用上下文：EclipseLink 会复用同名持久化单元已部署的会话，
+                 // 若多个应用上下文同时存在，后创建的上下文不会重新建表
+@AutoConfigureMockMvc
+@Import(SqlStatementCounter.Configuration.class)
+public class CatControllerQueryCountTest {
+
+    @MockBean  // 代替 application.yml 中依赖授权服务器（localhost:8000）的 OAuth2 客户端配置
+    private ClientRegistrationRepository clientRegistrationRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SequenceBlockAllocator sequenceBlockAllocator;
+
+    private long now;
+
+    @BeforeEach
+    public void setUp() {
+        // 每个测试插入的 Cat 都比之前的更新，以确保它们排在最近 Cat 的最前面
+        now = System.currentTimeMillis() + 3_600_000L * (1 + jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Cat", Long.class));
+    }
+
+    @Test
+    public void testRecentCats() throws Exception {
+        insertCats(20);
+
+        sqlStatementCounter.reset();
+        mockMvc.perform(get("/api/cats?recent"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(12))
+            .andExpect(jsonPath("$[0].ingredients.length()").value(3));
+        assertEquals(2, sqlStatementCounter.get());  // 一条查询 Cat，一条 IN (...) 查询它们的 ingredients
+    }
+
+    @Test
+    public void testRecentCatsAfterCursor() throws Exception {
+        List<Long> ids = insertCats(60);
+        long last = ids.get(ids.size() - 1);
+        String cursor = (now + ids.size() - 1) + "," + last;  // 最新的那个 Cat，之后的页从它开始往前
+
+        for (int limit : new int[] {3, 50}) {
+            sqlStatementCounter.reset();
+            mockMvc.perform(get("/api/cats?recent&limit=" + limit + "&after=" + cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(limit))
+                .andExpect(jsonPath("$.hasNext").value(true));
+            assertEquals(2, sqlStatementCounter.get(), "limit=" + limit);
+        }
+    }
+
+    @Test
+    public void testCatById() throws Exception {
+        long id = insertCats(1).get(0);
+
+        sqlStatementCounter.reset();
+        mockMvc.perform(get("/api/cats/" + id))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.ingredients.length()").value(3));
+        assertEquals(1, sqlStatementCounter.get());  // LEFT JOIN FETCH，一条查询同时取回 ingredients
+    }
+
+    private List<Long> insertCats(int count) {
+        long firstId = sequenceBlockAllocator.nextIds(count);
+        List<Long> ids = new ArrayList<>();
+        List<Object[]> cats = new ArrayList<>();
+        List<Object[]> catIngredients = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            long id = firstId + i;
+            ids.add(id);
+            cats.add(new Object[] { id, new Timestamp(now + i), "Cat " + id });
+            for (String ingredientId : new String[] {"FLTO", "GRBF", "CHED"}) {
+                catIngredients.add(new Object[] { id, ingredientId });
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO Cat (id, createdAt, name) VALUES (?, ?, ?)", cats);
+        jdbcTemplate.batchUpdate("INSERT INTO Cat_Ingredient (cat_id, ingredient_id) VALUES (?, ?)", catIngredients);
+        return ids;
+    }
+
+}
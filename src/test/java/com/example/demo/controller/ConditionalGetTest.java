@@ -0,0 +1,104 @@
+package com.example.demo.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.example.demo.domain.Cat;
+import com.example.demo.repository.CatRepository;
+import com.example.demo.service.IngredientCatalog;
+import com.example.demo.support.SqlStatementCounter;
+
+/**
+ * 验证带上之前应答的 ETag 再次请求时返回 304，且不执行任何 SQL（即没有查询仓库），Cat 被修改后 ETag 随之变化
+ */
+@SpringBootTest
+@DirtiesContext  // 同 CatControllerQueryCountTest，测试结束后关闭应用上下文
+@AutoConfigureMockMvc
+@Import(SqlStatementCounter.Configuration.class)
+public class ConditionalGetTest {
+
+    @MockBean  // 代替 application.yml 中依赖授权服务器（localhost:8000）的 OAuth2 客户端配置
+    private ClientRegistrationRepository clientRegistrationRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+
+    @Autowired
+    private CatRepository catRepository;
+
+    @Autowired
+    private IngredientCatalog ingredientCatalog;
+
+    @Test
+    public void testCatById() throws Exception {
+        Cat cat = new Cat();
+        cat.setName("Conditional");
+        cat.setIngredients(Arrays.asList(ingredientCatalog.findById("FLTO").get(), ingredientCatalog.findById("CHED").get()));
+        cat = catRepository.save(cat);
+
+        MvcResult first = mockMvc.perform(get("/api/cats/" + cat.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+            .andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+        sqlStatementCounter.reset();
+        mockMvc.perform(get("/api/cats/" + cat.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, etag))
+            .andExpect(content().string(""));
+        assertEquals(0, sqlStatementCounter.get());
+
+        // 只带 If-Modified-Since 时需要查询 createdAt，但仍然返回 304
+        mockMvc.perform(get("/api/cats/" + cat.getId())
+                .header(HttpHeaders.IF_MODIFIED_SINCE, first.getResponse().getHeader(HttpHeaders.LAST_MODIFIED)))
+            .andExpect(status().isNotModified());
+
+        // 修改后旧的 ETag 不再匹配
+        cat.setName("Conditional 2");
+        catRepository.save(cat);
+        MvcResult modified = mockMvc.perform(get("/api/cats/" + cat.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk())
+            .andReturn();
+        assertNotEquals(etag, modified.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    public void testAllIngredients() throws Exception {
+        String etag = mockMvc.perform(get("/api/ingredients"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        sqlStatementCounter.reset();
+        mockMvc.perform(get("/api/ingredients").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+        assertEquals(0, sqlStatementCounter.get());
+
+        ingredientCatalog.reload();  // 配料目录的版本号加一
+        mockMvc.perform(get("/api/ingredients").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk());
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.example.demo.controller;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.demo.service.IngredientCatalog;
+
+/**
+ * 验证设计页面的配料分组使用缓存的标记（GET 时模型中不再有 ingredientsMap）且与在页面中渲染的一致，配料目录重新加载后重新渲染，校验失败重新显示时保留已勾选的配料
+ */
+@SpringBootTest
+@DirtiesContext  // 同 CatControllerQueryCountTest，测试结束后关闭应用上下文
+@AutoConfigureMockMvc
+public class DesignPageTest {
+
+    @MockBean  // 代替 application.yml 中依赖授权服务器（localhost:8000）的 OAuth2 客户端配置
+    private ClientRegistrationRepository clientRegistrationRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IngredientGroupsFragmentCache ingredientGroupsFragmentCache;
+
+    @Autowired
+    private IngredientCatalog ingredientCatalog;
+
+    @Test
+    public void testIngredientGroups() throws Exception {
+        String cached = ingredientGroupsFragmentCache.render(ingredientCatalog.snapshot());
+        assertSame(cached, ingredientGroupsFragmentCache.render(ingredientCatalog.snapshot()));
+
+        String page = mockMvc.perform(get("/design").with(user("alice").roles("USER")))
+            .andExpect(status().isOk())
+            .andExpect(model().attributeDoesNotExist("ingredientsMap"))  // 配料分组使用缓存的标记，不再需要按类型分组的配料
+            .andReturn().getResponse().getContentAsString();
+        assertTrue(page.contains(cached));
+        for (String id : new String[] {"FLTO", "GRBF", "CHED", "SLSA"}) {
+            assertTrue(Pattern.compile("name=\"ingredients\"\\s+value=\"" + id + "\"\\s+id=\"" + id + "\"").matcher(page).find(), id);
+        }
+        assertTrue(page.contains("name=\"_ingredients\""));
+        assertFalse(page.contains("checked"));
+
+        ingredientCatalog.reload();
+        assertNotSame(cached, ingredientGroupsFragmentCache.render(ingredientCatalog.snapshot()));
+
+        String redisplayed = mockMvc.perform(post("/design")
+                .param("name", "ab")  // 名称太短，校验失败
+                .param("ingredients", "CHED", "SLSA")
+                .with(user("alice").roles("USER")).with(csrf()))
+            .andExpect(status().isOk())
+            .andExpect(model().attribute("ingredientsMap", ingredientCatalog.snapshot().getByType()))
+            .andReturn().getResponse().getContentAsString();
+        assertTrue(Pattern.compile("value=\"CHED\"\\s+id=\"CHED\"\\s+checked=\"checked\"").matcher(redisplayed).find());
+        assertTrue(Pattern.compile("value=\"SLSA\"\\s+id=\"SLSA\"\\s+checked=\"checked\"").matcher(redisplayed).find());
+        assertFalse(Pattern.compile("value=\"FLTO\"\\s+id=\"FLTO\"\\s+checked").matcher(redisplayed).find());
+    }
+
+}
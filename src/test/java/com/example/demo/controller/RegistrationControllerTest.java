@@ -0,0 +1,77 @@
+package com.example.demo.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.example.demo.repository.UserRepository;
+
+/**
+ * 验证两个请求同时注册同一个用户名时（都通过了 findByUsername 的检查），后插入的请求因唯一约束失败，
+ * 与用户名已存在时一样重新显示注册页面，而不是返回 500
+ */
+@SpringBootTest
+@DirtiesContext  // 同 CatControllerQueryCountTest，测试结束后关闭应用上下文
+@AutoConfigureMockMvc
+public class RegistrationControllerTest {
+
+    @MockBean  // 代替 application.yml 中依赖授权服务器（localhost:8000）的 OAuth2 客户端配置
+    private ClientRegistrationRepository clientRegistrationRepository;
+
+    @SpyBean
+    private UserRepository userRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testConcurrentRegistrationOfSameUsername() throws Exception {
+        doReturn(null).when(userRepository).findByUsername(anyString());  // 模拟两个请求都在对方插入之前做了检查
+
+        mockMvc.perform(asyncDispatch(register("racer")))
+            .andExpect(redirectedUrl("/login"));
+        mockMvc.perform(asyncDispatch(register("racer")))
+            .andExpect(status().isOk())
+            .andExpect(view().name("registration"))
+            .andExpect(model().attribute("error", true));
+
+        assertEquals(Long.valueOf(1), jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM \"USER\" WHERE username = ?", Long.class, "racer"));
+    }
+
+    private MvcResult register(String username) throws Exception {
+        MockHttpServletRequestBuilder request = post("/register")
+            .param("username", username)
+            .param("password", "password")
+            .param("fullname", "Racer")
+            .with(csrf());
+        return mockMvc.perform(request)
+            .andExpect(request().asyncStarted())
+            .andReturn();
+    }
+
+}
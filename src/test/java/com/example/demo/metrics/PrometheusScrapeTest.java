@@ -0,0 +1,84 @@
+package com.example.demo.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * 发出几个请求后抓取 /actuator/prometheus，验证处理器、仓库、表单校验和认证的指标都已导出，且只有具有 SCOPE_readMetrics 权限的用户可以抓取
+ */
+@SpringBootTest
+@DirtiesContext  // 同 CatControllerQueryCountTest，测试结束后关闭应用上下文
+@AutoConfigureMockMvc
+@AutoConfigureMetrics  // 测试中默认不导出指标（只有 SimpleMeterRegistry），需要显式开启才有 Prometheus 端点
+public class PrometheusScrapeTest {
+
+    @MockBean  // 代替 application.yml 中依赖授权服务器（localhost:8000）的 OAuth2 客户端配置
+    private ClientRegistrationRepository clientRegistrationRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testScrape() throws Exception {
+        mockMvc.perform(get("/api/cats?recent"))
+            .andExpect(status().isOk());
+        mockMvc.perform(post("/design").param("name", "ab").with(user("alice").roles("USER")).with(csrf()))
+            .andExpect(status().isOk());  // 校验失败，重新显示设计页面
+        MvcResult login = mockMvc.perform(post("/login").param("username", "nobody").param("password", "wrong").with(csrf()))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        mockMvc.perform(asyncDispatch(login))
+            .andExpect(status().isOk());  // 登录失败，重新显示登录页面
+        mockMvc.perform(get("/api/ingredients").header(HttpHeaders.AUTHORIZATION, "Bearer not-a-jwt"))
+            .andExpect(status().isUnauthorized());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+            .andExpect(status().isUnauthorized());  // 匿名用户不能读取指标
+        mockMvc.perform(get("/actuator/prometheus").with(user("alice").roles("USER")))
+            .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/health"))
+            .andExpect(status().isOk());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus")
+                .with(user("prometheus").authorities(new SimpleGrantedAuthority("SCOPE_readMetrics"))))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+
+        assertHasSample(scrape, "catcloud_controller_seconds_bucket", "uri=\"/api/cats\"", "method=\"GET\"");
+        assertHasSample(scrape, "catcloud_controller_seconds_count", "uri=\"/design\"", "method=\"POST\"");
+        assertHasSample(scrape, "spring_data_repository_invocations_seconds_bucket", "repository=\"CatRepository\"", "method=\"findAllByOrderByCreatedAtDescIdDesc\"");
+        assertHasSample(scrape, "catcloud_validation_failures_total", "object=\"cat\"", "field=\"name\"");
+        assertHasSample(scrape, "catcloud_validation_failures_total", "object=\"cat\"", "field=\"ingredients\"");
+        assertHasSample(scrape, "catcloud_authentication_seconds_bucket", "method=\"form\"", "outcome=\"failure\"");
+        assertHasSample(scrape, "catcloud_authentication_seconds_bucket", "method=\"jwt\"", "outcome=\"failure\"");
+    }
+
+    private static void assertHasSample(String scrape, String name, String... labels) {
+        boolean found = Arrays.stream(scrape.split("\n"))
+            .filter(line -> line.startsWith(name + "{"))
+            .anyMatch(line -> Arrays.stream(labels).allMatch(line::contains));
+        assertTrue(found, name + " with " + Arrays.toString(labels) + " not found in scrape");
+    }
+
+}
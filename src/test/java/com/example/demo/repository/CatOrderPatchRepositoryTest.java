@@ -0,0 +1,93 @@
+package com.example.demo.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.test.annotation.DirtiesContext;
+
+import com.example.demo.domain.CatOrder;
+
+/**
+ * 验证部分更新只修改补丁中的列、递增版本号，并在版本号过期时失败
+ */
+@SpringBootTest
+@DirtiesContext  // 同 CatControllerQueryCountTest，测试结束后关闭应用上下文
+public class CatOrderPatchRepositoryTest {
+
+    @MockBean  // 代替 application.yml 中依赖授权服务器（localhost:8000）的 OAuth2 客户端配置
+    private ClientRegistrationRepository clientRegistrationRepository;
+
+    @Autowired
+    private CatOrderRepository catOrderRepository;
+
+    @Test
+    public void testPatchUpdatesChangedColumnsAndVersion() {
+        CatOrder order = catOrderRepository.save(newOrder());
+        long version = order.getVersion();
+        catOrderRepository.findById(order.getId());  // 先读一次，让订单进入 EclipseLink 的共享缓存
+
+        Map<String, String> changes = new LinkedHashMap<>();
+        changes.put("deliveryZip", "90001");
+        changes.put("deliveryCity", "Shelbyville");
+        assertEquals(Optional.of(version + 1), catOrderRepository.patch(order.getId(), version, changes));
+
+        CatOrder patched = catOrderRepository.findById(order.getId()).get();  // 共享缓存中的旧订单已被淘汰
+        assertEquals("90001", patched.getDeliveryZip());
+        assertEquals("Shelbyville", patched.getDeliveryCity());
+        assertEquals("1 Main St", patched.getDeliveryStreet());
+        assertEquals(version + 1, patched.getVersion());
+    }
+
+    @Test
+    public void testPatchWithStaleVersionFails() {
+        CatOrder order = catOrderRepository.saveBatched(newOrder());
+        assertEquals(1L, order.getVersion());
+        catOrderRepository.patch(order.getId(), 1L, Collections.singletonMap("deliveryZip", "90001"));
+
+        assertThrows(OptimisticLockingFailureException.class,
+            () -> catOrderRepository.patch(order.getId(), 1L, Collections.singletonMap("deliveryState", "NV")));
+        assertEquals("CA", catOrderRepository.findById(order.getId()).get().getDeliveryState());
+    }
+
+    @Test
+    public void testPatchMissingOrder() {
+        assertFalse(catOrderRepository.patch(-1L, 1L, Collections.singletonMap("deliveryZip", "90001")).isPresent());
+    }
+
+    @Test
+    public void testRejectsColumnsOutsideWhitelist() {
+        CatOrder order = catOrderRepository.saveBatched(newOrder());
+        // 经过仓库代理的异常转换，IllegalArgumentException 被包装为 InvalidDataAccessApiUsageException
+        InvalidDataAccessApiUsageException e = assertThrows(InvalidDataAccessApiUsageException.class,
+            () -> catOrderRepository.patch(order.getId(), 1L, Collections.singletonMap("user_id", "1")));
+        assertTrue(e.getCause() instanceof IllegalArgumentException);
+    }
+
+    private static CatOrder newOrder() {
+        CatOrder order = new CatOrder();
+        order.setDeliveryName("Test");
+        order.setDeliveryStreet("1 Main St");
+        order.setDeliveryCity("Springfield");
+        order.setDeliveryState("CA");
+        order.setDeliveryZip("90000");
+        order.setCcNumber("4111111111111111");
+        order.setCcExpiration("12/29");
+        order.setCcCVV("123");
+        return order;
+    }
+
+}
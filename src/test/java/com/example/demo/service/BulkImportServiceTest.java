@@ -0,0 +1,127 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.example.demo.vo.BulkImportReport;
+
+/**
+ * 验证批量导入按块提交，且逐块报告被拒绝的行和提交失败的块，请求体超出上限时停止导入，
+ * 以及批量导入的接口要求相应的权限
+ */
+@SpringBootTest(properties = {"catcloud.bulk-import.chunk-size=3", "catcloud.bulk-import.max-request-size=1KB"})
+@AutoConfigureMockMvc
+@DirtiesContext  // 测试结束后关闭应用上下文：EclipseLink 会复用同名持久化单元已部署的会话，
+                 // 若多个应用上下文同时存在，后创建的上下文不会重新建表
+public class BulkImportServiceTest {
+
+    @MockBean  // 代替 application.yml 中依赖授权服务器（localhost:8000）的 OAuth2 客户端配置
+    private ClientRegistrationRepository clientRegistrationRepository;
+
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    @Autowired
+    private IngredientCatalog ingredientCatalog;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testImportIngredientsFromCsv() throws Exception {
+        BulkImportReport report = bulkImportService.importIngredients(stream(
+            "id,name,type\n"
+            + "BK01,\"Bulk, One\",WRAP\n"
+            + "BK02,Bulk Two,sauce\n"
+            + "BK03,Bulk Three,NOPE\n"   // 未知的类型
+            + "BK04,Bulk Four,CHEESE\n"
+            + "FLTO,Duplicate,WRAP\n"     // 与已有的配料主键冲突，使第二块整块回滚
+            + "BK05,Bulk Five,CHEESE\n"
+        ), BulkImportService.Format.CSV);
+
+        assertEquals(6, report.getTotalRows());
+        assertEquals(2, report.getImported());
+        assertEquals(1, report.getRejected());
+        assertEquals(3, report.getFailed());
+
+        BulkImportReport.ChunkReport first = report.getChunks().get(0);
+        assertTrue(first.isCommitted());
+        assertEquals(2, first.getFirstRow());
+        assertEquals(4, first.getErrors().get(0).getRow());
+        assertFalse(report.getChunks().get(1).isCommitted());
+
+        assertEquals("Bulk, One", ingredientCatalog.findById("BK01").get().getName());
+        assertFalse(ingredientCatalog.findById("BK04").isPresent());
+    }
+
+    @Test
+    public void testImportCatsFromNdjson() throws Exception {
+        long before = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Cat", Long.class);
+        BulkImportReport report = bulkImportService.importCats(stream(
+            "{\"name\":\"Bulk Cat 1\",\"ingredients\":[\"FLTO\",\"GRBF\"]}\n"
+            + "{\"name\":\"Bulk Cat 2\",\"ingredients\":[{\"id\":\"CHED\"}]}\n"
+            + "\n"
+            + "{\"name\":\"X\",\"ingredients\":[\"FLTO\"]}\n"      // 名称太短
+            + "{\"name\":\"Bulk Cat 4\",\"ingredients\":[\"????\"]}\n"  // 未知的配料
+            + "{not json\n"
+            + "{\"name\":\"Bulk Cat 6\",\"ingredients\":[]}\n"     // 没有配料
+            + "{\"name\":\"Bulk Cat 7\",\"ingredients\":[\"SLSA\"]}\n"
+        ), BulkImportService.Format.NDJSON);
+
+        assertEquals(7, report.getTotalRows());
+        assertEquals(3, report.getImported());
+        assertEquals(4, report.getRejected());
+        assertEquals(3, report.getChunks().size());
+        assertEquals(before + 3, (long) jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Cat", Long.class));
+        assertEquals(4L, (long) jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM Cat_Ingredient ci JOIN Cat c ON c.id = ci.cat_id WHERE c.name LIKE 'Bulk Cat %'", Long.class));
+    }
+
+    @Test
+    public void testRequestSizeLimit() {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            content.append("{\"name\":\"Limit Cat ").append(i).append("\",\"ingredients\":[\"FLTO\"]}\n");
+        }
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+            () -> bulkImportService.importCats(stream(content.toString()), BulkImportService.Format.NDJSON));
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, e.getStatus());
+    }
+
+    @Test
+    public void testBulkImportRequiresAuthority() throws Exception {
+        mockMvc.perform(post("/api/cats/bulk")
+                .contentType("application/x-ndjson")
+                .content("{\"name\":\"Anonymous Cat\",\"ingredients\":[\"FLTO\"]}\n"))
+            .andExpect(status().isUnauthorized());
+        assertEquals(0L, (long) jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Cat WHERE name = 'Anonymous Cat'", Long.class));
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
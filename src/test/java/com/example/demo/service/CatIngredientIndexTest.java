@@ -0,0 +1,97 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.test.annotation.DirtiesContext;
+
+import com.example.demo.domain.Cat;
+import com.example.demo.domain.Ingredient;
+import com.example.demo.repository.CatRepository;
+import com.example.demo.vo.CatIngredientQuery;
+
+/**
+ * 验证保存（catRepository.save、批量插入）后索引的查询结果与 SQL 的一致，修改配料后索引随之更新
+ */
+@SpringBootTest
+@DirtiesContext  // 同 OrderPurgeServiceTest，测试结束后关闭应用上下文
+public class CatIngredientIndexTest {
+
+    @MockBean  // 代替 application.yml 中依赖授权服务器（localhost:8000）的 OAuth2 客户端配置
+    private ClientRegistrationRepository clientRegistrationRepository;
+
+    @Autowired
+    private CatIngredientIndex catIngredientIndex;
+
+    @Autowired
+    private CatRepository catRepository;
+
+    @Autowired
+    private IngredientCatalog ingredientCatalog;
+
+    @Test
+    public void testMatchesSql() {
+        assertTrue(catIngredientIndex.isReady());
+        Cat saved = catRepository.save(cat("CHED", "SLSA", "FLTO"));
+        List<Cat> batch = new ArrayList<>();
+        batch.add(cat("CHED", "SLSA", "LETC"));
+        batch.add(cat("GRBF", "SLSA"));
+        batch.add(cat("CARN", "JACK"));
+        catRepository.saveAllBatched(batch);
+
+        List<CatIngredientQuery> queries = Arrays.asList(
+            CatIngredientQuery.of("CHED,SLSA", null, "LETC"),
+            CatIngredientQuery.of(null, "GRBF,CARN", null),
+            CatIngredientQuery.of("SLSA", "CHED,GRBF", "FLTO"),
+            CatIngredientQuery.of(null, null, "CHED"),
+            CatIngredientQuery.of("XXXX", null, null)  // 不存在的配料
+        );
+        for (CatIngredientQuery query : queries) {
+            assertSameAsSql(query);
+        }
+        CatIngredientIndex.Result result = catIngredientIndex.search(queries.get(0), null, 12);
+        assertTrue(result.getIds().contains(saved.getId()));
+        assertTrue(!result.getIds().contains(batch.get(0).getId()));
+
+        // 分页：第二页从第一页最后一个 id 之前开始
+        CatIngredientQuery bySalsa = CatIngredientQuery.of("SLSA", null, null);
+        List<Long> firstPage = catIngredientIndex.search(bySalsa, null, 2).getIds();
+        assertEquals(
+            catRepository.findIdsByIngredients(bySalsa, firstPage.get(1), 2),
+            catIngredientIndex.search(bySalsa, firstPage.get(1), 2).getIds());
+
+        // 修改配料后，原来的配料不再匹配
+        saved.setIngredients(Arrays.asList(ingredientCatalog.findById("LETC").get()));
+        catRepository.save(saved);
+        assertTrue(!catIngredientIndex.search(queries.get(0), null, 12).getIds().contains(saved.getId()));
+        assertSameAsSql(queries.get(0));
+        assertSameAsSql(CatIngredientQuery.of("LETC", null, null));
+    }
+
+    private void assertSameAsSql(CatIngredientQuery query) {
+        CatIngredientIndex.Result result = catIngredientIndex.search(query, null, 100);
+        assertEquals(catRepository.countByIngredients(query), result.getTotal(), query.toString());
+        assertEquals(catRepository.findIdsByIngredients(query, null, 100), result.getIds(), query.toString());
+    }
+
+    private Cat cat(String... ingredientIds) {
+        Cat cat = new Cat();
+        cat.setName("Cat " + String.join("-", ingredientIds));
+        List<Ingredient> ingredients = new ArrayList<>();
+        for (String id : ingredientIds) {
+            ingredients.add(ingredientCatalog.findById(id).get());
+        }
+        cat.setIngredients(ingredients);
+        return cat;
+    }
+
+}
@@ -0,0 +1,117 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.EmptyResultDataAccessException;
+
+import com.example.demo.domain.Ingredient;
+import com.example.demo.repository.IngredientRepository;
+
+public class IngredientCatalogTest {
+
+    private IngredientRepository ingredientRepository;
+    private IngredientCatalog ingredientCatalog;
+
+    @BeforeEach
+    public void setUp() {
+        ingredientRepository = mock(IngredientRepository.class);
+        when(ingredientRepository.findAll()).thenReturn(Arrays.asList(
+            new Ingredient("FLTO", "Flour Tortilla", Ingredient.Type.WRAP),
+            new Ingredient("CHED", "Cheddar", Ingredient.Type.CHEESE)
+        ));
+        ingredientCatalog = new IngredientCatalog(ingredientRepository);
+    }
+
+    @Test
+    public void testFindByIdServedFromSnapshot() {
+        for (int i = 0; i < 6; i++) {
+            assertTrue(ingredientCatalog.findById("FLTO").isPresent());
+        }
+        verify(ingredientRepository, times(1)).findAll();          // 快照只加载一次
+        verify(ingredientRepository, never()).findById("FLTO");    // 命中时不会查询数据库
+        assertEquals(6, ingredientCatalog.getHits());
+        assertEquals(0, ingredientCatalog.getMisses());
+        assertEquals(1, ingredientCatalog.getReloads());
+    }
+
+    @Test
+    public void testSnapshotSkipsIngredientsWithoutType() {
+        when(ingredientRepository.findAll()).thenReturn(Arrays.asList(
+            new Ingredient("FLTO", "Flour Tortilla", Ingredient.Type.WRAP),
+            new Ingredient("NOTY", "No Type", null)  // 例如直接写入数据库的、没有类型的行
+        ));
+        IngredientCatalog.Snapshot snapshot = ingredientCatalog.reload();
+        assertEquals(1, snapshot.getIngredients().size());
+        assertFalse(snapshot.contains("NOTY"));
+        assertEquals(1, snapshot.getByType().get(Ingredient.Type.WRAP).size());
+    }
+
+    @Test
+    public void testMissFallsBackToRepository() {
+        when(ingredientRepository.findById("NOPE")).thenReturn(Optional.empty());
+        assertFalse(ingredientCatalog.findById("NOPE").isPresent());
+        assertEquals(1, ingredientCatalog.getMisses());
+        assertEquals(1, ingredientCatalog.getReloads());  // 数据库中也不存在，因此不会重新加载
+    }
+
+    @Test
+    public void testSaveSwapsSnapshot() {
+        long version = ingredientCatalog.snapshot().getVersion();
+        Ingredient salsa = new Ingredient("SLSA", "Salsa", Ingredient.Type.SAUCE);
+        when(ingredientRepository.save(salsa)).thenReturn(salsa);
+        when(ingredientRepository.findAll()).thenReturn(Arrays.asList(
+            new Ingredient("FLTO", "Flour Tortilla", Ingredient.Type.WRAP),
+            new Ingredient("CHED", "Cheddar", Ingredient.Type.CHEESE),
+            salsa
+        ));
+
+        ingredientCatalog.save(salsa);
+
+        assertEquals(version + 1, ingredientCatalog.snapshot().getVersion());
+        assertTrue(ingredientCatalog.findById("SLSA").isPresent());
+        verify(ingredientRepository, never()).findById("SLSA");
+    }
+
+    @Test
+    public void testSnapshotIsReadOnlyAndShared() {
+        IngredientCatalog.Snapshot snapshot = ingredientCatalog.snapshot();
+        assertSame(snapshot.getByType(), ingredientCatalog.snapshot().getByType());  // 每个版本只计算一次，不逐次复制
+        assertSame(snapshot.get("FLTO"), snapshot.getIngredients().get(0));
+
+        ingredientCatalog.findById("FLTO").get().setName("Changed");  // findById() 返回的是可持久化的副本
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.get("FLTO").setName("Changed"));
+        assertThrows(UnsupportedOperationException.class,
+            () -> snapshot.getByType().get(Ingredient.Type.WRAP).get(0).setType(Ingredient.Type.SAUCE));
+        assertThrows(UnsupportedOperationException.class,
+            () -> snapshot.getIngredients().add(new Ingredient("SLSA", "Salsa", Ingredient.Type.SAUCE)));
+        assertEquals("Flour Tortilla", snapshot.get("FLTO").getName());
+        assertEquals(new Ingredient("FLTO", "Flour Tortilla", Ingredient.Type.WRAP), snapshot.get("FLTO"));
+    }
+
+    @Test
+    public void testDeleteUnknownId() {
+        doThrow(new EmptyResultDataAccessException(1)).when(ingredientRepository).deleteById("NOPE");
+        long version = ingredientCatalog.snapshot().getVersion();
+        assertFalse(ingredientCatalog.deleteById("NOPE"));
+        assertEquals(version, ingredientCatalog.snapshot().getVersion());  // 没有删除任何配料，不刷新快照
+
+        assertTrue(ingredientCatalog.deleteById("CHED"));
+        assertEquals(version + 1, ingredientCatalog.snapshot().getVersion());
+    }
+
+}
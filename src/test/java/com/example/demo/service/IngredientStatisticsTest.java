@@ -0,0 +1,123 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.test.annotation.DirtiesContext;
+
+import com.example.demo.domain.Cat;
+import com.example.demo.domain.CatOrder;
+import com.example.demo.domain.Ingredient;
+import com.example.demo.repository.CatOrderRepository;
+import com.example.demo.vo.IngredientStatsSnapshot;
+
+/**
+ * 验证提交的订单计入配料统计，刷新后写回汇总表，并且从订单表重建的结果与增量维护的一致，
+ * 重建时已统计到的订单不会再被计入
+ */
+@SpringBootTest(properties = "catcloud.stats.flush-interval=1h")  // 不让后台线程刷新，由测试显式调用 flush()
+@DirtiesContext  // 同 OrderPurgeServiceTest，测试结束后关闭应用上下文
+public class IngredientStatisticsTest {
+
+    @MockBean  // 代替 application.yml 中依赖授权服务器（localhost:8000）的 OAuth2 客户端配置
+    private ClientRegistrationRepository clientRegistrationRepository;
+
+    @Autowired
+    private IngredientStatistics ingredientStatistics;
+
+    @Autowired
+    private CatOrderRepository catOrderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testIncrementalMatchesRebuild() {
+        List<CatOrder> orders = new ArrayList<>();
+        orders.add(newOrder(cat("FLTO", "GRBF", "CHED"), cat("FLTO", "CHED")));
+        orders.add(newOrder(cat("COTO", "CHED", "SLSA")));
+        catOrderRepository.saveAllBatched(orders);
+
+        IngredientStatsSnapshot incremental = ingredientStatistics.flush();
+        assertEquals(2, incremental.getOrders());
+        assertEquals(3, incremental.getCats());
+        assertEquals("CHED", incremental.getIngredients().get(0).getId());
+        assertEquals(3, incremental.getIngredients().get(0).getCount());
+        assertEquals(Long.valueOf(3), incremental.getTypes().get(Ingredient.Type.WRAP));
+        assertEquals(Long.valueOf(0), incremental.getTypes().get(Ingredient.Type.VEGGIES));
+        IngredientStatsSnapshot.PairCount top = incremental.getTopPairs().get(0);
+        assertEquals(Arrays.asList("CHED", "FLTO", 2L), Arrays.asList(top.getFirst(), top.getSecond(), top.getCount()));
+        assertEquals(Long.valueOf(2), jdbcTemplate.queryForObject(
+            "SELECT orderCount FROM Ingredient_Stats WHERE id = 'PAIR:CHED:FLTO'", Long.class));
+
+        IngredientStatsSnapshot rebuilt = ingredientStatistics.rebuild();
+        assertEquals(incremental.getOrders(), rebuilt.getOrders());
+        assertEquals(incremental.getCats(), rebuilt.getCats());
+        assertEquals(incremental.getIngredients(), rebuilt.getIngredients());
+        assertEquals(incremental.getTypes(), rebuilt.getTypes());
+        assertEquals(incremental.getTopPairs(), rebuilt.getTopPairs());
+    }
+
+    @Test
+    public void testOrdersCountedByRebuildAreNotCountedAgain() {
+        List<CatOrder> orders = Arrays.asList(newOrder(cat("FLTO", "LETC")));
+        catOrderRepository.saveAllBatched(orders);
+        IngredientStatsSnapshot rebuilt = ingredientStatistics.rebuild();
+
+        // 模拟重建期间提交的订单：它已被重建的查询统计到，其提交后的 record() 在重建之后才执行
+        ingredientStatistics.record(orders);
+        IngredientStatsSnapshot flushed = ingredientStatistics.flush();
+        assertEquals(rebuilt.getOrders(), flushed.getOrders());
+        assertEquals(rebuilt.getCats(), flushed.getCats());
+
+        // 之后提交的订单照常计入，汇总表中已有的行被更新
+        catOrderRepository.saveAllBatched(Arrays.asList(newOrder(cat("FLTO", "LETC"))));
+        flushed = ingredientStatistics.flush();
+        assertEquals(rebuilt.getOrders() + 1, flushed.getOrders());
+        assertEquals(Long.valueOf(flushed.getOrders()), jdbcTemplate.queryForObject(
+            "SELECT orderCount FROM Ingredient_Stats WHERE id = 'TOTAL:ORDERS'", Long.class));
+
+        // 删除这里的订单并重建，使另一个测试从没有订单开始
+        jdbcTemplate.update("DELETE FROM Cat_Ingredient WHERE cat_id IN (SELECT cat_id FROM Cat_Order_Cat)");
+        jdbcTemplate.update("DELETE FROM Cat_Order_Cat");
+        jdbcTemplate.update("DELETE FROM Cat_Order");
+        ingredientStatistics.rebuild();
+    }
+
+    private static Cat cat(String... ingredientIds) {
+        Cat cat = new Cat();
+        cat.setName("Cat " + String.join("-", ingredientIds));
+        List<Ingredient> ingredients = new ArrayList<>();
+        for (String id : ingredientIds) {
+            ingredients.add(new Ingredient(id, id, Ingredient.Type.WRAP));  // 插入时只用到 id
+        }
+        cat.setIngredients(ingredients);
+        return cat;
+    }
+
+    private static CatOrder newOrder(Cat... cats) {
+        CatOrder order = new CatOrder();
+        order.setDeliveryName("Test");
+        order.setDeliveryStreet("1 Main St");
+        order.setDeliveryCity("Springfield");
+        order.setDeliveryState("CA");
+        order.setDeliveryZip("90000");
+        order.setCcNumber("4111111111111111");
+        order.setCcExpiration("12/29");
+        order.setCcCVV("123");
+        for (Cat cat : cats) {
+            order.addDesign(cat);
+        }
+        return order;
+    }
+
+}
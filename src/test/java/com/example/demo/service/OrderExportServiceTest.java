@@ -0,0 +1,140 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.demo.domain.Cat;
+import com.example.demo.domain.CatOrder;
+import com.example.demo.domain.Ingredient;
+import com.example.demo.repository.CatOrderRepository;
+
+/**
+ * 验证导出的每一行都是一个完整的订单，且订单中的 Cat 及其配料与保存时一致，
+ * 以及导出接口使用自己的超时时间
+ */
+@SpringBootTest(properties = {
+    "catcloud.orders.export.fetch-size=2",  // 较小的 fetchSize，让一个订单的行跨越多次读取
+    "catcloud.orders.export.timeout=45s"
+})
+@AutoConfigureMockMvc
+@DirtiesContext  // 测试结束后关闭应用上下文：EclipseLink 会复用同名持久化单元已部署的会话，
+                 // 若多个应用上下文同时存在，后创建的上下文不会重新建表
+public class OrderExportServiceTest {
+
+    @MockBean  // 代替 application.yml 中依赖授权服务器（localhost:8000）的 OAuth2 客户端配置
+    private ClientRegistrationRepository clientRegistrationRepository;
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private CatOrderRepository catOrderRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testExportTo() throws Exception {
+        List<CatOrder> orders = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            CatOrder order = newOrder("Order " + i);
+            for (int j = 0; j <= i; j++) {  // 第 i 个订单有 i + 1 个 Cat
+                order.addDesign(newCat("Cat " + i + "-" + j, "FLTO", "GRBF", "CHED"));
+            }
+            orders.add(order);
+        }
+        orders.add(newOrder("Order without cats"));
+        catOrderRepository.saveAllBatched(orders);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long exported = orderExportService.exportTo(out);
+
+        Map<Long, JsonNode> byId = new HashMap<>();
+        for (String line : new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n")) {
+            JsonNode node = objectMapper.readTree(line);
+            byId.put(node.get("id").asLong(), node);
+        }
+        assertEquals(byId.size(), exported);
+        for (CatOrder order : orders) {
+            JsonNode node = byId.get(order.getId());
+            assertEquals(order.getDeliveryName(), node.get("deliveryName").asText());
+            assertEquals(order.getCats().size(), node.get("cats").size());
+            for (JsonNode cat : node.get("cats")) {
+                assertEquals(3, cat.get("ingredients").size());
+            }
+            assertEquals(false, node.has("ccNumber"));
+        }
+    }
+
+    @Test
+    public void testExportEndpointTimeout() throws Exception {
+        catOrderRepository.saveAllBatched(Arrays.asList(newOrder("Order via endpoint")));
+
+        MvcResult started = mockMvc.perform(get("/api/orders/export")
+                .with(user("exporter").authorities(new SimpleGrantedAuthority("SCOPE_readOrders"))))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        assertEquals(45_000L, started.getRequest().getAsyncContext().getTimeout());
+
+        String body = mockMvc.perform(asyncDispatch(started))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+            .andReturn().getResponse().getContentAsString();
+        assertTrue(body.contains("\"deliveryName\":\"Order via endpoint\""));
+    }
+
+    private static CatOrder newOrder(String deliveryName) {
+        CatOrder order = new CatOrder();
+        order.setDeliveryName(deliveryName);
+        order.setDeliveryStreet("Street");
+        order.setDeliveryCity("City");
+        order.setDeliveryState("ST");
+        order.setDeliveryZip("12345");
+        order.setCcNumber("4111111111111111");
+        order.setCcExpiration("12/30");
+        order.setCcCVV("123");
+        return order;
+    }
+
+    private static Cat newCat(String name, String... ingredientIds) {
+        Cat cat = new Cat();
+        cat.setName(name);
+        List<Ingredient> ingredients = new ArrayList<>();
+        for (String id : Arrays.asList(ingredientIds)) {
+            ingredients.add(new Ingredient(id, id, Ingredient.Type.WRAP));
+        }
+        cat.setIngredients(ingredients);
+        return cat;
+    }
+
+}
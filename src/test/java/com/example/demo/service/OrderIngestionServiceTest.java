@@ -0,0 +1,76 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.example.demo.domain.CatOrder;
+import com.example.demo.repository.CatOrderRepository;
+
+/**
+ * 验证一批提交失败时改为逐个订单提交，只有出错的订单失败，以及停止后提交的订单被立即拒绝
+ */
+public class OrderIngestionServiceTest {
+
+    private CatOrderRepository catOrderRepository;
+    private OrderIngestionService orderIngestionService;
+
+    @BeforeEach
+    public void setUp() {
+        catOrderRepository = mock(CatOrderRepository.class);
+        OrderIngestionProperties properties = new OrderIngestionProperties();
+        properties.setEnabled(true);
+        properties.setMaxBatchSize(10);
+        properties.setMaxWait(Duration.ofMillis(200));  // 足够长的时间窗口，使下面的订单凑成一批
+        orderIngestionService = new OrderIngestionService(catOrderRepository, properties, new SimpleMeterRegistry());
+        orderIngestionService.start();
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        orderIngestionService.stop();
+    }
+
+    @Test
+    public void testFailingOrderDoesNotFailItsBatch() throws Exception {
+        doThrow(new DataIntegrityViolationException("batch")).when(catOrderRepository).saveAllBatched(anyList());
+        doThrow(new DataIntegrityViolationException("bad order"))
+            .when(catOrderRepository).saveBatched(argThat(order -> "Bad".equals(order.getDeliveryName())));
+
+        List<CompletableFuture<CatOrder>> futures = new ArrayList<>();
+        for (String name : new String[] {"Good 1", "Bad", "Good 2"}) {
+            CatOrder order = new CatOrder();
+            order.setDeliveryName(name);
+            futures.add(orderIngestionService.submit(order));
+        }
+
+        assertEquals("Good 1", futures.get(0).get(5, TimeUnit.SECONDS).getDeliveryName());
+        ExecutionException e = assertThrows(ExecutionException.class, () -> futures.get(1).get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof DataIntegrityViolationException);
+        assertEquals("Good 2", futures.get(2).get(5, TimeUnit.SECONDS).getDeliveryName());
+    }
+
+    @Test
+    public void testSubmitAfterStopIsRejected() throws Exception {
+        orderIngestionService.stop();
+        assertThrows(OrderQueueFullException.class, () -> orderIngestionService.submit(new CatOrder()));
+    }
+
+}
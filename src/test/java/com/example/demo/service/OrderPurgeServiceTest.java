@@ -0,0 +1,103 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.test.annotation.DirtiesContext;
+
+import com.example.demo.domain.Cat;
+import com.example.demo.domain.CatOrder;
+import com.example.demo.domain.Ingredient;
+import com.example.demo.repository.CatOrderRepository;
+import com.example.demo.vo.OrderPurgeStatus;
+
+/**
+ * 验证清理任务分块删除了截止时间之前的订单及其 Cat 和关联行，之后的订单不受影响
+ */
+@SpringBootTest(properties = "catcloud.orders.purge.chunk-size=2")  // 较小的块，让清理跨越多块
+@DirtiesContext  // 同 OrderExportServiceTest，测试结束后关闭应用上下文
+public class OrderPurgeServiceTest {
+
+    @MockBean  // 代替 application.yml 中依赖授权服务器（localhost:8000）的 OAuth2 客户端配置
+    private ClientRegistrationRepository clientRegistrationRepository;
+
+    @Autowired
+    private OrderPurgeService orderPurgeService;
+
+    @Autowired
+    private CatOrderRepository catOrderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testPurgesOrdersPlacedBeforeCutoff() throws Exception {
+        long now = System.currentTimeMillis();
+        Date cutoff = new Date(now - 1_000);
+        List<CatOrder> orders = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            orders.add(newOrder(new Date(now - 86_400_000L), 2));  // 一天前的订单，将被删除
+        }
+        CatOrder kept = newOrder(new Date(now), 1);
+        orders.add(kept);
+        catOrderRepository.saveAllBatched(orders);
+        catOrderRepository.findById(orders.get(0).getId());  // 让其中一个订单进入 EclipseLink 的共享缓存
+
+        OrderPurgeStatus status = orderPurgeService.start(cutoff);
+        assertEquals(5, status.getEstimatedOrders());
+        awaitFinished(status);
+
+        assertEquals(OrderPurgeStatus.State.COMPLETED, status.getState());
+        assertEquals(5, status.getOrdersDeleted());
+        assertEquals(10, status.getCatsDeleted());
+        assertEquals(3, status.getChunks());
+        assertEquals(Long.valueOf(1), jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Cat_Order", Long.class));
+        assertEquals(Long.valueOf(1), jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Cat_Order_Cat", Long.class));
+        assertEquals(Long.valueOf(3), jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM Cat_Ingredient WHERE cat_id = ?", Long.class, kept.getCats().get(0).getId()));
+        assertEquals(false, catOrderRepository.findById(orders.get(0).getId()).isPresent());
+        assertEquals(1, catOrderRepository.findById(kept.getId()).get().getCats().size());
+    }
+
+    private static void awaitFinished(OrderPurgeStatus status) throws InterruptedException {
+        for (int i = 0; i < 500 && status.getFinishedAt() == null; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(false, status.isRunning(), "purge did not finish in time");
+    }
+
+    private static CatOrder newOrder(Date placedAt, int cats) {
+        CatOrder order = new CatOrder();
+        order.setPlacedAt(placedAt);
+        order.setDeliveryName("Test");
+        order.setDeliveryStreet("1 Main St");
+        order.setDeliveryCity("Springfield");
+        order.setDeliveryState("CA");
+        order.setDeliveryZip("90000");
+        order.setCcNumber("4111111111111111");
+        order.setCcExpiration("12/29");
+        order.setCcCVV("123");
+        for (int i = 0; i < cats; i++) {
+            Cat cat = new Cat();
+            cat.setName("Cat " + i);
+            cat.setIngredients(Arrays.asList(
+                new Ingredient("FLTO", "Flour Tortilla", Ingredient.Type.WRAP),
+                new Ingredient("GRBF", "Ground Beef", Ingredient.Type.PROTEIN),
+                new Ingredient("CHED", "Cheddar", Ingredient.Type.CHEESE)
+            ));
+            order.addDesign(cat);
+        }
+        return order;
+    }
+
+}
@@ -0,0 +1,85 @@
+package com.example.demo.support;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * 测试用的 SQL 语句计数器：包装数据源，统计经由它执行的 SQL 语句数（execute*()，一次批量执行计为一条）。
+ *
+ * 用法：在测试类上 @Import(SqlStatementCounter.Configuration.class)，然后注入 SqlStatementCounter，
+ *       在发起请求前 reset()，请求后 get()。
+ */
+public class SqlStatementCounter {
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    public void reset() {
+        count.set(0);
+    }
+
+    public int get() {
+        return count.get();
+    }
+
+    DataSource wrap(DataSource dataSource) {
+        return proxy(DataSource.class, dataSource);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T proxy(Class<T> type, T target) {
+        return (T) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            Object result = invoke(method, target, args);
+            String name = method.getName();
+            if (Statement.class.isAssignableFrom(type) && name.startsWith("execute")) {
+                count.incrementAndGet();
+            }
+            // 继续包装取得的连接和语句，以便统计在其上执行的 SQL
+            if (result instanceof Connection && type == DataSource.class) {
+                return proxy(Connection.class, (Connection) result);
+            }
+            if (result instanceof Statement && type == Connection.class) {
+                return proxy((Class<Statement>) method.getReturnType(), (Statement) result);
+            }
+            return result;
+        });
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    @TestConfiguration
+    public static class Configuration {
+
+        @Bean
+        public SqlStatementCounter sqlStatementCounter() {
+            return new SqlStatementCounter();
+        }
+
+        @Bean
+        public static BeanPostProcessor sqlStatementCountingDataSource(org.springframework.beans.factory.ObjectProvider<SqlStatementCounter> counter) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource ? counter.getObject().wrap((DataSource) bean) : bean;
+                }
+            };
+        }
+
+    }
+
+}
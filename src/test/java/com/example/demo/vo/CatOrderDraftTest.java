@@ -0,0 +1,92 @@
+package com.example.demo.vo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.domain.Cat;
+import com.example.demo.domain.CatOrder;
+import com.example.demo.domain.Ingredient;
+
+public class CatOrderDraftTest {
+
+    private final Ingredient flto = new Ingredient("FLTO", "Flour Tortilla", Ingredient.Type.WRAP);
+    private final Ingredient grbf = new Ingredient("GRBF", "Ground Beef", Ingredient.Type.PROTEIN);
+    private final Ingredient ched = new Ingredient("CHED", "Cheddar", Ingredient.Type.CHEESE);
+
+    @Test
+    public void testSerializesAndRehydratesFromCatalog() throws Exception {
+        Ingredient longId = new Ingredient("SALSA-VERDE", "Salsa Verde", Ingredient.Type.SAUCE);  // 无法打包为 int 的 id
+        CatOrderDraft draft = new CatOrderDraft();
+        draft.addDesign(cat("Tom", flto, grbf));
+        draft.addDesign(cat("Garfield", ched, longId));
+
+        CatOrderDraft restored = roundTrip(draft);
+        assertEquals(Arrays.asList("Tom", "Garfield"), restored.getCatNames());
+
+        Map<String, Ingredient> catalog = catalog(flto, grbf, ched, longId);
+        CatOrder catOrder = restored.addDesignsTo(new CatOrder(), id -> Optional.ofNullable(catalog.get(id)));
+
+        List<Cat> cats = catOrder.getCats();
+        assertEquals(2, cats.size());
+        assertEquals("Tom", cats.get(0).getName());
+        assertEquals(Arrays.asList(flto, grbf), cats.get(0).getIngredients());
+        assertEquals(Arrays.asList(ched, longId), cats.get(1).getIngredients());
+    }
+
+    @Test
+    public void testRemovesDesignsWithDeletedIngredients() throws Exception {
+        CatOrderDraft draft = new CatOrderDraft();
+        draft.addDesign(cat("Tom", grbf));
+        draft.addDesign(cat("Garfield", ched));
+        draft.addDesign(cat("Felix", flto, grbf));
+        CatOrderDraft restored = roundTrip(draft);
+
+        Map<String, Ingredient> catalog = catalog(flto, ched);  // GRBF 已从配料目录中删除
+        Function<String, Optional<Ingredient>> ingredientById = id -> Optional.ofNullable(catalog.get(id));
+        assertThrows(IllegalStateException.class, () -> restored.toCats(ingredientById));
+
+        assertEquals(Arrays.asList("Tom", "Felix"), restored.removeStaleDesigns(ingredientById));
+        assertEquals(Arrays.asList("Garfield"), restored.getCatNames());
+        List<Cat> cats = restored.toCats(ingredientById);
+        assertEquals(Arrays.asList(ched), cats.get(0).getIngredients());
+    }
+
+    private static CatOrderDraft roundTrip(CatOrderDraft draft) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(draft);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (CatOrderDraft) in.readObject();
+        }
+    }
+
+    private static Map<String, Ingredient> catalog(Ingredient... ingredients) {
+        Map<String, Ingredient> catalog = new HashMap<>();
+        for (Ingredient ingredient : ingredients) {
+            catalog.put(ingredient.getId(), ingredient);
+        }
+        return catalog;
+    }
+
+    private static Cat cat(String name, Ingredient... ingredients) {
+        Cat cat = new Cat();
+        cat.setName(name);
+        cat.setIngredients(Arrays.asList(ingredients));
+        return cat;
+    }
+
+}